@@ -1,16 +1,303 @@
 package com.example.authsystem;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Configuration properties for the Auth System.
+ *
+ * @param apiSecret the API key relying applications send to the validation API
+ * @param tokenExpiry how long an issued token stays valid
+ * @param tokenSweepInterval how often expired tokens are evicted from memory
+ * @param allowedRedirectOrigins the origins a login may redirect back to
+ * @param redirectState the settings of the state carrying the redirect URL through a
+ * login
+ * @param tokenStore the token storage settings
+ * @param cluster the cluster settings
+ * @param signedTokens the signed token settings
+ * @param binaryProtocol the binary validation protocol settings
+ * @param concurrencyLimit the adaptive concurrency limit settings
+ * @param clients the relying applications with their own API keys, by name
+ * @param userDirectory the user directory settings
+ * @param passwordVerification the password verification pool settings
+ * @param bcrypt the BCrypt hashing settings
+ * @param userImport the bulk user import settings
+ * @param loginThrottle the login brute-force throttling settings
  */
 @ConfigurationProperties(prefix = "auth.system")
 public record AuthSystemProperties(@DefaultValue("demo-shared-secret-key") String apiSecret,
-		@DefaultValue("5m") Duration tokenExpiry,
-		@DefaultValue("http://localhost:8080") Set<String> allowedRedirectOrigins) {
+		@DefaultValue("5m") Duration tokenExpiry, @DefaultValue("30s") Duration tokenSweepInterval,
+		@DefaultValue("http://localhost:8080") Set<String> allowedRedirectOrigins,
+		@DefaultValue RedirectState redirectState, @DefaultValue TokenStoreProperties tokenStore,
+		@DefaultValue Cluster cluster, @DefaultValue SignedTokens signedTokens,
+		@DefaultValue BinaryProtocol binaryProtocol, @DefaultValue ConcurrencyLimit concurrencyLimit,
+		@DefaultValue Map<String, Client> clients, @DefaultValue UserDirectoryProperties userDirectory,
+		@DefaultValue PasswordVerification passwordVerification, @DefaultValue Bcrypt bcrypt,
+		@DefaultValue UserImport userImport, @DefaultValue LoginThrottle loginThrottle) {
+
+	/**
+	 * Settings of the signed state that carries the redirect URL from the login page to
+	 * the login success handler.
+	 *
+	 * @param signingKey the key signing the state, at least 32 characters; a random key
+	 * is generated at startup when unset, so nodes behind a load balancer without sticky
+	 * sessions need a shared one
+	 * @param maxAge how long a rendered login page can be submitted with its redirect
+	 */
+	public record RedirectState(String signingKey, @DefaultValue("30m") Duration maxAge) {
+	}
+
+	/**
+	 * Token storage settings.
+	 *
+	 * @param type the storage implementation to use
+	 * @param stripes the number of lock stripes for the striped and compact stores,
+	 * rounded up to a power of two; {@code 0} sizes it from the number of available
+	 * processors
+	 * @param capacity the maximum number of held tokens, used or not
+	 * @param overloadPolicy what to do when a token is issued while the store is at
+	 * capacity
+	 * @param maxTokensPerUser the maximum number of outstanding unused tokens per user;
+	 * issuing another one evicts that user's oldest token
+	 * @param journal the token journal settings
+	 */
+	public record TokenStoreProperties(@DefaultValue("striped") TokenStoreType type, @DefaultValue("0") int stripes,
+			@DefaultValue("1000000") int capacity, @DefaultValue("reject") OverloadPolicy overloadPolicy,
+			@DefaultValue("5") int maxTokensPerUser, @DefaultValue Journal journal) {
+	}
+
+	/**
+	 * What to do when a token is issued while the token store is at capacity.
+	 */
+	public enum OverloadPolicy {
+
+		/**
+		 * Refuse to issue the token.
+		 */
+		REJECT,
+
+		/**
+		 * Evict the token that would expire soonest to make room.
+		 */
+		EVICT_SOONEST_EXPIRING
+
+	}
+
+	/**
+	 * Token journal settings. When enabled, outstanding tokens survive a restart.
+	 *
+	 * @param enabled whether issued and consumed tokens are journaled
+	 * @param path the journal file
+	 * @param initialSize the initial size of the memory-mapped journal file
+	 * @param compactionInterval how often the journal is rewritten without dead entries
+	 */
+	public record Journal(@DefaultValue("false") boolean enabled, @DefaultValue("data/tokens.journal") Path path,
+			@DefaultValue("64MB") DataSize initialSize, @DefaultValue("5m") Duration compactionInterval) {
+	}
+
+	/**
+	 * Cluster settings. When enabled, token ownership is partitioned across the nodes by
+	 * consistent hashing and validations are forwarded to the owning node.
+	 *
+	 * @param enabled whether this node is part of a cluster
+	 * @param self the base URL other nodes use to reach this node
+	 * @param peers the base URLs of the other nodes
+	 * @param virtualNodes the number of points each node takes on the hash ring
+	 */
+	public record Cluster(@DefaultValue("false") boolean enabled, String self, @DefaultValue List<String> peers,
+			@DefaultValue("128") int virtualNodes) {
+	}
+
+	/**
+	 * Signed token settings. When enabled, issued tokens embed the user's claims and an
+	 * HMAC-SHA256 signature so that relying applications holding the same key can verify
+	 * them locally.
+	 *
+	 * @param enabled whether issued tokens are signed
+	 * @param signingKey the shared signing key, at least 32 characters
+	 */
+	public record SignedTokens(@DefaultValue("false") boolean enabled, String signingKey) {
+	}
+
+	/**
+	 * Binary validation protocol settings. When enabled, relying applications on the same
+	 * host can validate tokens over a persistent connection without HTTP overhead.
+	 *
+	 * @param enabled whether the binary validation protocol is served
+	 * @param socketPath the Unix domain socket to listen on
+	 * @param port the loopback TCP port to listen on
+	 */
+	public record BinaryProtocol(@DefaultValue("false") boolean enabled, Path socketPath, Integer port) {
+	}
+
+	/**
+	 * Adaptive concurrency limit settings for the login and validation endpoints.
+	 * Requests beyond the current limit are rejected with
+	 * {@code 503 Service Unavailable}.
+	 *
+	 * @param enabled whether the endpoints are concurrency limited
+	 * @param login the limit for submitting credentials to {@code /login}
+	 * @param validate the limit for the token validation API
+	 */
+	public record ConcurrencyLimit(@DefaultValue("true") boolean enabled, @DefaultValue Limit login,
+			@DefaultValue Limit validate) {
+
+		/**
+		 * Bounds of an adaptive concurrency limit.
+		 *
+		 * @param initial the limit before any latency has been observed
+		 * @param min the lowest the limit may shrink to
+		 * @param max the highest the limit may grow to
+		 */
+		public record Limit(@DefaultValue("20") int initial, @DefaultValue("1") int min,
+				@DefaultValue("1000") int max) {
+		}
+
+	}
+
+	/**
+	 * A relying application with its own API key and request quota.
+	 *
+	 * @param apiKey the API key the application sends in the {@code X-API-Key} header
+	 * @param requestsPerSecond the sustained rate of token API requests the application
+	 * may make, each token of a batch counting as one; {@code 0} for no quota
+	 * @param burst how many requests the application may make at once; {@code 0} for one
+	 * second's worth
+	 */
+	public record Client(String apiKey, @DefaultValue("0") int requestsPerSecond, @DefaultValue("0") int burst) {
+	}
+
+	/**
+	 * User directory settings.
+	 *
+	 * @param type the directory implementation to use
+	 * @param file the users file of the file directory, a YAML list if it ends in
+	 * {@code .yml} or {@code .yaml} and JSON Lines otherwise
+	 * @param cache the read-through cache in front of directories backed by external
+	 * storage
+	 */
+	public record UserDirectoryProperties(@DefaultValue("in-memory") UserDirectoryType type, Path file,
+			@DefaultValue UserCache cache) {
+	}
+
+	/**
+	 * Read-through user cache settings.
+	 *
+	 * @param enabled whether lookups are cached
+	 * @param maxSize the maximum number of cached usernames, found or not
+	 * @param ttl how long a found user is cached
+	 * @param negativeTtl how long an unknown username is cached
+	 */
+	public record UserCache(@DefaultValue("true") boolean enabled, @DefaultValue("100000") int maxSize,
+			@DefaultValue("5m") Duration ttl, @DefaultValue("30s") Duration negativeTtl) {
+	}
+
+	/**
+	 * Settings of the pool that verifies passwords off the request threads. Logins beyond
+	 * what the pool and its queue hold are rejected with {@code 503 Service Unavailable}.
+	 *
+	 * @param threads the number of passwords verified at once; {@code 0} for one per
+	 * available processor
+	 * @param queueCapacity the number of verifications that may wait for a thread
+	 */
+	public record PasswordVerification(@DefaultValue("0") int threads, @DefaultValue("64") int queueCapacity) {
+	}
+
+	/**
+	 * BCrypt hashing settings for new and rehashed passwords.
+	 *
+	 * @param strength the BCrypt strength (log rounds); {@code 0} to calibrate it at
+	 * startup
+	 * @param targetTime the longest a single hash may take on this machine when
+	 * calibrating
+	 * @param minStrength the lowest strength calibration may pick, however slow the
+	 * machine
+	 */
+	public record Bcrypt(@DefaultValue("0") int strength, @DefaultValue("100ms") Duration targetTime,
+			@DefaultValue("10") int minStrength) {
+	}
+
+	/**
+	 * Bulk user import settings.
+	 *
+	 * @param file a CSV or JSON Lines file of users to import in the background at
+	 * startup, CSV if it ends in {@code .csv}
+	 * @param parallelism the number of passwords hashed at once during an import;
+	 * {@code 0} for half the available processors
+	 * @param batchSize the number of records parsed, hashed and saved together, which
+	 * bounds the memory an import takes
+	 */
+	public record UserImport(Path file, @DefaultValue("0") int parallelism, @DefaultValue("1000") int batchSize) {
+	}
+
+	/**
+	 * Settings of the throttling of failed logins. Logins for a username or from a client
+	 * address that failed too often within the window are rejected with {@code 429 Too
+	 * Many Requests} before their password is verified.
+	 *
+	 * @param enabled whether failed logins are throttled
+	 * @param window the sliding window failures are counted in
+	 * @param maxFailuresPerUsername the failures for one username after which its logins
+	 * are rejected
+	 * @param maxFailuresPerAddress the failures from one client address, or IPv6 /64
+	 * network, after which its logins are rejected
+	 * @param sketchWidth the number of counters per row of each failure sketch, which
+	 * fixes its memory use and bounds how far distinct keys inflate each other's counts
+	 */
+	public record LoginThrottle(@DefaultValue("true") boolean enabled, @DefaultValue("5m") Duration window,
+			@DefaultValue("10") int maxFailuresPerUsername, @DefaultValue("100") int maxFailuresPerAddress,
+			@DefaultValue("65536") int sketchWidth) {
+	}
+
+	/**
+	 * Available user directory implementations.
+	 */
+	public enum UserDirectoryType {
+
+		/**
+		 * The demo users, held in memory.
+		 */
+		IN_MEMORY,
+
+		/**
+		 * A {@code users} table in the configured data source.
+		 */
+		JDBC,
+
+		/**
+		 * A users file, reloaded when it changes.
+		 */
+		FILE
+
+	}
+
+	/**
+	 * Available token storage implementations.
+	 */
+	public enum TokenStoreType {
+
+		/**
+		 * A single {@link java.util.concurrent.ConcurrentHashMap}.
+		 */
+		CONCURRENT_MAP,
+
+		/**
+		 * Lock-striped hash maps.
+		 */
+		STRIPED,
+
+		/**
+		 * Lock-striped open-addressed primitive arrays.
+		 */
+		COMPACT
+
+	}
+
 }
@@ -0,0 +1,57 @@
+package com.example.authsystem.auth;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt strength for this machine: the highest one whose hashes still take no
+ * longer than a target time.
+ * <p>
+ * Each step of strength doubles the work of a hash, so the time is measured only at the
+ * minimum strength and doubled from there. The fastest of a few hashes after a warm-up is
+ * used, since slower ones measure the JIT, the garbage collector or other load rather
+ * than the hash. The minimum strength is used however slow the machine is.
+ */
+public final class BCryptCalibrator {
+
+	private static final int MAX_STRENGTH = 31;
+
+	private static final int SAMPLES = 3;
+
+	private BCryptCalibrator() {
+	}
+
+	/**
+	 * Measures BCrypt on this machine and picks a strength.
+	 * @param targetTime the longest a hash may take
+	 * @param minStrength the lowest acceptable strength
+	 * @return the strength to hash new passwords with
+	 */
+	public static int calibrate(Duration targetTime, int minStrength) {
+		return calibrate(targetTime, minStrength, BCryptCalibrator::hashNanos);
+	}
+
+	static int calibrate(Duration targetTime, int minStrength, IntToLongFunction hashNanos) {
+		hashNanos.applyAsLong(minStrength);
+		long nanos = Long.MAX_VALUE;
+		for (int i = 0; i < SAMPLES; i++) {
+			nanos = Math.min(nanos, hashNanos.applyAsLong(minStrength));
+		}
+		int strength = minStrength;
+		while (strength < MAX_STRENGTH && nanos * 2 <= targetTime.toNanos()) {
+			nanos *= 2;
+			strength++;
+		}
+		return strength;
+	}
+
+	private static long hashNanos(int strength) {
+		String salt = BCrypt.gensalt(strength);
+		long start = System.nanoTime();
+		BCrypt.hashpw("calibration", salt);
+		return System.nanoTime() - start;
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.example.authsystem.auth;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} that verifies passwords on a dedicated, bounded pool of threads
+ * instead of the calling request thread.
+ * <p>
+ * Password hashes are deliberately CPU-bound, so running more of them at once than there
+ * are cores only makes each one slower. The pool runs at most {@code threads} checks and
+ * queues at most {@code queueCapacity} more; a check submitted beyond that fails straight
+ * away with a {@link PasswordVerificationRejectedException} rather than waiting behind a
+ * backlog it cannot clear. Request threads waiting for their check hold no CPU, so a
+ * storm of logins leaves the remaining cores to token validation and health checks.
+ * <p>
+ * Encoding runs on the same pool, so that a login rehashing a password with a stale
+ * encoding is bounded like any other hash. Since a full pool rejects with an
+ * {@link org.springframework.security.core.AuthenticationException}, code outside
+ * authentication, such as creating or importing users, should hash with
+ * {@link #getDelegate()} instead.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, Closeable {
+
+	private final PasswordEncoder delegate;
+
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder completed = new LongAdder();
+
+	private final LongAdder queueWaitNanos = new LongAdder();
+
+	private final LongAdder hashNanos = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Creates an encoder.
+	 * @param delegate the encoder that encodes and verifies passwords
+	 * @param threads the number of passwords verified at once
+	 * @param queueCapacity the number of verifications that may wait for a thread
+	 */
+	public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+		this.delegate = delegate;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+				(runnable) -> Thread.ofPlatform()
+					.daemon()
+					.name("password-verifier-" + count.incrementAndGet())
+					.unstarted(runnable));
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return hash(() -> this.delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return hash(() -> this.delegate.matches(rawPassword, encodedPassword));
+	}
+
+	/**
+	 * Returns whether a password should be encoded again, which is put off while other
+	 * passwords are waiting to be verified so that rehashing does not add to a backlog.
+	 * @param encodedPassword the encoded password to check
+	 * @return true if the password should be encoded again now
+	 */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return this.executor.getQueue().isEmpty() && this.delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * Returns the encoder this one hashes with, for bulk work that must not compete with
+	 * logins for the pool.
+	 * @return the delegate encoder
+	 */
+	public PasswordEncoder getDelegate() {
+		return this.delegate;
+	}
+
+	/**
+	 * Returns the number of verifications waiting for a thread.
+	 * @return the queue depth
+	 */
+	public int getQueued() {
+		return this.executor.getQueue().size();
+	}
+
+	/**
+	 * Returns the number of verifications running.
+	 * @return the number of busy threads
+	 */
+	public int getActive() {
+		return this.executor.getActiveCount();
+	}
+
+	/**
+	 * Returns the number of completed verifications.
+	 * @return the number of completed verifications
+	 */
+	public long getCompleted() {
+		return this.completed.sum();
+	}
+
+	/**
+	 * Returns the total time completed verifications waited for a thread.
+	 * @return the total queue wait in nanoseconds
+	 */
+	public double getQueueWaitNanos() {
+		return this.queueWaitNanos.sum();
+	}
+
+	/**
+	 * Returns the total time completed verifications spent hashing.
+	 * @return the total hash time in nanoseconds
+	 */
+	public double getHashNanos() {
+		return this.hashNanos.sum();
+	}
+
+	/**
+	 * Returns the number of verifications rejected because the queue was full.
+	 * @return the number of rejections
+	 */
+	public long getRejected() {
+		return this.rejected.sum();
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	private <T> T hash(Supplier<T> hash) {
+		long submitted = System.nanoTime();
+		Future<T> result;
+		try {
+			result = this.executor.submit(() -> timed(hash, submitted));
+		}
+		catch (RejectedExecutionException ex) {
+			this.rejected.increment();
+			throw new PasswordVerificationRejectedException();
+		}
+		try {
+			return result.get();
+		}
+		catch (InterruptedException ex) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InternalAuthenticationServiceException("Interrupted while hashing password", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new InternalAuthenticationServiceException("Password hashing failed", ex.getCause());
+		}
+	}
+
+	private <T> T timed(Supplier<T> hash, long submitted) {
+		long start = System.nanoTime();
+		try {
+			return hash.get();
+		}
+		finally {
+			long end = System.nanoTime();
+			this.queueWaitNanos.add(start - submitted);
+			this.hashNanos.add(end - start);
+			this.completed.increment();
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.example.authsystem.auth;
+
+import java.time.Duration;
+import java.time.InstantSource;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through cache in front of a {@link UserDirectory} that is expensive to query.
+ * <p>
+ * Found users are cached for {@code ttl} and unknown usernames for {@code negativeTtl},
+ * so that repeated lookups of a misspelled or made-up username do not reach the
+ * underlying directory either. Entries are held in two generations: lookups and loads go
+ * to the current generation, and once it holds half of {@code maxSize} entries it becomes
+ * the previous generation and the old previous generation is dropped. A hit in the
+ * previous generation is promoted, so frequently used users survive a rotation while
+ * memory stays bounded by {@code maxSize}.
+ * <p>
+ * Saving a user or updating its password through the cache invalidates its entry on this
+ * node only; other nodes see the change once their entry expires.
+ */
+public class CachingUserDirectory implements UserDirectory {
+
+	private final UserDirectory delegate;
+
+	private final int generationSize;
+
+	private final long ttlMillis;
+
+	private final long negativeTtlMillis;
+
+	private final InstantSource instantSource;
+
+	private volatile ConcurrentHashMap<String, Entry> current = new ConcurrentHashMap<>();
+
+	private volatile ConcurrentHashMap<String, Entry> previous = new ConcurrentHashMap<>();
+
+	public CachingUserDirectory(UserDirectory delegate, int maxSize, Duration ttl, Duration negativeTtl,
+			InstantSource instantSource) {
+		this.delegate = delegate;
+		this.generationSize = Math.max(maxSize / 2, 1);
+		this.ttlMillis = ttl.toMillis();
+		this.negativeTtlMillis = negativeTtl.toMillis();
+		this.instantSource = instantSource;
+	}
+
+	@Override
+	public Optional<UserInfo> findByUsername(String username) {
+		long now = this.instantSource.millis();
+		ConcurrentHashMap<String, Entry> current = this.current;
+		Entry entry = current.get(username);
+		if (entry == null) {
+			entry = this.previous.get(username);
+			if (entry != null && entry.expiresAt() > now) {
+				cache(current, username, entry);
+			}
+		}
+		if (entry == null || entry.expiresAt() <= now) {
+			UserInfo userInfo = this.delegate.findByUsername(username).orElse(null);
+			entry = new Entry(userInfo, now + ((userInfo != null) ? this.ttlMillis : this.negativeTtlMillis));
+			cache(current, username, entry);
+		}
+		return Optional.ofNullable(entry.userInfo());
+	}
+
+	@Override
+	public void save(UserInfo userInfo) {
+		this.delegate.save(userInfo);
+		this.current.remove(userInfo.username());
+		this.previous.remove(userInfo.username());
+	}
+
+	@Override
+	public boolean updatePassword(String username, String encodedPassword) {
+		boolean updated = this.delegate.updatePassword(username, encodedPassword);
+		this.current.remove(username);
+		this.previous.remove(username);
+		return updated;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return this.delegate.isReadOnly();
+	}
+
+	/**
+	 * Returns the number of cached entries, found or not.
+	 * @return the number of entries
+	 */
+	public int size() {
+		return this.current.size() + this.previous.size();
+	}
+
+	private void cache(ConcurrentHashMap<String, Entry> current, String username, Entry entry) {
+		current.put(username, entry);
+		if (current.size() >= this.generationSize) {
+			rotate(current);
+		}
+	}
+
+	private synchronized void rotate(ConcurrentHashMap<String, Entry> full) {
+		if (this.current == full) {
+			this.previous = full;
+			this.current = new ConcurrentHashMap<>();
+		}
+	}
+
+	private record Entry(UserInfo userInfo, long expiresAt) {
+	}
+
+}
@@ -0,0 +1,301 @@
+package com.example.authsystem.auth;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link UserDirectory} that packs users into byte arrays instead of objects, so that
+ * millions of users fit in a fraction of the heap a map of {@link UserInfo} takes.
+ * <p>
+ * Each user is a record of its UTF-8 username, password and display name in an
+ * append-only arena of 1 MB pages, preceded by the index of its role set. Role names are
+ * numbered as they are first seen and a user's roles are kept as a bitset of those
+ * numbers, so every distinct combination of roles is stored once and shared by all users
+ * that have it. Usernames are indexed by an open-addressed table of record addresses
+ * tagged with the username hash, so probes rarely touch the arena and resizing never
+ * does. That comes to the size of the strings plus 10 to 42 bytes per user depending on
+ * how full the table is, against roughly 300 bytes for a
+ * {@code ConcurrentHashMap<String, UserInfo>} entry. {@link UserInfo} instances are only
+ * materialized by lookups.
+ * <p>
+ * Lookups never lock. Writers are serialized and publish a record by storing its address
+ * in the table with release semantics after the record is complete. Replacing a user
+ * leaves its old record behind, so the directory suits user bases that are loaded in bulk
+ * and rebuilt rather than edited one by one. At most 64 distinct roles are supported, and
+ * roles are returned in the order they were first seen.
+ */
+public class CompactUserDirectory implements UserDirectory {
+
+	private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private static final int PAGE_SHIFT = 20;
+
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private static final int MAX_PAGES = 1 << (31 - PAGE_SHIFT);
+
+	private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+	private static final int HEADER_LENGTH = 4;
+
+	private volatile long[] table;
+
+	private volatile byte[][] pages = { new byte[PAGE_SIZE] };
+
+	// Address 0 marks an empty slot
+	private int position = 1;
+
+	private volatile int size;
+
+	private final Map<String, Integer> roleBits = new HashMap<>();
+
+	private final Map<Long, Integer> roleSetIndex = new HashMap<>();
+
+	private volatile List<String>[] roleSets = newRoleSets(8);
+
+	private int roleSetCount;
+
+	/**
+	 * Creates an empty directory.
+	 */
+	public CompactUserDirectory() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty directory sized for the given number of users.
+	 * @param expectedUsers the number of users the directory is expected to hold
+	 */
+	public CompactUserDirectory(int expectedUsers) {
+		int capacity = Integer.highestOneBit(Math.max(expectedUsers, 8) * 2 - 1) << 1;
+		this.table = new long[capacity];
+	}
+
+	@Override
+	public Optional<UserInfo> findByUsername(String username) {
+		byte[] key = username.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(key, 0, key.length);
+		long[] table = this.table;
+		int mask = table.length - 1;
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			long entry = (long) SLOTS.getAcquire(table, slot);
+			if (entry == 0) {
+				return Optional.empty();
+			}
+			if ((int) (entry >>> 32) == hash) {
+				int address = (int) entry;
+				byte[] page = this.pages[address >>> PAGE_SHIFT];
+				int offset = (address & PAGE_MASK) + HEADER_LENGTH;
+				int length = readLength(page, offset);
+				if (length == key.length && Arrays.equals(page, offset + 2, offset + 2 + length, key, 0, length)) {
+					return Optional
+						.of(materialize(username, page, offset + 2 + length, readInt(page, address & PAGE_MASK)));
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void save(UserInfo userInfo) {
+		put(userInfo, true);
+	}
+
+	/**
+	 * Adds a user unless a user with the same username exists.
+	 * @param userInfo the user information to add
+	 * @return true if the user was added
+	 */
+	public synchronized boolean add(UserInfo userInfo) {
+		return put(userInfo, false);
+	}
+
+	/**
+	 * Returns the number of users.
+	 * @return the number of users
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private boolean put(UserInfo userInfo, boolean replace) {
+		byte[] username = encode(userInfo.username());
+		int hash = hash(username, 0, username.length);
+		int slot = findSlot(username, hash);
+		long existing = this.table[slot];
+		if (existing != 0 && !replace) {
+			return false;
+		}
+		int address = append(username, encode(userInfo.password()), encode(userInfo.displayName()),
+				roleSet(userInfo.roles()));
+		SLOTS.setRelease(this.table, slot, (long) hash << 32 | address);
+		if (existing == 0 && ++this.size * 2 > this.table.length) {
+			resize();
+		}
+		return true;
+	}
+
+	private int findSlot(byte[] username, int hash) {
+		long[] table = this.table;
+		int mask = table.length - 1;
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			long entry = table[slot];
+			if (entry == 0) {
+				return slot;
+			}
+			if ((int) (entry >>> 32) == hash) {
+				int address = (int) entry;
+				byte[] page = this.pages[address >>> PAGE_SHIFT];
+				int offset = (address & PAGE_MASK) + HEADER_LENGTH;
+				int length = readLength(page, offset);
+				if (length == username.length
+						&& Arrays.equals(page, offset + 2, offset + 2 + length, username, 0, username.length)) {
+					return slot;
+				}
+			}
+		}
+	}
+
+	private void resize() {
+		long[] table = this.table;
+		long[] resized = new long[table.length * 2];
+		int mask = resized.length - 1;
+		for (long entry : table) {
+			if (entry != 0) {
+				int slot = (int) (entry >>> 32) & mask;
+				while (resized[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				resized[slot] = entry;
+			}
+		}
+		this.table = resized;
+	}
+
+	private int append(byte[] username, byte[] password, byte[] displayName, int roleSet) {
+		int length = HEADER_LENGTH + 6 + username.length + password.length + displayName.length;
+		byte[][] pages = this.pages;
+		if ((this.position >>> PAGE_SHIFT) == pages.length || (this.position & PAGE_MASK) + length > PAGE_SIZE) {
+			if (pages.length == MAX_PAGES) {
+				throw new IllegalStateException("Compact user directory is full");
+			}
+			pages = Arrays.copyOf(pages, pages.length + 1);
+			pages[pages.length - 1] = new byte[PAGE_SIZE];
+			this.pages = pages;
+			this.position = (pages.length - 1) << PAGE_SHIFT;
+		}
+		int address = this.position;
+		byte[] page = pages[address >>> PAGE_SHIFT];
+		int offset = address & PAGE_MASK;
+		writeInt(page, offset, roleSet);
+		offset = write(page, offset + HEADER_LENGTH, username);
+		offset = write(page, offset, password);
+		write(page, offset, displayName);
+		this.position += length;
+		return address;
+	}
+
+	private int roleSet(List<String> roles) {
+		long bits = 0;
+		for (String role : roles) {
+			Integer bit = this.roleBits.get(role);
+			if (bit == null) {
+				if (this.roleBits.size() == Long.SIZE) {
+					throw new IllegalArgumentException("At most " + Long.SIZE + " distinct roles are supported");
+				}
+				bit = this.roleBits.size();
+				this.roleBits.put(role, bit);
+			}
+			bits |= 1L << bit;
+		}
+		Integer index = this.roleSetIndex.get(bits);
+		if (index != null) {
+			return index;
+		}
+		List<String> names = new ArrayList<>(Long.bitCount(bits));
+		for (int bit = 0; bit < Long.SIZE; bit++) {
+			if ((bits & (1L << bit)) != 0) {
+				names.add(roleName(bit));
+			}
+		}
+		List<String>[] roleSets = this.roleSets;
+		if (this.roleSetCount == roleSets.length) {
+			roleSets = Arrays.copyOf(roleSets, roleSets.length * 2);
+		}
+		roleSets[this.roleSetCount] = List.copyOf(names);
+		this.roleSets = roleSets;
+		this.roleSetIndex.put(bits, this.roleSetCount);
+		return this.roleSetCount++;
+	}
+
+	private String roleName(int bit) {
+		for (Map.Entry<String, Integer> entry : this.roleBits.entrySet()) {
+			if (entry.getValue() == bit) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("Unknown role bit " + bit);
+	}
+
+	private UserInfo materialize(String username, byte[] page, int offset, int roleSet) {
+		int passwordLength = readLength(page, offset);
+		String password = new String(page, offset + 2, passwordLength, StandardCharsets.UTF_8);
+		offset += 2 + passwordLength;
+		String displayName = new String(page, offset + 2, readLength(page, offset), StandardCharsets.UTF_8);
+		return new UserInfo(username, password, displayName, this.roleSets[roleSet]);
+	}
+
+	private static byte[] encode(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_STRING_LENGTH) {
+			throw new IllegalArgumentException("User field longer than " + MAX_STRING_LENGTH + " bytes");
+		}
+		return bytes;
+	}
+
+	private static int write(byte[] page, int offset, byte[] value) {
+		page[offset] = (byte) (value.length >>> 8);
+		page[offset + 1] = (byte) value.length;
+		System.arraycopy(value, 0, page, offset + 2, value.length);
+		return offset + 2 + value.length;
+	}
+
+	private static int readLength(byte[] page, int offset) {
+		return (page[offset] & 0xFF) << 8 | (page[offset + 1] & 0xFF);
+	}
+
+	private static void writeInt(byte[] page, int offset, int value) {
+		page[offset] = (byte) (value >>> 24);
+		page[offset + 1] = (byte) (value >>> 16);
+		page[offset + 2] = (byte) (value >>> 8);
+		page[offset + 3] = (byte) value;
+	}
+
+	private static int readInt(byte[] page, int offset) {
+		return (page[offset] & 0xFF) << 24 | (page[offset + 1] & 0xFF) << 16 | (page[offset + 2] & 0xFF) << 8
+				| (page[offset + 3] & 0xFF);
+	}
+
+	private static int hash(byte[] bytes, int from, int to) {
+		int hash = 1;
+		for (int i = from; i < to; i++) {
+			hash = 31 * hash + bytes[i];
+		}
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String>[] newRoleSets(int length) {
+		return new List[length];
+	}
+
+}
@@ -1,17 +1,24 @@
 package com.example.authsystem.auth;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.stereotype.Service;
 
 /**
  * Custom UserDetailsService implementation that loads user information from UserService.
+ * <p>
+ * As a {@link UserDetailsPasswordService} it stores the rehashed password of a user whose
+ * hash was weaker than the current encoding when they logged in. Rehashing is best
+ * effort: a failure to store the new hash is logged and the login goes ahead.
  */
-@Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+	private static final Log logger = LogFactory.getLog(CustomUserDetailsService.class);
 
 	private final UserService userService;
 
@@ -31,4 +38,18 @@ public class CustomUserDetailsService implements UserDetailsService {
 			.build();
 	}
 
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		try {
+			if (!this.userService.updatePassword(user.getUsername(), newPassword)) {
+				return user;
+			}
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Failed to store the rehashed password of " + user.getUsername(), ex);
+			return user;
+		}
+		return User.withUserDetails(user).password(newPassword).build();
+	}
+
 }
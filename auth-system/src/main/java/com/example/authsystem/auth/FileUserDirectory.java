@@ -0,0 +1,198 @@
+package com.example.authsystem.auth;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+/**
+ * {@link UserDirectory} that reads users from a file and reloads it when it changes.
+ * <p>
+ * A file ending in {@code .yml} or {@code .yaml} holds a YAML list of users, any other
+ * file one JSON object per line. Either way a user has the {@code username},
+ * {@code password}, {@code displayName} and {@code roles} of {@link UserInfo}.
+ * <p>
+ * The users are held in a {@link CompactUserDirectory} snapshot that is never modified
+ * once loaded. A watcher thread parses the file into a new snapshot whenever it changes
+ * and swaps it in with a single volatile write, so lookups never lock and never see a
+ * partially loaded file. A file that fails to parse is logged and the previous snapshot
+ * stays in place. The directory is read-only: users are managed by editing the file.
+ */
+public class FileUserDirectory implements UserDirectory, Closeable {
+
+	private static final Log logger = LogFactory.getLog(FileUserDirectory.class);
+
+	private static final long SETTLE_MILLIS = 100;
+
+	private final Path file;
+
+	private final ObjectMapper objectMapper;
+
+	private final WatchService watchService;
+
+	private volatile CompactUserDirectory users;
+
+	private volatile Object loadedVersion;
+
+	/**
+	 * Loads the users file and starts watching it for changes.
+	 * @param file the users file
+	 * @param objectMapper the object mapper to read users with
+	 * @throws IOException if the file cannot be read or watched
+	 * @throws IllegalArgumentException if the file cannot be parsed
+	 */
+	public FileUserDirectory(Path file, ObjectMapper objectMapper) throws IOException {
+		this.file = file.toAbsolutePath();
+		this.objectMapper = objectMapper;
+		reload();
+		this.watchService = this.file.getFileSystem().newWatchService();
+		this.file.getParent()
+			.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+		Thread.ofPlatform().daemon().name("user-file-watcher").start(this::watch);
+	}
+
+	@Override
+	public Optional<UserInfo> findByUsername(String username) {
+		return this.users.findByUsername(username);
+	}
+
+	@Override
+	public void save(UserInfo userInfo) {
+		throw new UnsupportedOperationException("Users are managed by editing " + this.file);
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	/**
+	 * Returns the number of users in the current snapshot.
+	 * @return the number of users
+	 */
+	public int size() {
+		return this.users.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.watchService.close();
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = this.watchService.take();
+				// Let an editor or a copy finish writing before parsing
+				do {
+					key.pollEvents();
+					key.reset();
+				}
+				while ((key = this.watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+				reloadIfChanged();
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException ex) {
+			// Closed on shutdown
+		}
+	}
+
+	private void reloadIfChanged() {
+		try {
+			if (Files.exists(this.file) && !version().equals(this.loadedVersion)) {
+				reload();
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			logger.warn("Failed to reload users from " + this.file + ", keeping the previous " + this.users.size()
+					+ " users", ex);
+		}
+	}
+
+	private void reload() throws IOException {
+		long start = System.nanoTime();
+		Object version = version();
+		CompactUserDirectory users = parse();
+		this.users = users;
+		this.loadedVersion = version;
+		logger.info("Loaded " + users.size() + " users from " + this.file + " in "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+	}
+
+	private Object version() throws IOException {
+		// Following links catches a replaced symlink target, as mounted config maps do
+		BasicFileAttributes attributes = Files.readAttributes(this.file, BasicFileAttributes.class);
+		return List.of(attributes.lastModifiedTime(), attributes.size(), String.valueOf(attributes.fileKey()));
+	}
+
+	private CompactUserDirectory parse() throws IOException {
+		String name = this.file.getFileName().toString();
+		return (name.endsWith(".yml") || name.endsWith(".yaml")) ? parseYaml() : parseJsonLines();
+	}
+
+	private CompactUserDirectory parseJsonLines() throws IOException {
+		// Size the index for the previous snapshot to avoid rehashing on every reload
+		CompactUserDirectory users = new CompactUserDirectory((this.users != null) ? this.users.size() : 16);
+		try (MappingIterator<UserInfo> iterator = this.objectMapper.readerFor(UserInfo.class)
+			.readValues(this.file.toFile())) {
+			while (iterator.hasNextValue()) {
+				add(users, iterator.nextValue());
+			}
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalArgumentException("Invalid user on line " + ex.getLocation().getLineNr() + " of "
+					+ this.file + ": " + ex.getOriginalMessage(), ex);
+		}
+		return users;
+	}
+
+	private CompactUserDirectory parseYaml() throws IOException {
+		Object document;
+		try (BufferedReader reader = Files.newBufferedReader(this.file)) {
+			document = new Yaml(new SafeConstructor(new LoaderOptions())).load(reader);
+		}
+		if (document == null) {
+			return new CompactUserDirectory();
+		}
+		if (!(document instanceof List<?> list)) {
+			throw new IllegalArgumentException(this.file + " must hold a list of users");
+		}
+		CompactUserDirectory users = new CompactUserDirectory(list.size());
+		for (Object user : list) {
+			add(users, this.objectMapper.convertValue(user, UserInfo.class));
+		}
+		return users;
+	}
+
+	private void add(CompactUserDirectory users, UserInfo userInfo) {
+		if (userInfo.username() == null || userInfo.password() == null) {
+			throw new IllegalArgumentException("A user in " + this.file + " lacks a username or password");
+		}
+		UserInfo user = new UserInfo(userInfo.username(), userInfo.password(),
+				(userInfo.displayName() != null) ? userInfo.displayName() : userInfo.username(),
+				(userInfo.roles() != null) ? userInfo.roles() : List.of());
+		if (!users.add(user)) {
+			throw new IllegalArgumentException("Duplicate user " + user.username() + " in " + this.file);
+		}
+	}
+
+}
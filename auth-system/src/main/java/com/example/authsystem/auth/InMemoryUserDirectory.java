@@ -0,0 +1,40 @@
+package com.example.authsystem.auth;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link UserDirectory} that holds users in memory.
+ */
+public class InMemoryUserDirectory implements UserDirectory {
+
+	private final ConcurrentHashMap<String, UserInfo> users = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a directory holding the demo users.
+	 * @param passwordEncoder the encoder to hash the demo passwords with
+	 * @return the directory
+	 */
+	public static InMemoryUserDirectory withDemoUsers(PasswordEncoder passwordEncoder) {
+		InMemoryUserDirectory directory = new InMemoryUserDirectory();
+		directory.save(new UserInfo("user1", passwordEncoder.encode("password1"), "User One", List.of("USER")));
+		directory
+			.save(new UserInfo("admin1", passwordEncoder.encode("password1"), "Admin One", List.of("USER", "ADMIN")));
+		directory.save(new UserInfo("user2", passwordEncoder.encode("password2"), "User Two", List.of("USER")));
+		return directory;
+	}
+
+	@Override
+	public Optional<UserInfo> findByUsername(String username) {
+		return Optional.ofNullable(this.users.get(username));
+	}
+
+	@Override
+	public void save(UserInfo userInfo) {
+		this.users.put(userInfo.username(), userInfo);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.example.authsystem.auth;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+/**
+ * {@link UserDirectory} backed by a {@code users} table with {@code username},
+ * {@code password}, {@code display_name} and {@code roles} columns, the roles being
+ * comma-separated.
+ */
+public class JdbcUserDirectory implements UserDirectory {
+
+	private static final String SELECT = "SELECT username, password, display_name, roles FROM users WHERE username = ?";
+
+	private static final String UPDATE = "UPDATE users SET password = ?, display_name = ?, roles = ? WHERE username = ?";
+
+	private static final String UPDATE_PASSWORD = "UPDATE users SET password = ? WHERE username = ?";
+
+	private static final String INSERT = "INSERT INTO users (username, password, display_name, roles) VALUES (?, ?, ?, ?)";
+
+	private final JdbcClient jdbcClient;
+
+	public JdbcUserDirectory(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	@Override
+	public Optional<UserInfo> findByUsername(String username) {
+		return this.jdbcClient.sql(SELECT)
+			.param(username)
+			.query((resultSet, rowNum) -> new UserInfo(resultSet.getString("username"), resultSet.getString("password"),
+					resultSet.getString("display_name"), parseRoles(resultSet.getString("roles"))))
+			.optional();
+	}
+
+	@Override
+	public void save(UserInfo userInfo) {
+		String roles = String.join(",", userInfo.roles());
+		if (update(userInfo, roles)) {
+			return;
+		}
+		try {
+			this.jdbcClient.sql(INSERT)
+				.params(userInfo.username(), userInfo.password(), userInfo.displayName(), roles)
+				.update();
+		}
+		catch (DuplicateKeyException ex) {
+			// A concurrent save inserted the user first; replace what it stored
+			update(userInfo, roles);
+		}
+	}
+
+	private boolean update(UserInfo userInfo, String roles) {
+		return this.jdbcClient.sql(UPDATE)
+			.params(userInfo.password(), userInfo.displayName(), roles, userInfo.username())
+			.update() > 0;
+	}
+
+	@Override
+	public boolean updatePassword(String username, String encodedPassword) {
+		return this.jdbcClient.sql(UPDATE_PASSWORD).params(encodedPassword, username).update() > 0;
+	}
+
+	private static List<String> parseRoles(String roles) {
+		if (roles == null || roles.isBlank()) {
+			return List.of();
+		}
+		return Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList();
+	}
+
+}
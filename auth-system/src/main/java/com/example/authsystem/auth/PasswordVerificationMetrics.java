@@ -0,0 +1,47 @@
+package com.example.authsystem.auth;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes how long password verifications wait for and spend on a thread of the
+ * {@link BoundedPasswordEncoder}, how many are queued and running, and how many were
+ * rejected.
+ */
+public class PasswordVerificationMetrics implements MeterBinder {
+
+	private final BoundedPasswordEncoder passwordEncoder;
+
+	public PasswordVerificationMetrics(BoundedPasswordEncoder passwordEncoder) {
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionTimer
+			.builder("auth.password.queue-wait", this.passwordEncoder, BoundedPasswordEncoder::getCompleted,
+					BoundedPasswordEncoder::getQueueWaitNanos, TimeUnit.NANOSECONDS)
+			.description("Time password verifications waited for a verifier thread")
+			.register(registry);
+		FunctionTimer
+			.builder("auth.password.hash", this.passwordEncoder, BoundedPasswordEncoder::getCompleted,
+					BoundedPasswordEncoder::getHashNanos, TimeUnit.NANOSECONDS)
+			.description("Time spent hashing passwords to verify them")
+			.register(registry);
+		Gauge.builder("auth.password.queued", this.passwordEncoder, BoundedPasswordEncoder::getQueued)
+			.description("Password verifications waiting for a verifier thread")
+			.register(registry);
+		Gauge.builder("auth.password.active", this.passwordEncoder, BoundedPasswordEncoder::getActive)
+			.description("Password verifications running")
+			.register(registry);
+		FunctionCounter.builder("auth.password.rejected", this.passwordEncoder, BoundedPasswordEncoder::getRejected)
+			.description("Password verifications rejected because the queue was full")
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.example.authsystem.auth;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when a password cannot be verified because the verification queue is full. This
+ * is an expected outcome of overload rather than an internal error, so it is handed to
+ * the authentication failure handler without being logged as one.
+ */
+public class PasswordVerificationRejectedException extends AuthenticationServiceException {
+
+	public PasswordVerificationRejectedException() {
+		super("Too many passwords are being verified");
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.example.authsystem.auth;
+
+import java.util.Optional;
+
+/**
+ * Source of the users that can log in.
+ */
+public interface UserDirectory {
+
+	/**
+	 * Finds a user by username.
+	 * @param username the username to search for
+	 * @return an Optional containing the UserInfo if found, empty otherwise
+	 */
+	Optional<UserInfo> findByUsername(String username);
+
+	/**
+	 * Adds a user, or replaces the user with the same username.
+	 * @param userInfo the user information to save
+	 */
+	void save(UserInfo userInfo);
+
+	/**
+	 * Replaces the password hash of a user, keeping the rest of its information.
+	 * @param username the username of the user
+	 * @param encodedPassword the new encoded password
+	 * @return true if the user exists and was updated
+	 */
+	default boolean updatePassword(String username, String encodedPassword) {
+		Optional<UserInfo> userInfo = findByUsername(username);
+		userInfo.ifPresent(
+				(user) -> save(new UserInfo(user.username(), encodedPassword, user.displayName(), user.roles())));
+		return userInfo.isPresent();
+	}
+
+	/**
+	 * Returns whether {@link #save} is unsupported because users are managed elsewhere.
+	 * @return true if the directory is read-only
+	 */
+	default boolean isReadOnly() {
+		return false;
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.example.authsystem.auth;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import.
+ *
+ * @param read the number of records read
+ * @param imported the number of users saved
+ * @param rejected the number of records rejected as invalid
+ * @param errors the reasons of the first rejections, with their line numbers
+ * @param elapsedMillis how long the import took
+ * @param usersPerSecond the number of users saved per second
+ */
+public record UserImportResult(long read, long imported, long rejected, List<String> errors, long elapsedMillis,
+		double usersPerSecond) {
+}
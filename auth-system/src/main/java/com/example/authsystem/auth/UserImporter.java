@@ -0,0 +1,420 @@
+package com.example.authsystem.auth;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Imports users in bulk from CSV or JSON Lines into a {@link UserDirectory}.
+ * <p>
+ * Records are parsed one line at a time and handled in batches, so memory use depends on
+ * the batch size rather than on the size of the input. The passwords of a batch are
+ * hashed in parallel on a fork-join pool, then its users are saved, replacing existing
+ * users with the same username. A password that is already a BCrypt hash prefixed with
+ * {@code {bcrypt}} is stored as is; any other password is taken to be plain text.
+ * <p>
+ * A JSON Lines record has the {@code username}, {@code password}, {@code displayName} and
+ * {@code roles} of {@link UserInfo}. A CSV file starts with a header naming its columns,
+ * of which {@code username} and {@code password} are required and {@code displayName} and
+ * {@code roles} optional, the roles being comma-separated within a quoted field. Invalid
+ * records are skipped and reported in the {@link UserImportResult} without stopping the
+ * import. Progress is logged every few seconds. One import runs at a time.
+ */
+public class UserImporter {
+
+	private static final Log logger = LogFactory.getLog(UserImporter.class);
+
+	private static final String BCRYPT_PREFIX = "{bcrypt}";
+
+	private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[abxy]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+	private static final int MAX_REPORTED_ERRORS = 100;
+
+	private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	private final UserDirectory userDirectory;
+
+	private final PasswordEncoder passwordEncoder;
+
+	private final ObjectReader userReader;
+
+	private final int parallelism;
+
+	private final int batchSize;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	/**
+	 * Creates an importer.
+	 * @param userDirectory the directory to save users to
+	 * @param passwordEncoder the encoder to hash plain text passwords with
+	 * @param objectMapper the object mapper to read JSON Lines records with
+	 * @param parallelism the number of passwords hashed at once
+	 * @param batchSize the number of records hashed and saved together
+	 */
+	public UserImporter(UserDirectory userDirectory, PasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+			int parallelism, int batchSize) {
+		this.userDirectory = userDirectory;
+		this.passwordEncoder = passwordEncoder;
+		this.userReader = objectMapper.readerFor(UserInfo.class);
+		this.parallelism = parallelism;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Imports the users in a file, read as CSV if it ends in {@code .csv} and as JSON
+	 * Lines otherwise.
+	 * @param file the file to import
+	 * @return the outcome of the import
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalStateException if the directory is read-only or another import is
+	 * running
+	 */
+	public UserImportResult importFile(Path file) throws IOException {
+		Format format = file.getFileName().toString().endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+		try (InputStream input = Files.newInputStream(file)) {
+			return importUsers(input, format, file.toString());
+		}
+	}
+
+	/**
+	 * Imports the users in a UTF-8 stream.
+	 * @param input the stream to import, left open
+	 * @param format the format of the stream
+	 * @param source a description of the stream for logging
+	 * @return the outcome of the import
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if a CSV header lacks a required column
+	 * @throws IllegalStateException if the directory is read-only or another import is
+	 * running
+	 */
+	public UserImportResult importUsers(InputStream input, Format format, String source) throws IOException {
+		if (this.userDirectory.isReadOnly()) {
+			throw new IllegalStateException("The user directory is read-only");
+		}
+		if (!this.running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Another user import is running");
+		}
+		try (ForkJoinPool pool = new ForkJoinPool(this.parallelism)) {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+			Run run = new Run(source, pool);
+			run.read((format == Format.CSV) ? new CsvRecords(reader) : new JsonLinesRecords(reader, this.userReader));
+			return run.result();
+		}
+		finally {
+			this.running.set(false);
+		}
+	}
+
+	private static String validate(UserInfo user) {
+		if (user.username() == null || user.username().isBlank()) {
+			return "missing username";
+		}
+		if (user.password() == null || user.password().isEmpty()) {
+			return "missing password for " + user.username();
+		}
+		if (user.password().startsWith(BCRYPT_PREFIX) && !BCRYPT_HASH.matcher(user.password())
+			.region(BCRYPT_PREFIX.length(), user.password().length())
+			.matches()) {
+			return "malformed BCrypt hash for " + user.username();
+		}
+		return null;
+	}
+
+	private UserInfo hashed(UserInfo user) {
+		String password = user.password().startsWith(BCRYPT_PREFIX) ? user.password()
+				: this.passwordEncoder.encode(user.password());
+		return new UserInfo(user.username(), password,
+				(user.displayName() != null && !user.displayName().isBlank()) ? user.displayName() : user.username(),
+				(user.roles() != null) ? user.roles() : List.of());
+	}
+
+	/**
+	 * Formats an import may be read in.
+	 */
+	public enum Format {
+
+		/**
+		 * Comma-separated values with a header row.
+		 */
+		CSV,
+
+		/**
+		 * One JSON object per line.
+		 */
+		JSON_LINES
+
+	}
+
+	/**
+	 * State of a single import.
+	 */
+	private final class Run {
+
+		private final String source;
+
+		private final ForkJoinPool pool;
+
+		private final long start = System.nanoTime();
+
+		private final List<String> errors = new ArrayList<>();
+
+		private long read;
+
+		private long imported;
+
+		private long rejected;
+
+		private long lastProgress = this.start;
+
+		Run(String source, ForkJoinPool pool) {
+			this.source = source;
+			this.pool = pool;
+		}
+
+		void read(Records records) throws IOException {
+			List<UserInfo> batch = new ArrayList<>(UserImporter.this.batchSize);
+			while (true) {
+				UserInfo user;
+				try {
+					user = records.next();
+				}
+				catch (IllegalArgumentException ex) {
+					this.read++;
+					reject(records.line(), ex.getMessage());
+					continue;
+				}
+				if (user == null) {
+					break;
+				}
+				this.read++;
+				String problem = validate(user);
+				if (problem != null) {
+					reject(records.line(), problem);
+					continue;
+				}
+				batch.add(user);
+				if (batch.size() == UserImporter.this.batchSize) {
+					save(batch);
+					batch.clear();
+				}
+			}
+			save(batch);
+		}
+
+		private void save(List<UserInfo> batch) {
+			// A parallel stream started by a task of the pool runs on that pool
+			List<UserInfo> hashed = this.pool
+				.submit(() -> batch.parallelStream().map(UserImporter.this::hashed).toList())
+				.join();
+			for (UserInfo user : hashed) {
+				UserImporter.this.userDirectory.save(user);
+			}
+			this.imported += hashed.size();
+			long now = System.nanoTime();
+			if (now - this.lastProgress >= PROGRESS_INTERVAL_NANOS) {
+				this.lastProgress = now;
+				logger.info("Imported " + this.imported + " users from " + this.source + " ("
+						+ Math.round(usersPerSecond(now)) + " users/s), rejected " + this.rejected);
+			}
+		}
+
+		private void reject(long line, String problem) {
+			this.rejected++;
+			if (this.errors.size() < MAX_REPORTED_ERRORS) {
+				this.errors.add("line " + line + ": " + problem);
+			}
+		}
+
+		private double usersPerSecond(long now) {
+			return this.imported * 1e9 / Math.max(now - this.start, 1);
+		}
+
+		UserImportResult result() {
+			long now = System.nanoTime();
+			UserImportResult result = new UserImportResult(this.read, this.imported, this.rejected,
+					List.copyOf(this.errors), TimeUnit.NANOSECONDS.toMillis(now - this.start), usersPerSecond(now));
+			logger.info("Imported " + result.imported() + " users from " + this.source + " in " + result.elapsedMillis()
+					+ " ms (" + Math.round(result.usersPerSecond()) + " users/s), rejected " + result.rejected());
+			return result;
+		}
+
+	}
+
+	/**
+	 * Source of records, one per line.
+	 */
+	private interface Records {
+
+		/**
+		 * Returns the next record.
+		 * @return the record, or {@code null} when there are no more
+		 * @throws IllegalArgumentException if the record cannot be parsed
+		 */
+		UserInfo next() throws IOException;
+
+		/**
+		 * Returns the line number of the last record.
+		 * @return the line number
+		 */
+		long line();
+
+	}
+
+	private static final class JsonLinesRecords implements Records {
+
+		private final BufferedReader reader;
+
+		private final ObjectReader userReader;
+
+		private long line;
+
+		JsonLinesRecords(BufferedReader reader, ObjectReader userReader) {
+			this.reader = reader;
+			this.userReader = userReader;
+		}
+
+		@Override
+		public UserInfo next() throws IOException {
+			String text;
+			do {
+				text = this.reader.readLine();
+				if (text == null) {
+					return null;
+				}
+				this.line++;
+			}
+			while (text.isBlank());
+			try {
+				return this.userReader.readValue(text);
+			}
+			catch (JsonProcessingException ex) {
+				throw new IllegalArgumentException(ex.getOriginalMessage(), ex);
+			}
+		}
+
+		@Override
+		public long line() {
+			return this.line;
+		}
+
+	}
+
+	private static final class CsvRecords implements Records {
+
+		private final BufferedReader reader;
+
+		private final Map<String, Integer> columns = new HashMap<>();
+
+		private long line;
+
+		CsvRecords(BufferedReader reader) throws IOException {
+			this.reader = reader;
+			List<String> header = nextFields();
+			if (header != null) {
+				for (int i = 0; i < header.size(); i++) {
+					this.columns.put(header.get(i).trim(), i);
+				}
+				if (!this.columns.containsKey("username") || !this.columns.containsKey("password")) {
+					throw new IllegalArgumentException("CSV header lacks a username or password column");
+				}
+			}
+		}
+
+		@Override
+		public UserInfo next() throws IOException {
+			List<String> fields = nextFields();
+			if (fields == null) {
+				return null;
+			}
+			String roles = field(fields, "roles");
+			return new UserInfo(field(fields, "username"), field(fields, "password"), field(fields, "displayName"),
+					(roles != null) ? parseRoles(roles) : null);
+		}
+
+		@Override
+		public long line() {
+			return this.line;
+		}
+
+		private List<String> nextFields() throws IOException {
+			String text;
+			do {
+				text = this.reader.readLine();
+				if (text == null) {
+					return null;
+				}
+				this.line++;
+			}
+			while (text.isBlank());
+			return parseFields(text);
+		}
+
+		private String field(List<String> fields, String name) {
+			Integer column = this.columns.get(name);
+			return (column != null && column < fields.size()) ? fields.get(column) : null;
+		}
+
+		private static List<String> parseFields(String text) {
+			List<String> fields = new ArrayList<>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (quoted) {
+					if (c != '"') {
+						field.append(c);
+					}
+					else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					}
+					else {
+						quoted = false;
+					}
+				}
+				else if (c == '"') {
+					quoted = true;
+				}
+				else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				}
+				else {
+					field.append(c);
+				}
+			}
+			if (quoted) {
+				throw new IllegalArgumentException("unterminated quoted field");
+			}
+			fields.add(field.toString());
+			return fields;
+		}
+
+		private static List<String> parseRoles(String roles) {
+			return Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList();
+		}
+
+	}
+
+}
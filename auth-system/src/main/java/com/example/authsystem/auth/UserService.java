@@ -2,35 +2,44 @@ package com.example.authsystem.auth;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for managing user information in memory.
+ * Service for looking up and registering users in the configured {@link UserDirectory}.
  */
 @Service
 public class UserService {
 
-	private final ConcurrentHashMap<String, UserInfo> users = new ConcurrentHashMap<>();
+	private final UserDirectory userDirectory;
 
-	public UserService(PasswordEncoder passwordEncoder) {
-		// Register demo users
-		registerUser(new UserInfo("user1", passwordEncoder.encode("password1"), "User One", List.of("USER")));
+	private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
 
-		registerUser(
-				new UserInfo("admin1", passwordEncoder.encode("password1"), "Admin One", List.of("USER", "ADMIN")));
+	public UserService(UserDirectory userDirectory) {
+		this.userDirectory = userDirectory;
+	}
 
-		registerUser(new UserInfo("user2", passwordEncoder.encode("password2"), "User Two", List.of("USER")));
+	/**
+	 * Adds a listener notified with the username of every user registered or updated
+	 * through this service.
+	 * @param listener the listener to add
+	 */
+	public void addChangeListener(Consumer<String> listener) {
+		this.changeListeners.add(listener);
 	}
 
 	/**
 	 * Registers a user.
-	 * @param userInfo the user information to register
+	 * @param userInfo the user information to register, with a password that is already
+	 * encoded; outside authentication, encode it with
+	 * {@link BoundedPasswordEncoder#getDelegate()} so that a busy login pool cannot
+	 * reject the registration
 	 */
 	public void registerUser(UserInfo userInfo) {
-		this.users.put(userInfo.username(), userInfo);
+		this.userDirectory.save(userInfo);
+		changed(userInfo.username());
 	}
 
 	/**
@@ -39,7 +48,36 @@ public class UserService {
 	 * @return an Optional containing the UserInfo if found, empty otherwise
 	 */
 	public Optional<UserInfo> findByUsername(String username) {
-		return Optional.ofNullable(this.users.get(username));
+		return this.userDirectory.findByUsername(username);
+	}
+
+	/**
+	 * Replaces the password hash of a user, keeping the rest of its information.
+	 * @param username the username of the user
+	 * @param encodedPassword the new encoded password
+	 * @return true if the user exists and was updated
+	 */
+	public boolean updatePassword(String username, String encodedPassword) {
+		boolean updated = this.userDirectory.updatePassword(username, encodedPassword);
+		if (updated) {
+			changed(username);
+		}
+		return updated;
+	}
+
+	/**
+	 * Returns whether passwords can be updated, which they cannot when users are managed
+	 * outside the directory.
+	 * @return true if {@link #updatePassword} is supported
+	 */
+	public boolean supportsPasswordUpdates() {
+		return !this.userDirectory.isReadOnly();
+	}
+
+	private void changed(String username) {
+		for (Consumer<String> listener : this.changeListeners) {
+			listener.accept(username);
+		}
 	}
 
 }
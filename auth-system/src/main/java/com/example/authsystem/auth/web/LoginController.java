@@ -1,18 +1,20 @@
 package com.example.authsystem.auth.web;
 
-import java.net.URI;
-
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.token.TokenCapacityExceededException;
 import com.example.authsystem.token.TokenService;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Controller for login page and login success handling.
@@ -20,31 +22,38 @@ import jakarta.servlet.http.HttpSession;
 @Controller
 public class LoginController {
 
-	private static final String REDIRECT_URL_SESSION_KEY = "redirectUrl";
-
 	private final TokenService tokenService;
 
-	private final AuthSystemProperties properties;
+	private final RedirectOriginMatcher redirectOriginMatcher;
 
-	public LoginController(TokenService tokenService, AuthSystemProperties properties) {
+	private final RedirectStateCodec redirectStateCodec;
+
+	public LoginController(TokenService tokenService, RedirectOriginMatcher redirectOriginMatcher,
+			RedirectStateCodec redirectStateCodec) {
 		this.tokenService = tokenService;
-		this.properties = properties;
+		this.redirectOriginMatcher = redirectOriginMatcher;
+		this.redirectStateCodec = redirectStateCodec;
 	}
 
 	/**
-	 * Displays the login page.
+	 * Displays the login page. The redirect URL is carried through the login form as a
+	 * signed state rather than in the HTTP session, so no session is created until the
+	 * user has authenticated.
 	 * @param redirect the URL to redirect to after successful login
+	 * @param state the signed state of a previous, failed attempt
 	 * @param error indicates if there was a login error
-	 * @param session the HTTP session
 	 * @param model the model for the view
 	 * @return the login view name
 	 */
 	@GetMapping("/login")
 	public String loginPage(@RequestParam(required = false) String redirect,
-			@RequestParam(required = false) String error, HttpSession session, Model model) {
+			@RequestParam(required = false) String state, @RequestParam(required = false) String error, Model model) {
 
 		if (redirect != null && !redirect.isBlank()) {
-			session.setAttribute(REDIRECT_URL_SESSION_KEY, redirect);
+			model.addAttribute("state", this.redirectStateCodec.encode(redirect));
+		}
+		else if (this.redirectStateCodec.decode(state) != null) {
+			model.addAttribute("state", state);
 		}
 
 		if (error != null) {
@@ -55,26 +64,28 @@ public class LoginController {
 	}
 
 	/**
-	 * Handles successful login by generating a token and redirecting to the application,
-	 * or showing the default top page if no redirect URL was provided.
-	 * @param session the HTTP session
+	 * Generates a token for an authenticated user and redirects to the application, or
+	 * shows the default top page if no redirect URL was provided. Logins normally get
+	 * their token from {@link TokenRedirectSuccessHandler}; this is where they retry when
+	 * the token store was full.
+	 * @param state the signed state carrying the redirect URL
 	 * @param authentication the authentication object
 	 * @param redirectAttributes the redirect attributes
 	 * @return the redirect URL with token or internal top page
 	 */
 	@GetMapping("/login-success")
-	public String loginSuccess(HttpSession session, Authentication authentication,
+	public String loginSuccess(@RequestParam(required = false) String state, Authentication authentication,
 			RedirectAttributes redirectAttributes) {
-		String redirectUrl = (String) session.getAttribute(REDIRECT_URL_SESSION_KEY);
-		session.removeAttribute(REDIRECT_URL_SESSION_KEY);
+		String redirectUrl = this.redirectStateCodec.decode(state);
 
-		// If no redirect URL provided, show internal top page
+		// If no redirect URL provided or the state is invalid or expired, show internal
+		// top page
 		if (redirectUrl == null || redirectUrl.isBlank()) {
 			return "redirect:/";
 		}
 
 		// Validate redirect URL
-		if (!isValidRedirectUrl(redirectUrl)) {
+		if (!this.redirectOriginMatcher.matches(redirectUrl)) {
 			// Invalid redirect URL, show internal top page instead
 			return "redirect:/";
 		}
@@ -100,31 +111,24 @@ public class LoginController {
 		return "home";
 	}
 
-	private boolean isValidRedirectUrl(String redirectUrl) {
-		try {
-			URI uri = URI.create(redirectUrl);
-
-			// Validate scheme is http or https only
-			String scheme = uri.getScheme();
-			if (scheme == null || (!scheme.equals("http") && !scheme.equals("https"))) {
-				return false;
-			}
-
-			// Validate host is present
-			String host = uri.getHost();
-			if (host == null || host.isBlank()) {
-				return false;
-			}
-
-			// Build origin (scheme://host:port)
-			int port = uri.getPort();
-			String origin = (port > 0) ? scheme + "://" + host + ":" + port : scheme + "://" + host;
-
-			return this.properties.allowedRedirectOrigins().contains(origin);
-		}
-		catch (Exception ex) {
-			return false;
+	/**
+	 * Shows the login page with a retry message when no more tokens can be issued,
+	 * keeping the redirect URL of the attempt.
+	 * @param request the HTTP request
+	 * @param response the HTTP response
+	 * @param model the model for the view
+	 * @return the login view name
+	 */
+	@ExceptionHandler(TokenCapacityExceededException.class)
+	public String tokenCapacityExceeded(HttpServletRequest request, HttpServletResponse response, Model model) {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+		model.addAttribute("reason", TokenCapacityExceededException.REASON);
+		String state = request.getParameter("state");
+		if (this.redirectStateCodec.decode(state) != null) {
+			model.addAttribute("state", state);
 		}
+		return "login";
 	}
 
 }
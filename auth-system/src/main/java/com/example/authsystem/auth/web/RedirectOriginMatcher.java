@@ -0,0 +1,277 @@
+package com.example.authsystem.auth.web;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.AuthSystemProperties;
+
+/**
+ * Matches redirect URLs against the allowed redirect origins.
+ * <p>
+ * Origins are compiled at startup into one trie per scheme and port, keyed by the host's
+ * labels from right to left. A {@code *} label matches any single label, so
+ * {@code https://*.apps.example.com} allows {@code https://shop.apps.example.com} but
+ * neither {@code https://apps.example.com} nor {@code https://a.b.apps.example.com}.
+ * Matching walks the URL in place without allocating, and costs a hash lookup per host
+ * label however many origins are configured. Omitted ports stand for the scheme's default
+ * port, and schemes and hosts are compared case-insensitively.
+ */
+@Component
+public class RedirectOriginMatcher {
+
+	private static final String HTTP = "http://";
+
+	private static final String HTTPS = "https://";
+
+	private final PortTrie[] http;
+
+	private final PortTrie[] https;
+
+	/**
+	 * Compiles a matcher for the configured
+	 * {@link AuthSystemProperties#allowedRedirectOrigins() allowed redirect origins}.
+	 * @param properties the auth system properties
+	 */
+	@Autowired
+	public RedirectOriginMatcher(AuthSystemProperties properties) {
+		this(properties.allowedRedirectOrigins());
+	}
+
+	/**
+	 * Compiles a matcher.
+	 * @param origins the allowed origins of the form {@code scheme://host[:port]}
+	 * @throws IllegalArgumentException if an origin is malformed
+	 */
+	public RedirectOriginMatcher(Collection<String> origins) {
+		Map<Integer, Builder> http = new HashMap<>();
+		Map<Integer, Builder> https = new HashMap<>();
+		for (String origin : origins) {
+			URI uri;
+			try {
+				uri = new URI(origin);
+			}
+			catch (Exception ex) {
+				throw new IllegalArgumentException("Invalid redirect origin '" + origin + "'", ex);
+			}
+			String scheme = (uri.getScheme() != null) ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+			String host = uri.getRawAuthority();
+			if ((!scheme.equals("http") && !scheme.equals("https")) || host == null || uri.getRawUserInfo() != null
+					|| !(uri.getRawPath() == null || uri.getRawPath().isEmpty()) || uri.getRawQuery() != null
+					|| uri.getRawFragment() != null) {
+				throw new IllegalArgumentException(
+						"Invalid redirect origin '" + origin + "', expected http(s)://host[:port]");
+			}
+			int port = defaultPort(scheme.equals("https"));
+			int colon = host.lastIndexOf(':');
+			if (colon > host.lastIndexOf(']')) {
+				port = Integer.parseInt(host.substring(colon + 1));
+				host = host.substring(0, colon);
+			}
+			Map<Integer, Builder> tries = scheme.equals("https") ? https : http;
+			Builder node = tries.computeIfAbsent(port, key -> new Builder());
+			String[] labels = host.toLowerCase(Locale.ROOT).split("\\.", -1);
+			for (int i = labels.length - 1; i >= 0; i--) {
+				if (labels[i].isEmpty()) {
+					throw new IllegalArgumentException("Invalid redirect origin '" + origin + "', empty host label");
+				}
+				node = node.children.computeIfAbsent(labels[i], label -> new Builder());
+			}
+			node.terminal = true;
+		}
+		this.http = compile(http);
+		this.https = compile(https);
+	}
+
+	private static PortTrie[] compile(Map<Integer, Builder> tries) {
+		return tries.entrySet()
+			.stream()
+			.map(entry -> new PortTrie(entry.getKey(), entry.getValue().build()))
+			.toArray(PortTrie[]::new);
+	}
+
+	private static int defaultPort(boolean https) {
+		return https ? 443 : 80;
+	}
+
+	/**
+	 * Checks whether a redirect URL points to an allowed origin.
+	 * @param url the redirect URL
+	 * @return true if the URL is a well-formed http(s) URL on an allowed origin
+	 */
+	public boolean matches(String url) {
+		boolean https;
+		int hostStart;
+		if (url.regionMatches(true, 0, HTTPS, 0, HTTPS.length())) {
+			https = true;
+			hostStart = HTTPS.length();
+		}
+		else if (url.regionMatches(true, 0, HTTP, 0, HTTP.length())) {
+			https = false;
+			hostStart = HTTP.length();
+		}
+		else {
+			return false;
+		}
+
+		// Find the end of the authority and reject user info, which could disguise the
+		// host
+		int authorityEnd = hostStart;
+		while (authorityEnd < url.length()) {
+			char c = url.charAt(authorityEnd);
+			if (c == '/' || c == '?' || c == '#') {
+				break;
+			}
+			if (!isAuthorityChar(c)) {
+				return false;
+			}
+			authorityEnd++;
+		}
+		for (int i = authorityEnd; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if (c <= ' ' || c >= 0x7f || c == '\\') {
+				return false;
+			}
+		}
+
+		int hostEnd = authorityEnd;
+		int port = defaultPort(https);
+		int colon = url.lastIndexOf(':', authorityEnd - 1);
+		if (colon >= hostStart && colon > url.lastIndexOf(']', authorityEnd - 1)) {
+			port = parsePort(url, colon + 1, authorityEnd);
+			if (port < 0) {
+				return false;
+			}
+			hostEnd = colon;
+		}
+		if (hostEnd == hostStart) {
+			return false;
+		}
+
+		for (PortTrie trie : https ? this.https : this.http) {
+			if (trie.port() == port) {
+				return matches(trie.root(), url, hostStart, hostEnd);
+			}
+		}
+		return false;
+	}
+
+	private static boolean isAuthorityChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.'
+				|| c == ':' || c == '[' || c == ']';
+	}
+
+	private static int parsePort(String url, int start, int end) {
+		if (start == end || end - start > 5) {
+			return -1;
+		}
+		int port = 0;
+		for (int i = start; i < end; i++) {
+			char c = url.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			port = port * 10 + (c - '0');
+		}
+		return (port <= 65535) ? port : -1;
+	}
+
+	/**
+	 * Matches the host labels in {@code [hostStart, end)} from right to left.
+	 */
+	private static boolean matches(Node node, String url, int hostStart, int end) {
+		if (end < hostStart) {
+			return node.terminal;
+		}
+		int dot = url.lastIndexOf('.', end - 1);
+		int labelStart = (dot >= hostStart) ? dot + 1 : hostStart;
+		if (labelStart == end) {
+			return false;
+		}
+		Node child = node.child(url, labelStart, end);
+		if (child != null && matches(child, url, hostStart, labelStart - 1)) {
+			return true;
+		}
+		return node.wildcard != null && matches(node.wildcard, url, hostStart, labelStart - 1);
+	}
+
+	private static int hash(CharSequence chars, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + Character.toLowerCase(chars.charAt(i));
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private record PortTrie(int port, Node root) {
+	}
+
+	/**
+	 * Mutable trie node used while compiling.
+	 */
+	private static final class Builder {
+
+		private final Map<String, Builder> children = new HashMap<>();
+
+		private boolean terminal;
+
+		Node build() {
+			Builder wildcard = this.children.remove("*");
+			int capacity = Integer.highestOneBit(Math.max(this.children.size(), 1) * 2 - 1) << 1;
+			String[] labels = new String[capacity];
+			Node[] nodes = new Node[capacity];
+			this.children.forEach((label, child) -> {
+				int index = hash(label, 0, label.length()) & (capacity - 1);
+				while (labels[index] != null) {
+					index = (index + 1) & (capacity - 1);
+				}
+				labels[index] = label;
+				nodes[index] = child.build();
+			});
+			return new Node(labels, nodes, (wildcard != null) ? wildcard.build() : null, this.terminal);
+		}
+
+	}
+
+	/**
+	 * Immutable trie node with an open-addressed table of child labels.
+	 */
+	private static final class Node {
+
+		private final String[] labels;
+
+		private final Node[] children;
+
+		private final Node wildcard;
+
+		private final boolean terminal;
+
+		Node(String[] labels, Node[] children, Node wildcard, boolean terminal) {
+			this.labels = labels;
+			this.children = children;
+			this.wildcard = wildcard;
+			this.terminal = terminal;
+		}
+
+		Node child(String url, int start, int end) {
+			int mask = this.labels.length - 1;
+			int length = end - start;
+			for (int index = hash(url, start, end) & mask;; index = (index + 1) & mask) {
+				String label = this.labels[index];
+				if (label == null) {
+					return null;
+				}
+				if (label.length() == length && label.regionMatches(true, 0, url, start, length)) {
+					return this.children[index];
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.example.authsystem.auth.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.InstantSource;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.RedirectState;
+
+/**
+ * Carries the redirect URL of a login through the form login flow as a signed, expiring
+ * {@code state} parameter, so that rendering the login page does not need an HTTP
+ * session.
+ * <p>
+ * A state has the form {@code payload.signature}. {@code payload} is the base64url of
+ * {@code expiry:redirectUrl} with the expiry in epoch seconds and {@code signature} the
+ * base64url HMAC-SHA256 of {@code payload}. Without a configured signing key a random one
+ * is generated at startup, which only suits a single node.
+ */
+@Component
+public class RedirectStateCodec {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private final SecretKeySpec key;
+
+	private final long maxAgeSeconds;
+
+	private final InstantSource instantSource;
+
+	public RedirectStateCodec(AuthSystemProperties properties, InstantSource instantSource) {
+		RedirectState redirectState = properties.redirectState();
+		if (redirectState.signingKey() != null) {
+			if (redirectState.signingKey().length() < 32) {
+				throw new IllegalStateException(
+						"auth.system.redirect-state.signing-key must be at least 32 characters");
+			}
+			this.key = new SecretKeySpec(redirectState.signingKey().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		}
+		else {
+			byte[] random = new byte[32];
+			new SecureRandom().nextBytes(random);
+			this.key = new SecretKeySpec(random, ALGORITHM);
+		}
+		this.maxAgeSeconds = redirectState.maxAge().toSeconds();
+		this.instantSource = instantSource;
+	}
+
+	/**
+	 * Encodes a redirect URL into a state that expires after the configured maximum age.
+	 * @param redirectUrl the URL to redirect to after a successful login
+	 * @return the signed state
+	 */
+	public String encode(String redirectUrl) {
+		long expiry = this.instantSource.instant().getEpochSecond() + this.maxAgeSeconds;
+		String payload = ENCODER.encodeToString((expiry + ":" + redirectUrl).getBytes(StandardCharsets.UTF_8));
+		return payload + "." + ENCODER.encodeToString(sign(payload));
+	}
+
+	/**
+	 * Decodes a state.
+	 * @param state the signed state, may be {@code null}
+	 * @return the redirect URL, or {@code null} if the state is missing, tampered with or
+	 * expired
+	 */
+	public String decode(String state) {
+		if (state == null) {
+			return null;
+		}
+		int separator = state.indexOf('.');
+		if (separator < 0) {
+			return null;
+		}
+		String payload = state.substring(0, separator);
+		try {
+			if (!MessageDigest.isEqual(sign(payload), DECODER.decode(state.substring(separator + 1)))) {
+				return null;
+			}
+			String decoded = new String(DECODER.decode(payload), StandardCharsets.UTF_8);
+			int colon = decoded.indexOf(':');
+			long expiry = Long.parseLong(decoded, 0, colon, 10);
+			if (this.instantSource.instant().getEpochSecond() >= expiry) {
+				return null;
+			}
+			return decoded.substring(colon + 1);
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+			return null;
+		}
+	}
+
+	private byte[] sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(this.key);
+			return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("Failed to sign redirect state", ex);
+		}
+	}
+
+}
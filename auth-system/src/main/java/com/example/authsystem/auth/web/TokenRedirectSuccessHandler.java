@@ -0,0 +1,73 @@
+package com.example.authsystem.auth.web;
+
+import java.io.IOException;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.DefaultRedirectStrategy;
+import org.springframework.security.web.RedirectStrategy;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.authsystem.token.TokenCapacityExceededException;
+import com.example.authsystem.token.TokenService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authentication success handler that mints the token as part of the login request and
+ * redirects straight back to the application, saving the browser a round trip through
+ * {@code /login-success}.
+ * <p>
+ * Without a valid redirect the user lands on the internal top page. When no token can be
+ * issued the handler falls back to {@code /login-success}, which retries and shows the
+ * login page with a retry message if the token store is still full.
+ */
+@Component
+public class TokenRedirectSuccessHandler implements AuthenticationSuccessHandler {
+
+	private static final String STATE_PARAMETER = "state";
+
+	private final RedirectStrategy redirectStrategy = new DefaultRedirectStrategy();
+
+	private final TokenService tokenService;
+
+	private final RedirectOriginMatcher redirectOriginMatcher;
+
+	private final RedirectStateCodec redirectStateCodec;
+
+	public TokenRedirectSuccessHandler(TokenService tokenService, RedirectOriginMatcher redirectOriginMatcher,
+			RedirectStateCodec redirectStateCodec) {
+		this.tokenService = tokenService;
+		this.redirectOriginMatcher = redirectOriginMatcher;
+		this.redirectStateCodec = redirectStateCodec;
+	}
+
+	@Override
+	public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+			Authentication authentication) throws IOException {
+		String state = request.getParameter(STATE_PARAMETER);
+		String redirectUrl = this.redirectStateCodec.decode(state);
+		if (redirectUrl == null || redirectUrl.isBlank() || !this.redirectOriginMatcher.matches(redirectUrl)) {
+			this.redirectStrategy.sendRedirect(request, response, "/");
+			return;
+		}
+		String token;
+		try {
+			token = this.tokenService.generateToken(authentication.getName());
+		}
+		catch (TokenCapacityExceededException ex) {
+			this.redirectStrategy.sendRedirect(request, response,
+					UriComponentsBuilder.fromPath("/login-success")
+						.queryParam(STATE_PARAMETER, state)
+						.encode()
+						.build()
+						.toUriString());
+			return;
+		}
+		this.redirectStrategy.sendRedirect(request, response,
+				UriComponentsBuilder.fromUriString(redirectUrl).queryParam("token", token).build().toUriString());
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.authsystem.auth.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.authsystem.auth.UserImportResult;
+import com.example.authsystem.auth.UserImporter;
+import com.example.authsystem.auth.UserImporter.Format;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * REST controller for bulk user imports by administrators.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserImportController {
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	private final UserImporter userImporter;
+
+	public UserImportController(UserImporter userImporter) {
+		this.userImporter = userImporter;
+	}
+
+	/**
+	 * Imports the users in the request body as it is received, without buffering it. The
+	 * body is CSV when sent as {@code text/csv} and JSON Lines otherwise.
+	 * @param request the HTTP request
+	 * @param body the request body
+	 * @param authentication the administrator running the import
+	 * @return the outcome of the import, {@code 409 Conflict} if another import is
+	 * running or the directory is read-only, or {@code 400 Bad Request} if a CSV header
+	 * lacks a required column
+	 * @throws IOException if the body cannot be read
+	 */
+	@PostMapping(path = "/import", consumes = { "text/csv", "application/x-ndjson", "application/jsonl" })
+	public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request, InputStream body,
+			Authentication authentication) throws IOException {
+		Format format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(request.getContentType())) ? Format.CSV
+				: Format.JSON_LINES;
+		try {
+			return ResponseEntity
+				.ok(this.userImporter.importUsers(body, format, "upload by " + authentication.getName()));
+		}
+		catch (IllegalStateException ex) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+		catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+}
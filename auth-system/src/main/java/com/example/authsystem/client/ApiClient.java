@@ -0,0 +1,61 @@
+package com.example.authsystem.client;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A relying application allowed to call the token APIs, with an optional request quota.
+ */
+public final class ApiClient {
+
+	private final String name;
+
+	private final TokenBucket quota;
+
+	private final LongAdder admitted = new LongAdder();
+
+	private final LongAdder throttled = new LongAdder();
+
+	ApiClient(String name, TokenBucket quota) {
+		this.name = name;
+		this.quota = quota;
+	}
+
+	/**
+	 * Returns the name the client is configured under.
+	 * @return the client name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Charges requests against the client's quota.
+	 * @param requests the number of requests, such as the tokens in a batch
+	 * @return true if the quota admits the requests
+	 */
+	public boolean tryAcquire(int requests) {
+		if (this.quota == null || this.quota.tryAcquire(requests, System.nanoTime())) {
+			this.admitted.add(requests);
+			return true;
+		}
+		this.throttled.add(requests);
+		return false;
+	}
+
+	/**
+	 * Returns the number of requests admitted so far.
+	 * @return the number of admitted requests
+	 */
+	public long getAdmitted() {
+		return this.admitted.sum();
+	}
+
+	/**
+	 * Returns the number of requests rejected by the quota so far.
+	 * @return the number of throttled requests
+	 */
+	public long getThrottled() {
+		return this.throttled.sum();
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.example.authsystem.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the admitted and throttled requests of each API client.
+ */
+@Component
+public class ApiClientMetrics implements MeterBinder {
+
+	private final ApiClientRegistry apiClientRegistry;
+
+	public ApiClientMetrics(ApiClientRegistry apiClientRegistry) {
+		this.apiClientRegistry = apiClientRegistry;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (ApiClient client : this.apiClientRegistry.getClients()) {
+			FunctionCounter.builder("auth.client.requests", client, ApiClient::getAdmitted)
+				.description("Token API requests by client and whether its quota admitted them")
+				.tag("client", client.getName())
+				.tag("outcome", "admitted")
+				.register(registry);
+			FunctionCounter.builder("auth.client.requests", client, ApiClient::getThrottled)
+				.description("Token API requests by client and whether its quota admitted them")
+				.tag("client", client.getName())
+				.tag("outcome", "throttled")
+				.register(registry);
+		}
+	}
+
+}
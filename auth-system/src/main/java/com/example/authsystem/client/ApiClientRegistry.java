@@ -0,0 +1,111 @@
+package com.example.authsystem.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.Client;
+
+/**
+ * Registry of the relying applications allowed to call the token APIs.
+ * <p>
+ * Clients are indexed by the SHA-256 digest of their API key, so a presented key is
+ * resolved with one hash lookup however many clients are configured, and the final
+ * comparison of the digests runs in constant time. The shared
+ * {@code auth.system.api-secret} is registered as the {@value #DEFAULT_CLIENT} client,
+ * with the quota of {@code auth.system.clients.default} if one is configured; cluster
+ * nodes use it to forward requests to each other. An empty secret disables the default
+ * client, which a cluster cannot do without.
+ */
+@Component
+public class ApiClientRegistry {
+
+	/**
+	 * Name of the client authenticated by {@code auth.system.api-secret}.
+	 */
+	public static final String DEFAULT_CLIENT = "default";
+
+	private final Map<ByteBuffer, Entry> clients = new HashMap<>();
+
+	public ApiClientRegistry(AuthSystemProperties properties) {
+		Client defaultClient = properties.clients().get(DEFAULT_CLIENT);
+		if (defaultClient != null && defaultClient.apiKey() != null) {
+			throw new IllegalStateException("auth.system.clients." + DEFAULT_CLIENT
+					+ ".api-key cannot be set; the default client is authenticated by auth.system.api-secret");
+		}
+		if (properties.apiSecret() != null && !properties.apiSecret().isEmpty()) {
+			register(DEFAULT_CLIENT, properties.apiSecret(), (defaultClient != null) ? quota(defaultClient) : null);
+		}
+		else if (properties.cluster().enabled()) {
+			throw new IllegalStateException("auth.system.api-secret is required by cluster nodes");
+		}
+		properties.clients().forEach((name, client) -> {
+			if (DEFAULT_CLIENT.equals(name)) {
+				return;
+			}
+			if (client.apiKey() == null || client.apiKey().isBlank()) {
+				throw new IllegalStateException("auth.system.clients." + name + ".api-key is required");
+			}
+			register(name, client.apiKey(), quota(client));
+		});
+	}
+
+	private static TokenBucket quota(Client client) {
+		if (client.requestsPerSecond() <= 0) {
+			return null;
+		}
+		int burst = (client.burst() > 0) ? client.burst() : client.requestsPerSecond();
+		return new TokenBucket(client.requestsPerSecond(), burst, System.nanoTime());
+	}
+
+	private void register(String name, String apiKey, TokenBucket quota) {
+		byte[] digest = digest(apiKey);
+		Entry previous = this.clients.put(ByteBuffer.wrap(digest), new Entry(digest, new ApiClient(name, quota)));
+		if (previous != null) {
+			throw new IllegalStateException(
+					"API clients '" + previous.client().getName() + "' and '" + name + "' share the same API key");
+		}
+	}
+
+	/**
+	 * Resolves the client presenting an API key.
+	 * @param apiKey the presented API key, may be {@code null}
+	 * @return the client, or {@code null} if the key is missing or unknown
+	 */
+	public ApiClient authenticate(String apiKey) {
+		if (apiKey == null) {
+			return null;
+		}
+		byte[] digest = digest(apiKey);
+		Entry entry = this.clients.get(ByteBuffer.wrap(digest));
+		return (entry != null && MessageDigest.isEqual(entry.digest(), digest)) ? entry.client() : null;
+	}
+
+	/**
+	 * Returns all registered clients.
+	 * @return the clients
+	 */
+	public Collection<ApiClient> getClients() {
+		return this.clients.values().stream().map(Entry::client).toList();
+	}
+
+	private static byte[] digest(String apiKey) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not available", ex);
+		}
+	}
+
+	private record Entry(byte[] digest, ApiClient client) {
+	}
+
+}
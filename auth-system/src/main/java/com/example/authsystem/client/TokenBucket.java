@@ -0,0 +1,59 @@
+package com.example.authsystem.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the generic cell rate algorithm.
+ * <p>
+ * Instead of a token count refilled over time, the bucket tracks the theoretical arrival
+ * time of the next permit: each acquired permit pushes it one emission interval into the
+ * future, and a request is admitted while that time stays within the burst tolerance of
+ * now. The whole state is a single {@link AtomicLong}, updated with a compare-and-set
+ * loop.
+ * <p>
+ * More permits than the burst can be acquired at once from a full bucket. Admission then
+ * only requires the burst, and the rest is charged as debt that pushes the theoretical
+ * arrival time beyond the tolerance, so later requests wait until it is paid off and the
+ * sustained rate holds.
+ */
+class TokenBucket {
+
+	private final long emissionIntervalNanos;
+
+	private final long toleranceNanos;
+
+	private final AtomicLong theoreticalArrivalNanos;
+
+	/**
+	 * Creates a full bucket.
+	 * @param permitsPerSecond the sustained rate
+	 * @param burst the number of permits that may be acquired at once
+	 * @param nowNanos the current {@link System#nanoTime()}
+	 */
+	TokenBucket(int permitsPerSecond, int burst, long nowNanos) {
+		this.emissionIntervalNanos = 1_000_000_000L / permitsPerSecond;
+		this.toleranceNanos = this.emissionIntervalNanos * burst;
+		this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Attempts to acquire permits, running into debt for the permits beyond the burst.
+	 * @param permits the number of permits
+	 * @param nowNanos the current {@link System#nanoTime()}
+	 * @return true if the permits were acquired
+	 */
+	boolean tryAcquire(int permits, long nowNanos) {
+		long increment = this.emissionIntervalNanos * permits;
+		while (true) {
+			long current = this.theoreticalArrivalNanos.get();
+			long start = Math.max(current, nowNanos);
+			if (start + Math.min(increment, this.toleranceNanos) - nowNanos > this.toleranceNanos) {
+				return false;
+			}
+			if (this.theoreticalArrivalNanos.compareAndSet(current, start + increment)) {
+				return true;
+			}
+		}
+	}
+
+}
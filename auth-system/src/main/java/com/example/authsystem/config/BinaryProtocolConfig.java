@@ -0,0 +1,26 @@
+package com.example.authsystem.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.client.ApiClientRegistry;
+import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.socket.BinaryValidationServer;
+
+/**
+ * Configuration for the binary validation protocol enabled by
+ * {@code auth.system.binary-protocol.enabled}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryProtocolConfig {
+
+	@Bean
+	@ConditionalOnProperty(name = "auth.system.binary-protocol.enabled", havingValue = "true")
+	BinaryValidationServer binaryValidationServer(TokenService tokenService, ApiClientRegistry apiClientRegistry,
+			AuthSystemProperties properties) {
+		return new BinaryValidationServer(tokenService, apiClientRegistry, properties);
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.example.authsystem.config;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.ConcurrencyLimit.Limit;
+import com.example.authsystem.limit.AdaptiveConcurrencyLimiter;
+import com.example.authsystem.limit.ConcurrencyLimitFilter;
+import com.example.authsystem.limit.ConcurrencyLimitHealthIndicator;
+import com.example.authsystem.limit.ConcurrencyLimitMetrics;
+
+/**
+ * Configuration for the adaptive concurrency limits in front of the login and validation
+ * endpoints. Each group has its own limiter, so a storm of password checks on login
+ * cannot starve token validation or the other way round.
+ * <p>
+ * The health indicator is registered even when the limits are disabled, reporting UP,
+ * because the readiness group includes it by name.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConcurrencyLimitConfig {
+
+	// Shed load before Spring Security authenticates anything
+	private static final int FILTER_ORDER = SecurityProperties.DEFAULT_FILTER_ORDER - 1;
+
+	@Bean
+	ConcurrencyLimitHealthIndicator concurrencyLimitHealthIndicator(
+			ObjectProvider<AdaptiveConcurrencyLimiter> limiters) {
+		return new ConcurrencyLimitHealthIndicator(limiters.orderedStream().toList());
+	}
+
+	private static AdaptiveConcurrencyLimiter limiter(String name, Limit limit) {
+		return new AdaptiveConcurrencyLimiter(name, limit.initial(), limit.min(), limit.max());
+	}
+
+	private static FilterRegistrationBean<ConcurrencyLimitFilter> registration(ConcurrencyLimitFilter filter,
+			String... urlPatterns) {
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.addUrlPatterns(urlPatterns);
+		registration.setOrder(FILTER_ORDER);
+		return registration;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(name = "auth.system.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+	static class Limiters {
+
+		@Bean
+		AdaptiveConcurrencyLimiter loginConcurrencyLimiter(AuthSystemProperties properties) {
+			return limiter("login", properties.concurrencyLimit().login());
+		}
+
+		@Bean
+		AdaptiveConcurrencyLimiter validateConcurrencyLimiter(AuthSystemProperties properties) {
+			return limiter("validate", properties.concurrencyLimit().validate());
+		}
+
+		@Bean
+		FilterRegistrationBean<ConcurrencyLimitFilter> loginConcurrencyLimitFilter(
+				AdaptiveConcurrencyLimiter loginConcurrencyLimiter) {
+			// Rendering the login page is cheap; only submitting credentials runs the
+			// password hash
+			return registration(new ConcurrencyLimitFilter(loginConcurrencyLimiter, Set.of("POST")), "/login");
+		}
+
+		@Bean
+		FilterRegistrationBean<ConcurrencyLimitFilter> validateConcurrencyLimitFilter(
+				AdaptiveConcurrencyLimiter validateConcurrencyLimiter) {
+			return registration(new ConcurrencyLimitFilter(validateConcurrencyLimiter, Set.of("GET", "POST")),
+					"/api/validate", "/api/validate/batch");
+		}
+
+		@Bean
+		ConcurrencyLimitMetrics concurrencyLimitMetrics(List<AdaptiveConcurrencyLimiter> limiters) {
+			return new ConcurrencyLimitMetrics(limiters);
+		}
+
+	}
+
+}
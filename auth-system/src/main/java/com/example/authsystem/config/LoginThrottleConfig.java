@@ -0,0 +1,50 @@
+package com.example.authsystem.config;
+
+import java.time.InstantSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.limit.LoginThrottle;
+import com.example.authsystem.limit.LoginThrottleMetrics;
+
+/**
+ * Configuration for throttling login brute force. Failed logins are counted per username
+ * and per client address, and further logins past the limits are rejected before the
+ * password encoder runs, so credential stuffing cannot keep the BCrypt pool busy. The
+ * throttle is consulted by the authentication provider in {@link SecurityConfig}, so it
+ * covers the login form and HTTP Basic alike.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "auth.system.login-throttle.enabled", havingValue = "true", matchIfMissing = true)
+public class LoginThrottleConfig {
+
+	@Bean
+	LoginThrottle loginThrottle(AuthSystemProperties properties, InstantSource instantSource) {
+		AuthSystemProperties.LoginThrottle loginThrottle = properties.loginThrottle();
+		return new LoginThrottle(loginThrottle.window(), loginThrottle.maxFailuresPerUsername(),
+				loginThrottle.maxFailuresPerAddress(), loginThrottle.sketchWidth(), instantSource);
+	}
+
+	@Bean
+	ApplicationListener<AuthenticationFailureBadCredentialsEvent> loginThrottleFailureListener(
+			LoginThrottle loginThrottle) {
+		// Unknown usernames fail with bad credentials too, so they are counted alike
+		return (event) -> {
+			String address = (event.getAuthentication().getDetails() instanceof WebAuthenticationDetails details)
+					? details.getRemoteAddress() : null;
+			loginThrottle.recordFailure(event.getAuthentication().getName(), address);
+		};
+	}
+
+	@Bean
+	LoginThrottleMetrics loginThrottleMetrics(LoginThrottle loginThrottle) {
+		return new LoginThrottleMetrics(loginThrottle);
+	}
+
+}
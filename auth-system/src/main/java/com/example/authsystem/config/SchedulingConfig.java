@@ -0,0 +1,40 @@
+package com.example.authsystem.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.token.TokenJournal;
+import com.example.authsystem.token.TokenService;
+
+/**
+ * Scheduling configuration for background maintenance tasks.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+	private final TokenService tokenService;
+
+	private final ObjectProvider<TokenJournal> tokenJournal;
+
+	private final AuthSystemProperties properties;
+
+	public SchedulingConfig(TokenService tokenService, ObjectProvider<TokenJournal> tokenJournal,
+			AuthSystemProperties properties) {
+		this.tokenService = tokenService;
+		this.tokenJournal = tokenJournal;
+		this.properties = properties;
+	}
+
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		taskRegistrar.addFixedDelayTask(this.tokenService::evictExpired, this.properties.tokenSweepInterval());
+		this.tokenJournal.ifAvailable(journal -> taskRegistrar.addFixedDelayTask(journal::compact,
+				this.properties.tokenStore().journal().compactionInterval()));
+	}
+
+}
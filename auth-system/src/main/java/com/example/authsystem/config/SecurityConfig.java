@@ -1,42 +1,200 @@
 package com.example.authsystem.config;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.DefaultRedirectStrategy;
+import org.springframework.security.web.RedirectStrategy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.Bcrypt;
+import com.example.authsystem.AuthSystemProperties.PasswordVerification;
+import com.example.authsystem.auth.BCryptCalibrator;
+import com.example.authsystem.auth.BoundedPasswordEncoder;
+import com.example.authsystem.auth.CustomUserDetailsService;
+import com.example.authsystem.auth.PasswordVerificationMetrics;
+import com.example.authsystem.auth.PasswordVerificationRejectedException;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.auth.web.TokenRedirectSuccessHandler;
+import com.example.authsystem.limit.ConcurrencyLimitFilter;
+import com.example.authsystem.limit.LoginThrottle;
+import com.example.authsystem.limit.LoginThrottledException;
+import com.example.authsystem.limit.ThrottlingAuthenticationProvider;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Spring Security configuration for the Auth System.
+ * <p>
+ * Unauthenticated requests never create an HTTP session: the CSRF token lives in a
+ * cookie, requests are not saved for replay after login, and the redirect URL travels
+ * through the login form as a signed {@code state} parameter. The success handler mints
+ * the token and redirects straight back to the application, and the failure handler
+ * passes the state on to the next attempt.
+ * <p>
+ * The user administration API under {@code /api/users} has a chain of its own for
+ * scripts: administrators authenticate every request with HTTP Basic and no session is
+ * kept.
  */
 @Configuration(proxyBeanMethods = false)
 public class SecurityConfig {
 
+	private static final Log logger = LogFactory.getLog(SecurityConfig.class);
+
+	private static final String STATE_PARAMETER = "state";
+
+	private static final RedirectStrategy REDIRECT_STRATEGY = new DefaultRedirectStrategy();
+
 	@Bean
-	PasswordEncoder passwordEncoder() {
-		return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+	BoundedPasswordEncoder passwordEncoder(AuthSystemProperties properties) {
+		PasswordVerification passwordVerification = properties.passwordVerification();
+		int threads = (passwordVerification.threads() > 0) ? passwordVerification.threads()
+				: Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(delegatingPasswordEncoder(properties.bcrypt()), threads,
+				passwordVerification.queueCapacity());
 	}
 
 	@Bean
-	SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+	AuthenticationProvider authenticationProvider(UserService userService, BoundedPasswordEncoder passwordEncoder,
+			ObjectProvider<LoginThrottle> loginThrottle) {
+		CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userService);
+		DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+		// Unknown usernames get their dummy check on the pool too, so they queue and get
+		// shed exactly like known ones and cannot be told apart by timing
+		authenticationProvider.setPasswordEncoder(passwordEncoder);
+		// Rehashing for a directory that cannot store the result would only double the
+		// cost of every login
+		if (userService.supportsPasswordUpdates()) {
+			authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+		}
+		// Throttle in the provider so that every way of submitting a password is covered
+		LoginThrottle throttle = loginThrottle.getIfAvailable();
+		return (throttle != null) ? new ThrottlingAuthenticationProvider(authenticationProvider, throttle)
+				: authenticationProvider;
+	}
+
+	@Bean
+	PasswordVerificationMetrics passwordVerificationMetrics(BoundedPasswordEncoder passwordEncoder) {
+		return new PasswordVerificationMetrics(passwordEncoder);
+	}
+
+	@Bean
+	@Order(1)
+	SecurityFilterChain userApiSecurityFilterChain(HttpSecurity http) throws Exception {
+		// Scripted administration authenticates every request and holds no session, so
+		// it needs no CSRF token
+		http.securityMatcher("/api/users/**")
+			.authorizeHttpRequests(authorize -> authorize.anyRequest().hasRole("ADMIN"))
+			.httpBasic(basic -> basic.authenticationEntryPoint((request, response, exception) -> {
+				if (!rejected(exception, response)) {
+					// Answer directly rather than through the error page, which would
+					// redirect an unauthenticated script to the login form
+					response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"auth-system\"");
+					response.setStatus(HttpStatus.UNAUTHORIZED.value());
+				}
+			}))
+			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+			.csrf(csrf -> csrf.disable());
+
+		return http.build();
+	}
+
+	@Bean
+	SecurityFilterChain securityFilterChain(HttpSecurity http, TokenRedirectSuccessHandler successHandler)
+			throws Exception {
 		http
 		// @formatter:off
 			.authorizeHttpRequests(authorize -> authorize
-				.requestMatchers("/login", "/api/validate", "/actuator/health", "/*.css").permitAll()
+				.requestMatchers("/login", "/api/validate", "/api/validate/batch", "/api/tokens/revoke", "/actuator/health", "/actuator/health/*", "/*.css").permitAll()
 				.anyRequest().authenticated())
 			// @formatter:on
 			.formLogin(form -> form.loginPage("/login")
 				.loginProcessingUrl("/login")
-				.defaultSuccessUrl("/login-success", true)
-				.failureUrl("/login?error")
+				.successHandler(successHandler)
+				.failureHandler(failureHandler())
 				.permitAll())
 			.logout(logout -> logout.logoutSuccessUrl("/login").permitAll())
-			.csrf(csrf -> csrf.ignoringRequestMatchers("/api/validate"));
+			.requestCache(requestCache -> requestCache.requestCache(new NullRequestCache()))
+			.csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository())
+				.ignoringRequestMatchers("/api/validate", "/api/validate/batch", "/api/tokens/revoke"));
 
 		return http.build();
 	}
 
+	private static PasswordEncoder delegatingPasswordEncoder(Bcrypt bcrypt) {
+		int strength = bcrypt.strength();
+		if (strength == 0) {
+			long start = System.nanoTime();
+			strength = BCryptCalibrator.calibrate(bcrypt.targetTime(), bcrypt.minStrength());
+			logger.info("Calibrated BCrypt strength " + strength + " for a target of " + bcrypt.targetTime().toMillis()
+					+ " ms per hash in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+		}
+		DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+				Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+		// Hashes with any other id still verify, and are upgraded to BCrypt on login
+		passwordEncoder.setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+		return passwordEncoder;
+	}
+
+	private static AuthenticationFailureHandler failureHandler() {
+		return (request, response, exception) -> {
+			if (rejected(exception, response)) {
+				return;
+			}
+			REDIRECT_STRATEGY.sendRedirect(request, response,
+					withState(UriComponentsBuilder.fromPath("/login").query("error"), request));
+		};
+	}
+
+	/**
+	 * Answers an authentication that was turned away before its password was verified,
+	 * without a redirect or a challenge that would invite an immediate retry.
+	 */
+	private static boolean rejected(AuthenticationException exception, HttpServletResponse response) {
+		if (exception instanceof LoginThrottledException throttled) {
+			response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(throttled.getRetryAfterSeconds()));
+			return true;
+		}
+		if (exception instanceof PasswordVerificationRejectedException) {
+			// Shed like the login concurrency limit does, without queueing a redirect
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ConcurrencyLimitFilter.RETRY_AFTER_SECONDS));
+			return true;
+		}
+		return false;
+	}
+
+	private static String withState(UriComponentsBuilder builder, HttpServletRequest request) {
+		String state = request.getParameter(STATE_PARAMETER);
+		if (state != null && !state.isEmpty()) {
+			builder.queryParam(STATE_PARAMETER, state);
+		}
+		return builder.encode().build().toUriString();
+	}
+
 }
@@ -0,0 +1,51 @@
+package com.example.authsystem.config;
+
+import java.io.IOException;
+import java.time.InstantSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.Journal;
+import com.example.authsystem.AuthSystemProperties.TokenStoreProperties;
+import com.example.authsystem.token.CompactTokenStore;
+import com.example.authsystem.token.ConcurrentMapTokenStore;
+import com.example.authsystem.token.JournalingTokenStore;
+import com.example.authsystem.token.StripedTokenStore;
+import com.example.authsystem.token.TokenJournal;
+import com.example.authsystem.token.TokenStore;
+
+/**
+ * Configuration for the token store selected by {@code auth.system.token-store.type},
+ * optionally backed by a journal.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TokenStoreConfig {
+
+	@Bean
+	TokenStore tokenStore(AuthSystemProperties properties, ObjectProvider<TokenJournal> tokenJournal) {
+		TokenStoreProperties tokenStore = properties.tokenStore();
+		TokenStore store = switch (tokenStore.type()) {
+			case CONCURRENT_MAP -> new ConcurrentMapTokenStore();
+			case STRIPED -> new StripedTokenStore(stripes(tokenStore));
+			case COMPACT -> new CompactTokenStore(stripes(tokenStore));
+		};
+		TokenJournal journal = tokenJournal.getIfAvailable();
+		return (journal != null) ? new JournalingTokenStore(store, journal) : store;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "auth.system.token-store.journal.enabled", havingValue = "true")
+	TokenJournal tokenJournal(AuthSystemProperties properties, InstantSource instantSource) throws IOException {
+		Journal journal = properties.tokenStore().journal();
+		return new TokenJournal(journal.path(), journal.initialSize().toBytes(), instantSource);
+	}
+
+	private static int stripes(TokenStoreProperties tokenStore) {
+		return (tokenStore.stripes() > 0) ? tokenStore.stripes() : Runtime.getRuntime().availableProcessors() * 4;
+	}
+
+}
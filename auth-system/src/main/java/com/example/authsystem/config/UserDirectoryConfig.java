@@ -0,0 +1,59 @@
+package com.example.authsystem.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.InstantSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.UserCache;
+import com.example.authsystem.AuthSystemProperties.UserDirectoryProperties;
+import com.example.authsystem.auth.BoundedPasswordEncoder;
+import com.example.authsystem.auth.CachingUserDirectory;
+import com.example.authsystem.auth.FileUserDirectory;
+import com.example.authsystem.auth.InMemoryUserDirectory;
+import com.example.authsystem.auth.JdbcUserDirectory;
+import com.example.authsystem.auth.UserDirectory;
+
+/**
+ * Configuration for the user directory selected by
+ * {@code auth.system.user-directory.type}. Directories backed by external storage are
+ * fronted by a read-through cache.
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserDirectoryConfig {
+
+	@Bean
+	UserDirectory userDirectory(AuthSystemProperties properties, BoundedPasswordEncoder passwordEncoder,
+			ObjectProvider<JdbcClient> jdbcClient, ObjectMapper objectMapper, InstantSource instantSource)
+			throws IOException {
+		UserDirectoryProperties userDirectory = properties.userDirectory();
+		return switch (userDirectory.type()) {
+			// Hash outside the login pool, which may reject the work as a failed login
+			case IN_MEMORY -> InMemoryUserDirectory.withDemoUsers(passwordEncoder.getDelegate());
+			case JDBC -> cached(new JdbcUserDirectory(jdbcClient.getObject()), userDirectory.cache(), instantSource);
+			case FILE -> new FileUserDirectory(file(userDirectory), objectMapper);
+		};
+	}
+
+	private static Path file(UserDirectoryProperties userDirectory) {
+		if (userDirectory.file() == null) {
+			throw new IllegalStateException(
+					"auth.system.user-directory.file must be set when auth.system.user-directory.type is file");
+		}
+		return userDirectory.file();
+	}
+
+	private static UserDirectory cached(UserDirectory directory, UserCache cache, InstantSource instantSource) {
+		if (!cache.enabled()) {
+			return directory;
+		}
+		return new CachingUserDirectory(directory, cache.maxSize(), cache.ttl(), cache.negativeTtl(), instantSource);
+	}
+
+}
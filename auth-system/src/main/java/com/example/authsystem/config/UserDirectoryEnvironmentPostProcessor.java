@@ -0,0 +1,51 @@
+package com.example.authsystem.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import com.example.authsystem.AuthSystemProperties.UserDirectoryType;
+
+/**
+ * Excludes the data source auto-configuration unless
+ * {@code auth.system.user-directory.type} is {@code jdbc}, so that no embedded database
+ * is started and no SQL scripts run for a directory that does not use them.
+ */
+public class UserDirectoryEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+	private static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+
+	private static final List<String> JDBC_AUTO_CONFIGURATIONS = List.of(DataSourceAutoConfiguration.class.getName(),
+			DataSourceTransactionManagerAutoConfiguration.class.getName(),
+			JdbcTemplateAutoConfiguration.class.getName(), JdbcClientAutoConfiguration.class.getName(),
+			SqlInitializationAutoConfiguration.class.getName());
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		Binder binder = Binder.get(environment);
+		UserDirectoryType type = binder.bind("auth.system.user-directory.type", UserDirectoryType.class)
+			.orElse(UserDirectoryType.IN_MEMORY);
+		if (type == UserDirectoryType.JDBC) {
+			return;
+		}
+		List<String> excludes = new ArrayList<>(
+				binder.bind(EXCLUDE_PROPERTY, Bindable.listOf(String.class)).orElse(List.of()));
+		excludes.addAll(JDBC_AUTO_CONFIGURATIONS);
+		environment.getPropertySources()
+			.addFirst(new MapPropertySource("userDirectoryExcludes",
+					Map.of(EXCLUDE_PROPERTY, String.join(",", excludes))));
+	}
+
+}
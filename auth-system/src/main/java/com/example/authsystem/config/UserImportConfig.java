@@ -0,0 +1,56 @@
+package com.example.authsystem.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.UserImport;
+import com.example.authsystem.auth.BoundedPasswordEncoder;
+import com.example.authsystem.auth.UserDirectory;
+import com.example.authsystem.auth.UserImporter;
+
+/**
+ * Configuration for bulk user imports, uploaded to {@code /api/users/import} or read from
+ * {@code auth.system.user-import.file} at startup.
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserImportConfig {
+
+	private static final Log logger = LogFactory.getLog(UserImportConfig.class);
+
+	@Bean
+	UserImporter userImporter(AuthSystemProperties properties, UserDirectory userDirectory,
+			BoundedPasswordEncoder passwordEncoder, ObjectMapper objectMapper) {
+		UserImport userImport = properties.userImport();
+		// Leave half the cores to logins and token validation during a large import
+		int parallelism = (userImport.parallelism() > 0) ? userImport.parallelism()
+				: Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		// Hash on the import's own pool rather than queueing behind logins
+		return new UserImporter(userDirectory, passwordEncoder.getDelegate(), objectMapper, parallelism,
+				userImport.batchSize());
+	}
+
+	@Bean
+	@ConditionalOnProperty("auth.system.user-import.file")
+	ApplicationRunner userImportRunner(AuthSystemProperties properties, UserImporter userImporter) {
+		Path file = properties.userImport().file();
+		// Serve logins while a large file is being imported
+		return (arguments) -> Thread.ofPlatform().daemon().name("user-import").start(() -> {
+			try {
+				userImporter.importFile(file);
+			}
+			catch (IOException | RuntimeException ex) {
+				logger.error("Failed to import users from " + file, ex);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.example.authsystem.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter that adapts its limit to the observed latency.
+ * <p>
+ * The limit follows a gradient between a long-term latency baseline and the recent
+ * latency: while recent requests are as fast as the baseline, the limit grows by a small
+ * queue allowance; once they slow down because requests queue for CPU or threads, the
+ * limit shrinks in proportion, down to half per update. The limit only grows while at
+ * least half of it is in use, so an idle limiter does not drift up. Requests above the
+ * limit are rejected immediately instead of queueing.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final double SHORT_SMOOTHING = 0.1;
+
+	private static final double LONG_SMOOTHING = 1.0 / 600;
+
+	private static final double LIMIT_SMOOTHING = 0.2;
+
+	private static final double TOLERANCE = 1.5;
+
+	private final String name;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final ReentrantLock updateLock = new ReentrantLock();
+
+	private volatile int limit;
+
+	private volatile long lastRejectionNanos;
+
+	private double estimatedLimit;
+
+	private double shortLatency;
+
+	private double longLatency;
+
+	public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Concurrency limits of " + name + " must satisfy 1 <= min (" + minLimit
+					+ ") <= initial (" + initialLimit + ") <= max (" + maxLimit + ")");
+		}
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+		this.estimatedLimit = initialLimit;
+	}
+
+	/**
+	 * Attempts to start a request.
+	 * @return true if the request may proceed and must be followed by
+	 * {@link #release(long)}, false if it must be rejected
+	 */
+	public boolean tryAcquire() {
+		if (this.inFlight.incrementAndGet() > this.limit) {
+			this.inFlight.decrementAndGet();
+			this.rejected.increment();
+			this.lastRejectionNanos = System.nanoTime();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Completes a request and feeds its latency into the limit.
+	 * @param latencyNanos how long the request took
+	 */
+	public void release(long latencyNanos) {
+		int inFlight = this.inFlight.getAndDecrement();
+		// Samples are plentiful under load, so skip this one rather than contend
+		if (!this.updateLock.tryLock()) {
+			return;
+		}
+		try {
+			update(latencyNanos, inFlight);
+		}
+		finally {
+			this.updateLock.unlock();
+		}
+	}
+
+	private void update(long latencyNanos, int inFlight) {
+		if (this.longLatency == 0) {
+			this.shortLatency = latencyNanos;
+			this.longLatency = latencyNanos;
+			return;
+		}
+		this.shortLatency += (latencyNanos - this.shortLatency) * SHORT_SMOOTHING;
+		this.longLatency += (this.shortLatency - this.longLatency) * LONG_SMOOTHING;
+		// After a sustained slowdown the baseline has crept up; let it recover faster
+		if (this.longLatency > 2 * this.shortLatency) {
+			this.longLatency *= 0.95;
+		}
+
+		double gradient = Math.clamp(TOLERANCE * this.longLatency / this.shortLatency, 0.5, 1.0);
+		double newLimit = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+		if (newLimit > this.estimatedLimit && inFlight < this.estimatedLimit / 2) {
+			return;
+		}
+		newLimit = this.estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+		this.estimatedLimit = Math.clamp(newLimit, this.minLimit, this.maxLimit);
+		this.limit = (int) this.estimatedLimit;
+	}
+
+	/**
+	 * Returns the name of the limited endpoint group.
+	 * @return the name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the current concurrency limit.
+	 * @return the limit
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * Returns the number of requests in flight.
+	 * @return the number of requests in flight
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * Returns the number of requests rejected so far.
+	 * @return the number of rejected requests
+	 */
+	public long getRejected() {
+		return this.rejected.sum();
+	}
+
+	/**
+	 * Returns whether a request was rejected recently.
+	 * @param withinNanos how recent a rejection counts
+	 * @return true if a request was rejected within the given time
+	 */
+	public boolean isSaturated(long withinNanos) {
+		return getRejected() > 0 && System.nanoTime() - this.lastRejectionNanos < withinNanos;
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.example.authsystem.limit;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter that admits requests through an {@link AdaptiveConcurrencyLimiter} and sheds the
+ * excess with {@code 503 Service Unavailable} and a {@code Retry-After} header.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	/**
+	 * Seconds a client is asked to wait before retrying a shed request.
+	 */
+	public static final int RETRY_AFTER_SECONDS = 1;
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	private final Set<String> methods;
+
+	/**
+	 * Creates a filter.
+	 * @param limiter the limiter to admit requests through
+	 * @param methods the HTTP methods to limit; other requests pass through unlimited
+	 */
+	public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, Set<String> methods) {
+		this.limiter = limiter;
+		this.methods = methods;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !this.methods.contains(request.getMethod());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (!this.limiter.tryAcquire()) {
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			this.limiter.release(System.nanoTime() - start);
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.example.authsystem.limit;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Reports the instance as out of service while any of its concurrency limiters has
+ * recently shed load, so that a load balancer can steer traffic to other instances.
+ */
+public class ConcurrencyLimitHealthIndicator implements HealthIndicator {
+
+	private static final long SATURATION_WINDOW_NANOS = Duration.ofSeconds(5).toNanos();
+
+	private final List<AdaptiveConcurrencyLimiter> limiters;
+
+	public ConcurrencyLimitHealthIndicator(List<AdaptiveConcurrencyLimiter> limiters) {
+		this.limiters = limiters;
+	}
+
+	@Override
+	public Health health() {
+		Health.Builder builder = Health.up();
+		for (AdaptiveConcurrencyLimiter limiter : this.limiters) {
+			if (limiter.isSaturated(SATURATION_WINDOW_NANOS)) {
+				builder.outOfService();
+			}
+			builder.withDetail(limiter.getName(), new LimiterDetails(limiter.getLimit(), limiter.getInFlight()));
+		}
+		return builder.build();
+	}
+
+	private record LimiterDetails(int limit, int inFlight) {
+	}
+
+}
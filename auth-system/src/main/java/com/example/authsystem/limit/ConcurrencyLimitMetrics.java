@@ -0,0 +1,40 @@
+package com.example.authsystem.limit;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the current limit, in-flight requests and rejections of each concurrency
+ * limiter, tagged by the limited endpoint group.
+ */
+public class ConcurrencyLimitMetrics implements MeterBinder {
+
+	private final List<AdaptiveConcurrencyLimiter> limiters;
+
+	public ConcurrencyLimitMetrics(List<AdaptiveConcurrencyLimiter> limiters) {
+		this.limiters = limiters;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (AdaptiveConcurrencyLimiter limiter : this.limiters) {
+			Gauge.builder("auth.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Current adaptive concurrency limit")
+				.tag("endpoint", limiter.getName())
+				.register(registry);
+			Gauge.builder("auth.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.description("Requests currently admitted by the concurrency limiter")
+				.tag("endpoint", limiter.getName())
+				.register(registry);
+			FunctionCounter.builder("auth.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+				.description("Requests shed by the concurrency limiter")
+				.tag("endpoint", limiter.getName())
+				.register(registry);
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.example.authsystem.limit;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.InstantSource;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of how often keys occurred within a sliding time window, in memory
+ * that does not depend on how many distinct keys are counted.
+ * <p>
+ * Each key maps to one counter in each of four rows, and its count is estimated by the
+ * smallest of them, so estimates can be too high when keys share counters but never too
+ * low. Only the counters that hold that smallest value are incremented, which keeps the
+ * overestimation from colliding keys down. Counters are held for the current and the
+ * previous window; the estimate adds the previous window's count weighted by how much of
+ * it still overlaps the sliding window, so counts fade out gradually instead of dropping
+ * to zero when a window ends.
+ * <p>
+ * Rows are indexed by hashes seeded randomly at construction, so that keys colliding with
+ * a given key cannot be computed in advance. Memory use is two windows of
+ * {@code 4 * width} counters.
+ */
+public class DecayingCountMinSketch {
+
+	private static final int DEPTH = 4;
+
+	private final int width;
+
+	private final long windowMillis;
+
+	private final InstantSource instantSource;
+
+	private final long seed1;
+
+	private final long seed2;
+
+	private volatile Windows windows;
+
+	/**
+	 * Creates a sketch.
+	 * @param width the number of counters per row, rounded up to a power of two
+	 * @param window the length of the sliding window
+	 * @param instantSource the source of the current time
+	 */
+	public DecayingCountMinSketch(int width, Duration window, InstantSource instantSource) {
+		this.width = Integer.highestOneBit(Math.max(width, 2) * 2 - 1);
+		this.windowMillis = window.toMillis();
+		this.instantSource = instantSource;
+		SecureRandom random = new SecureRandom();
+		this.seed1 = random.nextLong();
+		this.seed2 = random.nextLong() | 1;
+		this.windows = new Windows(instantSource.millis(), newCounters(), newCounters());
+	}
+
+	/**
+	 * Counts an occurrence of a key.
+	 * @param key the key
+	 */
+	public void add(String key) {
+		AtomicIntegerArray counters = windows(this.instantSource.millis()).current();
+		int[] indexes = indexes(key);
+		int min = Integer.MAX_VALUE;
+		for (int index : indexes) {
+			min = Math.min(min, counters.get(index));
+		}
+		for (int index : indexes) {
+			// A concurrent add may have raised the counter already, which is as good
+			counters.compareAndSet(index, min, min + 1);
+		}
+	}
+
+	/**
+	 * Estimates the occurrences of a key within the sliding window, never less than the
+	 * actual number.
+	 * @param key the key
+	 * @return the estimated number of occurrences
+	 */
+	public double estimate(String key) {
+		long now = this.instantSource.millis();
+		Windows windows = windows(now);
+		double previousWeight = 1 - (double) (now - windows.start()) / this.windowMillis;
+		double min = Double.MAX_VALUE;
+		for (int index : indexes(key)) {
+			min = Math.min(min, windows.current().get(index) + previousWeight * windows.previous().get(index));
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the number of counters the sketch holds across both windows.
+	 * @return the number of counters
+	 */
+	public int size() {
+		return 2 * DEPTH * this.width;
+	}
+
+	private Windows windows(long now) {
+		Windows windows = this.windows;
+		if (now - windows.start() < this.windowMillis) {
+			return windows;
+		}
+		synchronized (this) {
+			windows = this.windows;
+			long elapsed = now - windows.start();
+			if (elapsed >= this.windowMillis) {
+				long passed = elapsed / this.windowMillis;
+				AtomicIntegerArray previous = (passed == 1) ? windows.current() : newCounters();
+				windows = new Windows(windows.start() + passed * this.windowMillis, newCounters(), previous);
+				this.windows = windows;
+			}
+			return windows;
+		}
+	}
+
+	int[] indexes(String key) {
+		long hash1 = this.seed1;
+		long hash2 = this.seed2;
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			hash1 = (hash1 ^ c) * 0x100000001B3L;
+			hash2 = (hash2 + c) * 0x9E3779B97F4A7C15L;
+		}
+		hash1 = mix(hash1);
+		hash2 = mix(hash2) | 1;
+		int[] indexes = new int[DEPTH];
+		for (int row = 0; row < DEPTH; row++) {
+			indexes[row] = row * this.width + ((int) ((hash1 + row * hash2) >>> 32) & (this.width - 1));
+		}
+		return indexes;
+	}
+
+	private AtomicIntegerArray newCounters() {
+		return new AtomicIntegerArray(DEPTH * this.width);
+	}
+
+	private static long mix(long hash) {
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	private record Windows(long start, AtomicIntegerArray current, AtomicIntegerArray previous) {
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.example.authsystem.limit;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.InstantSource;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks failed logins per username and per client address and tells which logins to
+ * reject before their password is verified.
+ * <p>
+ * Failures are counted in a {@link DecayingCountMinSketch} for each kind of key, so
+ * memory use stays the same however many usernames or addresses an attacker tries.
+ * Sketches only overestimate, so a login may occasionally be throttled early when its key
+ * shares counters with busier keys, but an attacker is never let through beyond the
+ * limit. IPv6 addresses are counted by their /64 network, since a single client usually
+ * holds all of it.
+ */
+public class LoginThrottle {
+
+	private final Duration window;
+
+	private final DecayingCountMinSketch usernames;
+
+	private final DecayingCountMinSketch addresses;
+
+	private final int maxFailuresPerUsername;
+
+	private final int maxFailuresPerAddress;
+
+	private final LongAdder throttledUsernames = new LongAdder();
+
+	private final LongAdder throttledAddresses = new LongAdder();
+
+	/**
+	 * Creates a throttle.
+	 * @param window the sliding window failures are counted in
+	 * @param maxFailuresPerUsername the failures for one username after which its logins
+	 * are rejected
+	 * @param maxFailuresPerAddress the failures from one address after which its logins
+	 * are rejected
+	 * @param sketchWidth the number of counters per row of each sketch
+	 * @param instantSource the source of the current time
+	 */
+	public LoginThrottle(Duration window, int maxFailuresPerUsername, int maxFailuresPerAddress, int sketchWidth,
+			InstantSource instantSource) {
+		this.window = window;
+		this.usernames = new DecayingCountMinSketch(sketchWidth, window, instantSource);
+		this.addresses = new DecayingCountMinSketch(sketchWidth, window, instantSource);
+		this.maxFailuresPerUsername = maxFailuresPerUsername;
+		this.maxFailuresPerAddress = maxFailuresPerAddress;
+	}
+
+	/**
+	 * Returns whether a login should be rejected without verifying its password.
+	 * @param username the submitted username, may be {@code null}
+	 * @param address the client address, may be {@code null}
+	 * @return {@code true} if the username or the address failed too often
+	 */
+	public boolean isThrottled(String username, String address) {
+		if (username != null && this.usernames.estimate(usernameKey(username)) >= this.maxFailuresPerUsername) {
+			this.throttledUsernames.increment();
+			return true;
+		}
+		if (address != null && this.addresses.estimate(addressKey(address)) >= this.maxFailuresPerAddress) {
+			this.throttledAddresses.increment();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Records a failed login.
+	 * @param username the submitted username, may be {@code null}
+	 * @param address the client address, may be {@code null}
+	 */
+	public void recordFailure(String username, String address) {
+		if (username != null) {
+			this.usernames.add(usernameKey(username));
+		}
+		if (address != null) {
+			this.addresses.add(addressKey(address));
+		}
+	}
+
+	/**
+	 * Returns the sliding window failures are counted in, which is also the longest a
+	 * throttled client may have to wait.
+	 * @return the window
+	 */
+	public Duration getWindow() {
+		return this.window;
+	}
+
+	/**
+	 * Returns the number of logins rejected because of their username.
+	 * @return the number of rejected logins
+	 */
+	public long getThrottledUsernames() {
+		return this.throttledUsernames.sum();
+	}
+
+	/**
+	 * Returns the number of logins rejected because of their client address.
+	 * @return the number of rejected logins
+	 */
+	public long getThrottledAddresses() {
+		return this.throttledAddresses.sum();
+	}
+
+	/**
+	 * Returns the memory the counters of both sketches take.
+	 * @return the size in bytes
+	 */
+	public long getSketchBytes() {
+		return (long) Integer.BYTES * (this.usernames.size() + this.addresses.size());
+	}
+
+	private static String usernameKey(String username) {
+		// Usernames are looked up case-insensitively by some directories
+		return username.toLowerCase(Locale.ROOT);
+	}
+
+	static String addressKey(String address) {
+		// Only IPv6 literals contain colons, so parsing never resolves a host name
+		if (address.indexOf(':') < 0) {
+			return address;
+		}
+		try {
+			InetAddress inetAddress = InetAddress.getByName(address);
+			if (inetAddress instanceof Inet6Address) {
+				byte[] network = Arrays.copyOf(inetAddress.getAddress(), 16);
+				Arrays.fill(network, 8, 16, (byte) 0);
+				return InetAddress.getByAddress(network).getHostAddress() + "/64";
+			}
+			return inetAddress.getHostAddress();
+		}
+		catch (UnknownHostException ex) {
+			return address;
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.example.authsystem.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the logins rejected by the login throttle, tagged by the kind of key that
+ * exceeded its limit, and the fixed memory of its sketches.
+ */
+public class LoginThrottleMetrics implements MeterBinder {
+
+	private final LoginThrottle throttle;
+
+	public LoginThrottleMetrics(LoginThrottle throttle) {
+		this.throttle = throttle;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("auth.login.throttled", this.throttle, LoginThrottle::getThrottledUsernames)
+			.description("Logins rejected for too many recent failures")
+			.tag("key", "username")
+			.register(registry);
+		FunctionCounter.builder("auth.login.throttled", this.throttle, LoginThrottle::getThrottledAddresses)
+			.description("Logins rejected for too many recent failures")
+			.tag("key", "address")
+			.register(registry);
+		Gauge.builder("auth.login.throttle.memory", this.throttle, LoginThrottle::getSketchBytes)
+			.description("Memory taken by the failure sketches of the login throttle")
+			.baseUnit("bytes")
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.example.authsystem.limit;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when a login is rejected by the {@link LoginThrottle} before its password is
+ * verified.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+	private final long retryAfterSeconds;
+
+	/**
+	 * Creates an exception.
+	 * @param retryAfterSeconds seconds the client should wait before retrying
+	 */
+	public LoginThrottledException(long retryAfterSeconds) {
+		super("Too many failed logins");
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * Returns the seconds the client should wait before retrying.
+	 * @return the seconds to wait
+	 */
+	public long getRetryAfterSeconds() {
+		return this.retryAfterSeconds;
+	}
+
+}
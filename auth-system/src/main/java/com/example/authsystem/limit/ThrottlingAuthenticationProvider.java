@@ -0,0 +1,44 @@
+package com.example.authsystem.limit;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Authentication provider that consults a {@link LoginThrottle} before handing the
+ * authentication to the provider that verifies the password. Throttling at the provider
+ * covers every way credentials are submitted, the login form and HTTP Basic alike.
+ */
+public class ThrottlingAuthenticationProvider implements AuthenticationProvider {
+
+	private final AuthenticationProvider delegate;
+
+	private final LoginThrottle throttle;
+
+	/**
+	 * Creates a provider.
+	 * @param delegate the provider verifying passwords
+	 * @param throttle the throttle to consult
+	 */
+	public ThrottlingAuthenticationProvider(AuthenticationProvider delegate, LoginThrottle throttle) {
+		this.delegate = delegate;
+		this.throttle = throttle;
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		String address = (authentication.getDetails() instanceof WebAuthenticationDetails details)
+				? details.getRemoteAddress() : null;
+		if (this.throttle.isThrottled(authentication.getName(), address)) {
+			throw new LoginThrottledException(this.throttle.getWindow().toSeconds());
+		}
+		return this.delegate.authenticate(authentication);
+	}
+
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return this.delegate.supports(authentication);
+	}
+
+}
@@ -7,6 +7,11 @@ public final class ApiHeaders {
 
 	public static final String API_KEY = "X-API-Key";
 
+	/**
+	 * Marks a request forwarded by another cluster node, which must be handled locally.
+	 */
+	public static final String CLUSTER_HOP = "X-Auth-Cluster-Hop";
+
 	private ApiHeaders() {
 	}
 
@@ -0,0 +1,164 @@
+package com.example.authsystem.token;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.Cluster;
+import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+/**
+ * Routes token operations to the cluster node that owns each token.
+ * <p>
+ * Token ownership is partitioned over the configured peers with a consistent hash ring.
+ * Each node only issues tokens it owns, so a token never has to be copied at issue time,
+ * and a validation received by any other node is forwarded to the owner. When clustering
+ * is disabled every token is local.
+ */
+@Component
+public class ClusterTokenRouter {
+
+	/**
+	 * Failure reason returned when the owning node cannot be reached.
+	 */
+	public static final String OWNER_UNAVAILABLE = "TOKEN_OWNER_UNAVAILABLE";
+
+	private static final Log logger = LogFactory.getLog(ClusterTokenRouter.class);
+
+	private final AuthSystemProperties properties;
+
+	private final ConsistentHashRing ring;
+
+	private final Set<String> peers;
+
+	private final RestClient restClient;
+
+	public ClusterTokenRouter(AuthSystemProperties properties, RestClient.Builder restClientBuilder) {
+		this.properties = properties;
+		Cluster cluster = properties.cluster();
+		if (cluster.enabled()) {
+			if (cluster.self() == null || cluster.self().isBlank()) {
+				throw new IllegalStateException("auth.system.cluster.self is required when clustering is enabled");
+			}
+			Set<String> nodes = new LinkedHashSet<>(cluster.peers());
+			nodes.add(cluster.self());
+			this.ring = new ConsistentHashRing(nodes, cluster.virtualNodes());
+			nodes.remove(cluster.self());
+			this.peers = Set.copyOf(nodes);
+		}
+		else {
+			this.ring = null;
+			this.peers = Set.of();
+		}
+		this.restClient = restClientBuilder.defaultStatusHandler(status -> true, (request, response) -> {
+		}).build();
+	}
+
+	/**
+	 * Checks whether this node owns a token.
+	 * @param token the token string
+	 * @return true if the token is owned by this node
+	 */
+	public boolean isLocal(String token) {
+		return this.ring == null || this.properties.cluster().self().equals(this.ring.ownerOf(token));
+	}
+
+	/**
+	 * Returns the node that owns a token. Only applicable when clustering is enabled.
+	 * @param token the token string
+	 * @return the base URL of the owning node
+	 */
+	public String ownerOf(String token) {
+		return this.ring.ownerOf(token);
+	}
+
+	/**
+	 * Validates a token on the node that owns it.
+	 * @param token the token string, signed or not
+	 * @return the owner's validation result
+	 */
+	public ValidateResult forwardValidate(String token) {
+		String owner = ownerOf(SignedTokenCodec.tokenId(token));
+		try {
+			ValidateResponse response = this.restClient.get()
+				.uri(owner + "/api/validate?token={token}", token)
+				.header(ApiHeaders.API_KEY, this.properties.apiSecret())
+				.header(ApiHeaders.CLUSTER_HOP, "1")
+				.retrieve()
+				.body(ValidateResponse.class);
+			return (response != null) ? toResult(response) : new ValidateResult.Failure(OWNER_UNAVAILABLE);
+		}
+		catch (RestClientException ex) {
+			logger.warn("Failed to forward token validation to " + owner, ex);
+			return new ValidateResult.Failure(OWNER_UNAVAILABLE);
+		}
+	}
+
+	/**
+	 * Validates several tokens owned by the same node in one request to that node.
+	 * @param owner the base URL of the owning node
+	 * @param tokens the tokens, signed or not
+	 * @return the owner's validation results, in the order of the tokens
+	 */
+	public List<ValidateResult> forwardValidateAll(String owner, List<String> tokens) {
+		try {
+			ValidateBatchResponse response = this.restClient.post()
+				.uri(owner + "/api/validate/batch")
+				.header(ApiHeaders.API_KEY, this.properties.apiSecret())
+				.header(ApiHeaders.CLUSTER_HOP, "1")
+				.body(new ValidateBatchRequest(tokens))
+				.retrieve()
+				.body(ValidateBatchResponse.class);
+			if (response != null && response.results() != null && response.results().size() == tokens.size()) {
+				return response.results().stream().map(ClusterTokenRouter::toResult).toList();
+			}
+		}
+		catch (RestClientException ex) {
+			logger.warn("Failed to forward batch token validation to " + owner, ex);
+		}
+		return Collections.nCopies(tokens.size(), new ValidateResult.Failure(OWNER_UNAVAILABLE));
+	}
+
+	private static ValidateResult toResult(ValidateResponse response) {
+		return response.valid()
+				? new ValidateResult.Success(
+						new UserInfo(response.username(), null, response.displayName(), response.roles()))
+				: new ValidateResult.Failure(response.reason());
+	}
+
+	/**
+	 * Revokes a user's outstanding tokens on every other node.
+	 * @param username the username whose tokens to revoke
+	 * @return the number of tokens revoked on other nodes
+	 */
+	public int revokeOnPeers(String username) {
+		int revoked = 0;
+		for (String peer : this.peers) {
+			try {
+				RevokeResponse response = this.restClient.post()
+					.uri(peer + "/api/tokens/revoke?username={username}", username)
+					.header(ApiHeaders.API_KEY, this.properties.apiSecret())
+					.header(ApiHeaders.CLUSTER_HOP, "1")
+					.retrieve()
+					.body(RevokeResponse.class);
+				if (response != null) {
+					revoked += response.revoked();
+				}
+			}
+			catch (RestClientException ex) {
+				logger.warn("Failed to revoke tokens of " + username + " on " + peer, ex);
+			}
+		}
+		return revoked;
+	}
+
+}
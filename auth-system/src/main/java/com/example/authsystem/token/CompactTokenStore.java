@@ -0,0 +1,499 @@
+package com.example.authsystem.token;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link TokenStore} that keeps tokens in open-addressed primitive arrays instead of
+ * objects.
+ * <p>
+ * A token is stored as the two {@code long} halves of the 128-bit value it encodes, its
+ * username as an interned {@code int} id and its expiry as epoch milliseconds, for
+ * roughly 60 bytes per token including table slack and the eviction queue, against
+ * several hundred for a {@code ConcurrentHashMap<String, TokenInfo>} entry.
+ * {@link TokenInfo} instances are only materialized when a token is consumed or removed.
+ * <p>
+ * Tokens must be canonical 22-character base64url strings, as produced by
+ * {@link TokenGenerator}. The table is split into independently locked segments in the
+ * same way as {@link StripedTokenStore}.
+ */
+public class CompactTokenStore implements TokenStore {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private final Segment[] segments;
+
+	private final int mask;
+
+	private final Usernames usernames = new Usernames();
+
+	private final LongAdder size = new LongAdder();
+
+	/**
+	 * Creates a new store.
+	 * @param segments the requested number of segments, rounded up to a power of two
+	 */
+	public CompactTokenStore(int segments) {
+		if (segments < 1) {
+			throw new IllegalArgumentException("segments must be positive: " + segments);
+		}
+		int count = Integer.highestOneBit(segments);
+		if (count < segments) {
+			count <<= 1;
+		}
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			this.segments[i] = new Segment();
+		}
+		this.mask = count - 1;
+	}
+
+	@Override
+	public void put(TokenInfo tokenInfo) {
+		String token = tokenInfo.token();
+		if (!isCanonical(token)) {
+			throw new IllegalArgumentException("Token is not a canonical 128-bit base64url value: " + token);
+		}
+		long hi = highBits(token);
+		long lo = lowBits(token);
+		int userId = this.usernames.idFor(tokenInfo.username());
+		long expiry = Math.max(tokenInfo.expiry().toEpochMilli(), 1);
+		Segment segment = segmentFor(lo);
+		segment.lock.lock();
+		try {
+			if (segment.put(hi, lo, expiry, userId << 1 | (tokenInfo.used() ? 1 : 0))) {
+				this.size.increment();
+			}
+		}
+		finally {
+			segment.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo consume(String token) {
+		if (!isCanonical(token)) {
+			return null;
+		}
+		long hi = highBits(token);
+		long lo = lowBits(token);
+		Segment segment = segmentFor(lo);
+		segment.lock.lock();
+		try {
+			int slot = segment.find(hi, lo);
+			if (slot < 0) {
+				return null;
+			}
+			TokenInfo tokenInfo = toTokenInfo(token, segment.expiries[slot], segment.users[slot]);
+			segment.users[slot] |= 1;
+			return tokenInfo;
+		}
+		finally {
+			segment.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo remove(String token) {
+		if (!isCanonical(token)) {
+			return null;
+		}
+		long hi = highBits(token);
+		long lo = lowBits(token);
+		Segment segment = segmentFor(lo);
+		segment.lock.lock();
+		try {
+			int slot = segment.find(hi, lo);
+			if (slot < 0) {
+				return null;
+			}
+			TokenInfo tokenInfo = toTokenInfo(token, segment.expiries[slot], segment.users[slot]);
+			segment.delete(slot);
+			this.size.decrement();
+			return tokenInfo;
+		}
+		finally {
+			segment.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo evictSoonestExpiring() {
+		// Each segment's queue head is its soonest-expiring token, so only the heads need
+		// comparing. Another thread may get there first, in which case look again.
+		while (this.size.sum() > 0) {
+			Segment soonest = null;
+			long soonestExpiry = Long.MAX_VALUE;
+			for (Segment segment : this.segments) {
+				segment.lock.lock();
+				try {
+					int slot = segment.headSlot();
+					if (slot >= 0 && segment.expiries[slot] < soonestExpiry) {
+						soonest = segment;
+						soonestExpiry = segment.expiries[slot];
+					}
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+			if (soonest == null) {
+				return null;
+			}
+			soonest.lock.lock();
+			try {
+				int slot = soonest.headSlot();
+				if (slot >= 0 && soonest.expiries[slot] == soonestExpiry) {
+					TokenInfo tokenInfo = toTokenInfo(soonest.his[slot], soonest.los[slot], soonest.expiries[slot],
+							soonest.users[slot]);
+					soonest.delete(slot);
+					soonest.dequeue();
+					this.size.decrement();
+					return tokenInfo;
+				}
+			}
+			finally {
+				soonest.lock.unlock();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return this.size.intValue();
+	}
+
+	@Override
+	public int evictExpired(Instant now, Consumer<TokenInfo> evicted) {
+		long nowMillis = now.toEpochMilli();
+		int count = 0;
+		for (Segment segment : this.segments) {
+			segment.lock.lock();
+			try {
+				count += segment.evictExpired(nowMillis,
+						(hi, lo, expiry, user) -> evicted.accept(toTokenInfo(hi, lo, expiry, user)));
+			}
+			finally {
+				segment.lock.unlock();
+			}
+		}
+		this.size.add(-count);
+		return count;
+	}
+
+	@Override
+	public void forEach(Consumer<TokenInfo> action) {
+		for (Segment segment : this.segments) {
+			segment.lock.lock();
+			try {
+				segment.forEach((hi, lo, expiry, user) -> action.accept(toTokenInfo(hi, lo, expiry, user)));
+			}
+			finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	private Segment segmentFor(long lo) {
+		return this.segments[(int) (lo ^ (lo >>> 32)) & this.mask];
+	}
+
+	private TokenInfo toTokenInfo(long hi, long lo, long expiry, int user) {
+		return toTokenInfo(encode(hi, lo), expiry, user);
+	}
+
+	private TokenInfo toTokenInfo(String token, long expiry, int user) {
+		return new TokenInfo(token, this.usernames.nameOf(user >>> 1), Instant.ofEpochMilli(expiry), (user & 1) != 0);
+	}
+
+	/**
+	 * Checks that a token is the canonical encoding of a 128-bit value: 22 base64url
+	 * characters whose final character carries no bits beyond the 128th.
+	 */
+	static boolean isCanonical(String token) {
+		if (token == null || token.length() != TokenGenerator.TOKEN_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < TokenGenerator.TOKEN_LENGTH; i++) {
+			if (sextet(token.charAt(i)) < 0) {
+				return false;
+			}
+		}
+		return (sextet(token.charAt(TokenGenerator.TOKEN_LENGTH - 1)) & 0xF) == 0;
+	}
+
+	/**
+	 * Encodes a 128-bit value as its canonical token, the inverse of
+	 * {@link #highBits(String)} and {@link #lowBits(String)}.
+	 */
+	static String encode(long hi, long lo) {
+		return ENCODER.encodeToString(ByteBuffer.allocate(16).putLong(hi).putLong(lo).array());
+	}
+
+	static long highBits(String token) {
+		long hi = 0;
+		for (int i = 0; i < 10; i++) {
+			hi = hi << 6 | sextet(token.charAt(i));
+		}
+		// 60 bits so far; the top four bits of the eleventh character complete the word
+		return hi << 4 | sextet(token.charAt(10)) >>> 2;
+	}
+
+	static long lowBits(String token) {
+		// The bottom two bits of the eleventh character start the low word
+		long lo = sextet(token.charAt(10)) & 0x3;
+		for (int i = 11; i < 21; i++) {
+			lo = lo << 6 | sextet(token.charAt(i));
+		}
+		return lo << 2 | sextet(token.charAt(21)) >>> 4;
+	}
+
+	private static int sextet(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return c - 'A';
+		}
+		if (c >= 'a' && c <= 'z') {
+			return c - 'a' + 26;
+		}
+		if (c >= '0' && c <= '9') {
+			return c - '0' + 52;
+		}
+		return switch (c) {
+			case '-' -> 62;
+			case '_' -> 63;
+			default -> -1;
+		};
+	}
+
+	private static long mix(long hi, long lo) {
+		long hash = hi * 0x9E3779B97F4A7C15L ^ lo;
+		return hash ^ (hash >>> 29);
+	}
+
+	/**
+	 * One independently locked open-addressed table. An expiry of {@code 0} marks an
+	 * empty slot. Alongside the table, a ring buffer records token keys in issue order so
+	 * that eviction can stop at the first unexpired token.
+	 */
+	private static final class Segment {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private long[] his = new long[INITIAL_CAPACITY];
+
+		private long[] los = new long[INITIAL_CAPACITY];
+
+		private long[] expiries = new long[INITIAL_CAPACITY];
+
+		/**
+		 * Username id shifted left by one, with the low bit set once the token is used.
+		 */
+		private int[] users = new int[INITIAL_CAPACITY];
+
+		private int count;
+
+		private long[] queue = new long[INITIAL_CAPACITY * 2];
+
+		private int queueHead;
+
+		private int queueSize;
+
+		int find(long hi, long lo) {
+			int tableMask = this.his.length - 1;
+			for (int slot = (int) mix(hi, lo) & tableMask;; slot = (slot + 1) & tableMask) {
+				if (this.expiries[slot] == 0) {
+					return -1;
+				}
+				if (this.his[slot] == hi && this.los[slot] == lo) {
+					return slot;
+				}
+			}
+		}
+
+		boolean put(long hi, long lo, long expiry, int user) {
+			int existing = find(hi, lo);
+			if (existing >= 0) {
+				this.expiries[existing] = expiry;
+				this.users[existing] = user;
+				return false;
+			}
+			if ((this.count + 1) * 4 > this.his.length * 3) {
+				resize();
+			}
+			insert(hi, lo, expiry, user);
+			this.count++;
+			enqueue(hi, lo);
+			return true;
+		}
+
+		private void insert(long hi, long lo, long expiry, int user) {
+			int tableMask = this.his.length - 1;
+			int slot = (int) mix(hi, lo) & tableMask;
+			while (this.expiries[slot] != 0) {
+				slot = (slot + 1) & tableMask;
+			}
+			this.his[slot] = hi;
+			this.los[slot] = lo;
+			this.expiries[slot] = expiry;
+			this.users[slot] = user;
+		}
+
+		/**
+		 * Removes the entry in the given slot using backward-shift deletion, which keeps
+		 * every probe sequence intact without tombstones.
+		 */
+		void delete(int slot) {
+			int tableMask = this.his.length - 1;
+			int hole = slot;
+			for (int next = (hole + 1) & tableMask; this.expiries[next] != 0; next = (next + 1) & tableMask) {
+				int home = (int) mix(this.his[next], this.los[next]) & tableMask;
+				// Move the entry back if the hole lies on its probe path from home to
+				// next
+				if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+					this.his[hole] = this.his[next];
+					this.los[hole] = this.los[next];
+					this.expiries[hole] = this.expiries[next];
+					this.users[hole] = this.users[next];
+					hole = next;
+				}
+			}
+			this.expiries[hole] = 0;
+			this.count--;
+		}
+
+		int evictExpired(long nowMillis, EntryConsumer evicted) {
+			int count = 0;
+			int slot;
+			while ((slot = headSlot()) >= 0 && this.expiries[slot] < nowMillis) {
+				evicted.accept(this.his[slot], this.los[slot], this.expiries[slot], this.users[slot]);
+				delete(slot);
+				dequeue();
+				count++;
+			}
+			return count;
+		}
+
+		/**
+		 * Returns the slot of the soonest-expiring token, discarding queue entries for
+		 * tokens that were already removed.
+		 */
+		int headSlot() {
+			while (this.queueSize > 0) {
+				int index = this.queueHead * 2;
+				int slot = find(this.queue[index], this.queue[index + 1]);
+				if (slot >= 0) {
+					return slot;
+				}
+				dequeue();
+			}
+			return -1;
+		}
+
+		void dequeue() {
+			this.queueHead = (this.queueHead + 1) % (this.queue.length / 2);
+			this.queueSize--;
+		}
+
+		void forEach(EntryConsumer action) {
+			for (int slot = 0; slot < this.his.length; slot++) {
+				if (this.expiries[slot] != 0) {
+					action.accept(this.his[slot], this.los[slot], this.expiries[slot], this.users[slot]);
+				}
+			}
+		}
+
+		private void resize() {
+			long[] oldHis = this.his;
+			long[] oldLos = this.los;
+			long[] oldExpiries = this.expiries;
+			int[] oldUsers = this.users;
+			int capacity = oldHis.length * 2;
+			this.his = new long[capacity];
+			this.los = new long[capacity];
+			this.expiries = new long[capacity];
+			this.users = new int[capacity];
+			for (int i = 0; i < oldHis.length; i++) {
+				if (oldExpiries[i] != 0) {
+					insert(oldHis[i], oldLos[i], oldExpiries[i], oldUsers[i]);
+				}
+			}
+		}
+
+		private void enqueue(long hi, long lo) {
+			int entries = this.queue.length / 2;
+			if (this.queueSize == entries) {
+				long[] grown = new long[this.queue.length * 2];
+				for (int i = 0; i < this.queueSize; i++) {
+					int from = ((this.queueHead + i) % entries) * 2;
+					grown[i * 2] = this.queue[from];
+					grown[i * 2 + 1] = this.queue[from + 1];
+				}
+				this.queue = grown;
+				this.queueHead = 0;
+				entries = grown.length / 2;
+			}
+			int index = ((this.queueHead + this.queueSize) % entries) * 2;
+			this.queue[index] = hi;
+			this.queue[index + 1] = lo;
+			this.queueSize++;
+		}
+
+	}
+
+	/**
+	 * Receives the primitive fields of a table entry.
+	 */
+	@FunctionalInterface
+	private interface EntryConsumer {
+
+		void accept(long hi, long lo, long expiry, int user);
+
+	}
+
+	/**
+	 * Interns usernames as dense {@code int} ids so that each token stores four bytes
+	 * instead of a reference to its own username string.
+	 */
+	private static final class Usernames {
+
+		private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+		private volatile String[] names = new String[16];
+
+		int idFor(String username) {
+			Integer id = this.ids.get(username);
+			return (id != null) ? id : register(username);
+		}
+
+		private synchronized int register(String username) {
+			Integer id = this.ids.get(username);
+			if (id != null) {
+				return id;
+			}
+			int next = this.ids.size();
+			String[] current = this.names;
+			if (next == current.length) {
+				current = Arrays.copyOf(current, current.length * 2);
+			}
+			current[next] = username;
+			this.names = current;
+			this.ids.put(username, next);
+			return next;
+		}
+
+		String nameOf(int id) {
+			return this.names[id];
+		}
+
+	}
+
+}
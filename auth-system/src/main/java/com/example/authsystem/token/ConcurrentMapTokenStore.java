@@ -0,0 +1,83 @@
+package com.example.authsystem.token;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * {@link TokenStore} backed by a single {@link ConcurrentHashMap}.
+ */
+public class ConcurrentMapTokenStore implements TokenStore {
+
+	private final ConcurrentHashMap<String, TokenInfo> tokens = new ConcurrentHashMap<>();
+
+	/**
+	 * Tokens in issue order. Every token lives for the same configured expiry, so issue
+	 * order is also expiry order and the head of the queue is always the next token to
+	 * expire.
+	 */
+	private final ConcurrentLinkedQueue<TokenInfo> expiryQueue = new ConcurrentLinkedQueue<>();
+
+	@Override
+	public void put(TokenInfo tokenInfo) {
+		this.tokens.put(tokenInfo.token(), tokenInfo);
+		this.expiryQueue.offer(tokenInfo);
+	}
+
+	@Override
+	public TokenInfo consume(String token) {
+		TokenInfo tokenInfo = this.tokens.get(token);
+		// The replace only succeeds if the token is still in the unused state read above,
+		// so exactly one concurrent caller can win
+		while (tokenInfo != null && !tokenInfo.used()
+				&& !this.tokens.replace(token, tokenInfo, tokenInfo.markAsUsed())) {
+			tokenInfo = this.tokens.get(token);
+		}
+		return tokenInfo;
+	}
+
+	@Override
+	public TokenInfo remove(String token) {
+		return this.tokens.remove(token);
+	}
+
+	@Override
+	public TokenInfo evictSoonestExpiring() {
+		TokenInfo head;
+		while ((head = this.expiryQueue.poll()) != null) {
+			TokenInfo removed = this.tokens.remove(head.token());
+			if (removed != null) {
+				return removed;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return this.tokens.size();
+	}
+
+	@Override
+	public int evictExpired(Instant now, Consumer<TokenInfo> evicted) {
+		int count = 0;
+		TokenInfo head;
+		while ((head = this.expiryQueue.peek()) != null && head.isExpired(now)) {
+			if (this.expiryQueue.remove(head)) {
+				TokenInfo removed = this.tokens.remove(head.token());
+				if (removed != null) {
+					evicted.accept(removed);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void forEach(Consumer<TokenInfo> action) {
+		this.tokens.values().forEach(action);
+	}
+
+}
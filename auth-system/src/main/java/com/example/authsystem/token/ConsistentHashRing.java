@@ -0,0 +1,82 @@
+package com.example.authsystem.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent hash ring mapping keys to nodes.
+ * <p>
+ * Each node is placed on the ring at several pseudo-random points (virtual nodes) so that
+ * keys spread evenly and adding or removing a node only moves the keys adjacent to its
+ * points. A key belongs to the node owning the first point at or after the key's hash.
+ */
+final class ConsistentHashRing {
+
+	private final long[] points;
+
+	private final String[] nodes;
+
+	ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+		if (nodes.isEmpty()) {
+			throw new IllegalArgumentException("At least one node is required");
+		}
+		record Point(long hash, String node) {
+		}
+		List<Point> points = new ArrayList<>(nodes.size() * virtualNodes);
+		for (String node : nodes) {
+			for (int i = 0; i < virtualNodes; i++) {
+				points.add(new Point(hash(node + "#" + i), node));
+			}
+		}
+		points.sort(Comparator.comparingLong(Point::hash));
+		this.points = new long[points.size()];
+		this.nodes = new String[points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			this.points[i] = points.get(i).hash();
+			this.nodes[i] = points.get(i).node();
+		}
+	}
+
+	/**
+	 * Returns the node owning a key.
+	 * @param key the key
+	 * @return the owning node
+	 */
+	String ownerOf(String key) {
+		long hash = hash(key);
+		int low = 0;
+		int high = this.points.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.points[mid] < hash) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return this.nodes[(low < this.points.length) ? low : 0];
+	}
+
+	/**
+	 * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that
+	 * similar keys such as virtual node names land far apart.
+	 */
+	static long hash(String key) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.example.authsystem.token;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link TokenStore} decorator that records every change in a {@link TokenJournal} and
+ * restores the tokens recovered by the journal when it is created.
+ * <p>
+ * Issues are journaled before the token is stored, so any consume or remove that finds
+ * the token is recorded after its issue. Consumes and removes are journaled only once
+ * they have taken effect, so that lookups of unknown, expired or used tokens do not grow
+ * the journal. They are recorded before the caller learns the outcome, so a crash in
+ * between only brings back a token that was never accepted. Tokens the delegate cannot
+ * hold, such as UUID tokens journaled before switching to a {@link CompactTokenStore},
+ * are skipped when the journal is replayed.
+ */
+public class JournalingTokenStore implements TokenStore {
+
+	private static final Log logger = LogFactory.getLog(JournalingTokenStore.class);
+
+	private final TokenStore delegate;
+
+	private final TokenJournal journal;
+
+	/**
+	 * Creates a new store, loading the tokens recovered by the journal into the delegate.
+	 * @param delegate the store holding the tokens
+	 * @param journal the journal to record changes in
+	 */
+	public JournalingTokenStore(TokenStore delegate, TokenJournal journal) {
+		this.delegate = delegate;
+		this.journal = journal;
+		int skipped = 0;
+		for (TokenInfo tokenInfo : journal.recover()) {
+			try {
+				delegate.put(tokenInfo);
+			}
+			catch (IllegalArgumentException ex) {
+				skipped++;
+			}
+		}
+		if (skipped > 0) {
+			logger.warn("Skipped " + skipped + " journaled token(s) the token store cannot hold");
+		}
+	}
+
+	@Override
+	public void put(TokenInfo tokenInfo) {
+		// Journal first so that a consume can never be recorded before its issue
+		this.journal.issued(tokenInfo);
+		this.delegate.put(tokenInfo);
+	}
+
+	@Override
+	public TokenInfo consume(String token) {
+		TokenInfo tokenInfo = this.delegate.consume(token);
+		if (tokenInfo != null && !tokenInfo.used()) {
+			this.journal.consumed(token);
+		}
+		return tokenInfo;
+	}
+
+	@Override
+	public TokenInfo remove(String token) {
+		TokenInfo tokenInfo = this.delegate.remove(token);
+		if (tokenInfo != null) {
+			this.journal.removed(token);
+		}
+		return tokenInfo;
+	}
+
+	@Override
+	public TokenInfo evictSoonestExpiring() {
+		// Which token goes is only known afterwards, and bringing back a token evicted
+		// for capacity after a crash does no harm
+		TokenInfo tokenInfo = this.delegate.evictSoonestExpiring();
+		if (tokenInfo != null) {
+			this.journal.removed(tokenInfo.token());
+		}
+		return tokenInfo;
+	}
+
+	@Override
+	public int size() {
+		return this.delegate.size();
+	}
+
+	@Override
+	public int evictExpired(Instant now, Consumer<TokenInfo> evicted) {
+		// Expired tokens are dropped from the journal when it is compacted
+		return this.delegate.evictExpired(now, evicted);
+	}
+
+	@Override
+	public void forEach(Consumer<TokenInfo> action) {
+		this.delegate.forEach(action);
+	}
+
+}
@@ -0,0 +1,10 @@
+package com.example.authsystem.token;
+
+/**
+ * Response record for token revocation API.
+ *
+ * @param username the username whose tokens were revoked
+ * @param revoked the number of outstanding tokens that were revoked
+ */
+public record RevokeResponse(String username, int revoked) {
+}
@@ -0,0 +1,107 @@
+package com.example.authsystem.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.SignedTokens;
+import com.example.authsystem.auth.UserInfo;
+
+/**
+ * Encodes self-contained signed tokens that relying applications can verify without
+ * calling the validation API.
+ * <p>
+ * A signed token has the form {@code id.claims.signature}. The {@code id} is the opaque
+ * token held in the token store, so the validation API, revocation and the cluster
+ * routing all keep working on signed tokens. {@code claims} is the base64url JSON of
+ * {@link Claims} and {@code signature} the base64url HMAC-SHA256 of {@code id.claims}
+ * under the shared signing key.
+ */
+@Component
+public class SignedTokenCodec {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private final ObjectMapper objectMapper;
+
+	private final SecretKeySpec key;
+
+	public SignedTokenCodec(AuthSystemProperties properties, ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+		SignedTokens signedTokens = properties.signedTokens();
+		if (signedTokens.enabled()) {
+			if (signedTokens.signingKey() == null || signedTokens.signingKey().length() < 32) {
+				throw new IllegalStateException(
+						"auth.system.signed-tokens.signing-key must be at least 32 characters when signed tokens are enabled");
+			}
+			this.key = new SecretKeySpec(signedTokens.signingKey().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		}
+		else {
+			this.key = null;
+		}
+	}
+
+	/**
+	 * Returns whether issued tokens are signed.
+	 * @return true if signed tokens are enabled
+	 */
+	public boolean isEnabled() {
+		return this.key != null;
+	}
+
+	/**
+	 * Encodes a signed token.
+	 * @param id the opaque token held in the token store
+	 * @param userInfo the user the token was issued to
+	 * @param expiry the expiration time of the token
+	 * @return the signed token
+	 */
+	public String encode(String id, UserInfo userInfo, Instant expiry) {
+		try {
+			Claims claims = new Claims(userInfo.username(), userInfo.displayName(), userInfo.roles(),
+					expiry.getEpochSecond());
+			String signed = id + "." + ENCODER.encodeToString(this.objectMapper.writeValueAsBytes(claims));
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(this.key);
+			return signed + "." + ENCODER.encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+		}
+		catch (JsonProcessingException | GeneralSecurityException ex) {
+			throw new IllegalStateException("Failed to sign token", ex);
+		}
+	}
+
+	/**
+	 * Returns the opaque token id of a token, which is the token itself for unsigned
+	 * tokens.
+	 * @param token a signed or unsigned token
+	 * @return the token id
+	 */
+	public static String tokenId(String token) {
+		int separator = token.indexOf('.');
+		return (separator < 0) ? token : token.substring(0, separator);
+	}
+
+	/**
+	 * Claims embedded in a signed token.
+	 *
+	 * @param sub the username
+	 * @param name the display name
+	 * @param roles the roles of the user
+	 * @param exp the expiration time in epoch seconds
+	 */
+	public record Claims(String sub, String name, List<String> roles, long exp) {
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.example.authsystem.token;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link TokenStore} that shards tokens over a fixed number of independently locked
+ * stripes.
+ * <p>
+ * Each stripe holds a plain {@link HashMap} and an issue-ordered queue guarded by its own
+ * lock, so concurrent issue and validate calls only contend when their tokens hash to the
+ * same stripe. Every token lives for the same configured expiry, so each stripe's queue
+ * is also in expiry order and eviction only visits expired entries.
+ */
+public class StripedTokenStore implements TokenStore {
+
+	private final Stripe[] stripes;
+
+	private final int mask;
+
+	private final LongAdder size = new LongAdder();
+
+	/**
+	 * Creates a new store.
+	 * @param stripes the requested number of stripes, rounded up to a power of two
+	 */
+	public StripedTokenStore(int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("stripes must be positive: " + stripes);
+		}
+		int count = Integer.highestOneBit(stripes);
+		if (count < stripes) {
+			count <<= 1;
+		}
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			this.stripes[i] = new Stripe();
+		}
+		this.mask = count - 1;
+	}
+
+	private Stripe stripeFor(String token) {
+		int hash = token.hashCode();
+		return this.stripes[(hash ^ (hash >>> 16)) & this.mask];
+	}
+
+	@Override
+	public void put(TokenInfo tokenInfo) {
+		Stripe stripe = stripeFor(tokenInfo.token());
+		stripe.lock.lock();
+		try {
+			if (stripe.tokens.put(tokenInfo.token(), tokenInfo) == null) {
+				this.size.increment();
+			}
+			stripe.expiryQueue.addLast(tokenInfo);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo consume(String token) {
+		Stripe stripe = stripeFor(token);
+		stripe.lock.lock();
+		try {
+			TokenInfo tokenInfo = stripe.tokens.get(token);
+			if (tokenInfo != null && !tokenInfo.used()) {
+				stripe.tokens.put(token, tokenInfo.markAsUsed());
+			}
+			return tokenInfo;
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo remove(String token) {
+		Stripe stripe = stripeFor(token);
+		stripe.lock.lock();
+		try {
+			TokenInfo removed = stripe.tokens.remove(token);
+			if (removed != null) {
+				this.size.decrement();
+			}
+			return removed;
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public TokenInfo evictSoonestExpiring() {
+		// Each stripe's queue head is its soonest-expiring token, so only the heads need
+		// comparing. Another thread may get there first, in which case look again.
+		while (this.size.sum() > 0) {
+			Stripe soonest = null;
+			Instant soonestExpiry = null;
+			for (Stripe stripe : this.stripes) {
+				stripe.lock.lock();
+				try {
+					TokenInfo head = stripe.head();
+					if (head != null && (soonestExpiry == null || head.expiry().isBefore(soonestExpiry))) {
+						soonest = stripe;
+						soonestExpiry = head.expiry();
+					}
+				}
+				finally {
+					stripe.lock.unlock();
+				}
+			}
+			if (soonest == null) {
+				return null;
+			}
+			soonest.lock.lock();
+			try {
+				TokenInfo head = soonest.head();
+				if (head != null && head.expiry().equals(soonestExpiry)) {
+					soonest.expiryQueue.pollFirst();
+					this.size.decrement();
+					return soonest.tokens.remove(head.token());
+				}
+			}
+			finally {
+				soonest.lock.unlock();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return this.size.intValue();
+	}
+
+	@Override
+	public int evictExpired(Instant now, Consumer<TokenInfo> evicted) {
+		int count = 0;
+		for (Stripe stripe : this.stripes) {
+			stripe.lock.lock();
+			try {
+				TokenInfo head;
+				while ((head = stripe.expiryQueue.peekFirst()) != null && head.isExpired(now)) {
+					stripe.expiryQueue.pollFirst();
+					TokenInfo removed = stripe.tokens.remove(head.token());
+					if (removed != null) {
+						this.size.decrement();
+						evicted.accept(removed);
+						count++;
+					}
+				}
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void forEach(Consumer<TokenInfo> action) {
+		for (Stripe stripe : this.stripes) {
+			stripe.lock.lock();
+			try {
+				stripe.tokens.values().forEach(action);
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	private static final class Stripe {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private final HashMap<String, TokenInfo> tokens = new HashMap<>();
+
+		private final ArrayDeque<TokenInfo> expiryQueue = new ArrayDeque<>();
+
+		/**
+		 * Returns the soonest-expiring held token, discarding queue entries for tokens
+		 * that were already removed. Must be called with the lock held.
+		 */
+		TokenInfo head() {
+			TokenInfo head;
+			while ((head = this.expiryQueue.peekFirst()) != null && !this.tokens.containsKey(head.token())) {
+				this.expiryQueue.pollFirst();
+			}
+			return head;
+		}
+
+	}
+
+}
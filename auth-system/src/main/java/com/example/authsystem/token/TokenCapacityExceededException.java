@@ -0,0 +1,17 @@
+package com.example.authsystem.token;
+
+/**
+ * Thrown when a token cannot be issued because the token store is at capacity.
+ */
+public class TokenCapacityExceededException extends RuntimeException {
+
+	/**
+	 * Failure reason reported to clients.
+	 */
+	public static final String REASON = "TOKEN_CAPACITY_EXCEEDED";
+
+	public TokenCapacityExceededException(int capacity) {
+		super("Token store is at its capacity of " + capacity + " tokens");
+	}
+
+}
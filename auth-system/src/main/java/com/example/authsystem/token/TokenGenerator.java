@@ -0,0 +1,49 @@
+package com.example.authsystem.token;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates random 128-bit tokens encoded as 22-character unpadded base64url strings.
+ * <p>
+ * Each thread draws from its own {@code DRBG} {@link SecureRandom}, seeded once from the
+ * platform entropy source. Unlike the default {@code NativePRNG} on Linux, whose
+ * instances all share one global lock and mixing state, a DRBG keeps its state in the
+ * instance, so concurrent logins do not contend on a shared generator the way
+ * {@link java.util.UUID#randomUUID()} does.
+ */
+@Component
+public class TokenGenerator {
+
+	/**
+	 * Length of a generated token.
+	 */
+	public static final int TOKEN_LENGTH = 22;
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(TokenGenerator::newRandom);
+
+	/**
+	 * Generates a new token.
+	 * @return the token string
+	 */
+	public String generate() {
+		byte[] bytes = new byte[16];
+		RANDOM.get().nextBytes(bytes);
+		return ENCODER.encodeToString(bytes);
+	}
+
+	private static SecureRandom newRandom() {
+		try {
+			return SecureRandom.getInstance("DRBG");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("DRBG is not available", ex);
+		}
+	}
+
+}
@@ -5,7 +5,7 @@ import java.time.Instant;
 /**
  * Immutable record representing token information.
  *
- * @param token the token string (UUID format)
+ * @param token the token string (22-character base64url)
  * @param username the username associated with this token
  * @param expiry the expiration time of this token
  * @param used whether this token has been used
@@ -0,0 +1,388 @@
+package com.example.authsystem.token;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Append-only, memory-mapped journal of token issue, consume and remove events.
+ * <p>
+ * Events are written straight into a mapped file, so they survive a process restart
+ * without a write system call per event. When the mapped file is full it is grown, so
+ * recording an event only ever holds the lock for the append. On open, and then
+ * periodically through {@link #compact()}, the journal is replayed and rewritten into a
+ * second file with one record per live token, dropping expired, removed and superseded
+ * entries. Events recorded while that file is written are copied over before it replaces
+ * the journal.
+ * <p>
+ * Each record starts with a type byte that is written last, so a record torn by a crash
+ * reads as the end of the journal. The file layout is a 4-byte magic number followed by
+ * records:
+ * <ul>
+ * <li>issue: type, used flag, token length (1 byte), token, username length (2 bytes),
+ * username, expiry epoch millis (8 bytes)</li>
+ * <li>consume and remove: type, token length (1 byte), token</li>
+ * </ul>
+ */
+public class TokenJournal implements Closeable {
+
+	private static final int MAGIC = 0x544B4A31;
+
+	private static final byte END = 0;
+
+	private static final byte ISSUE = 1;
+
+	private static final byte CONSUME = 2;
+
+	private static final byte REMOVE = 3;
+
+	private static final Log logger = LogFactory.getLog(TokenJournal.class);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final ReentrantLock compactionLock = new ReentrantLock();
+
+	private final Path path;
+
+	private final long initialSize;
+
+	private final InstantSource instantSource;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer buffer;
+
+	private int position;
+
+	private boolean closed;
+
+	private List<TokenInfo> recovered;
+
+	/**
+	 * Opens the journal at the given path, creating it if needed, and compacts any events
+	 * left by a previous run.
+	 * @param path the journal file
+	 * @param initialSize the initial size of the mapped file in bytes
+	 * @param instantSource the source used to drop expired tokens
+	 * @throws IOException if the journal cannot be read or written
+	 */
+	public TokenJournal(Path path, long initialSize, InstantSource instantSource) throws IOException {
+		this.path = path.toAbsolutePath();
+		this.initialSize = Math.min(Math.max(initialSize, 4096), Integer.MAX_VALUE);
+		this.instantSource = instantSource;
+		Files.createDirectories(this.path.getParent());
+		List<TokenInfo> live = List.of();
+		if (Files.exists(this.path) && Files.size(this.path) > 0) {
+			try (FileChannel existing = FileChannel.open(this.path, StandardOpenOption.READ)) {
+				MappedByteBuffer mapped = existing.map(FileChannel.MapMode.READ_ONLY, 0, existing.size());
+				if (mapped.getInt(0) != MAGIC) {
+					throw new IllegalStateException("Not a token journal: " + this.path);
+				}
+				live = readLive(mapped, mapped.capacity());
+			}
+		}
+		FileChannel target = openTemporary();
+		MappedByteBuffer mapped = map(target, Math.max(this.initialSize, 2 * encodedLength(live)));
+		this.position = writeLive(mapped, live);
+		mapped.force();
+		install(target, mapped);
+		this.recovered = live;
+	}
+
+	/**
+	 * Returns the live tokens recovered when the journal was opened, in issue order. The
+	 * recovered tokens are only returned once.
+	 * @return the recovered tokens
+	 */
+	public List<TokenInfo> recover() {
+		this.lock.lock();
+		try {
+			List<TokenInfo> tokens = this.recovered;
+			this.recovered = List.of();
+			return tokens;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Records that a token was issued.
+	 * @param tokenInfo the issued token
+	 */
+	public void issued(TokenInfo tokenInfo) {
+		byte[] token = encodeToken(tokenInfo.token());
+		byte[] username = tokenInfo.username().getBytes(StandardCharsets.UTF_8);
+		this.lock.lock();
+		try {
+			int start = reserve(2 + 1 + token.length + 2 + username.length + 8);
+			writeIssue(this.buffer, start, token, username, tokenInfo.expiry().toEpochMilli(), tokenInfo.used());
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Records that a token was consumed.
+	 * @param token the consumed token
+	 */
+	public void consumed(String token) {
+		append(CONSUME, encodeToken(token));
+	}
+
+	/**
+	 * Records that a token was removed.
+	 * @param token the removed token
+	 */
+	public void removed(String token) {
+		append(REMOVE, encodeToken(token));
+	}
+
+	/**
+	 * Rewrites the journal with one record per live token. Events can be recorded
+	 * concurrently; they are only held up while the ones recorded during the rewrite are
+	 * copied to the new file.
+	 */
+	public void compact() {
+		this.compactionLock.lock();
+		try {
+			MappedByteBuffer source;
+			int limit;
+			this.lock.lock();
+			try {
+				if (this.closed) {
+					return;
+				}
+				source = this.buffer;
+				limit = this.position;
+			}
+			finally {
+				this.lock.unlock();
+			}
+			List<TokenInfo> live = readLive(source, limit);
+			FileChannel target = openTemporary();
+			try {
+				MappedByteBuffer mapped = map(target, Math.max(this.initialSize, 2 * encodedLength(live)));
+				int offset = writeLive(mapped, live);
+				mapped.force();
+				swap(target, mapped, offset, limit);
+			}
+			catch (IOException | RuntimeException ex) {
+				if (this.channel != target) {
+					target.close();
+					Files.deleteIfExists(temporaryPath());
+				}
+				throw ex;
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to compact token journal " + this.path, ex);
+		}
+		finally {
+			this.compactionLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.compactionLock.lock();
+		this.lock.lock();
+		try {
+			if (!this.closed) {
+				this.closed = true;
+				this.buffer.force();
+				this.channel.close();
+			}
+		}
+		finally {
+			this.lock.unlock();
+			this.compactionLock.unlock();
+		}
+	}
+
+	private void append(byte type, byte[] token) {
+		this.lock.lock();
+		try {
+			int start = reserve(1 + 1 + token.length);
+			this.buffer.put(start + 1, (byte) token.length);
+			this.buffer.put(start + 2, token);
+			this.buffer.put(start, type);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Reserves space for a record, growing the journal if the mapped file is full. Always
+	 * leaves room for a trailing end marker. Must be called with the lock held.
+	 */
+	private int reserve(int length) {
+		if (this.closed) {
+			throw new IllegalStateException("Token journal " + this.path + " is closed");
+		}
+		if (this.position + length >= this.buffer.capacity()) {
+			try {
+				// The previous mapping is left for the garbage collector: a compaction
+				// may
+				// still be reading it, and touching an unmapped buffer crashes the JVM
+				this.buffer = map(this.channel, 2L * (this.position + length));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to extend token journal " + this.path, ex);
+			}
+		}
+		int start = this.position;
+		this.position += length;
+		return start;
+	}
+
+	/**
+	 * Copies the events recorded since {@code limit} after the compacted records and
+	 * moves the compacted file over the journal.
+	 */
+	private void swap(FileChannel target, MappedByteBuffer mapped, int offset, int limit) throws IOException {
+		this.lock.lock();
+		try {
+			int tail = this.position - limit;
+			if (offset + tail >= mapped.capacity()) {
+				mapped = map(target, 2L * (offset + tail));
+			}
+			mapped.put(offset, this.buffer, limit, tail);
+			mapped.force();
+			FileChannel previousChannel = this.channel;
+			install(target, mapped);
+			this.position = offset + tail;
+			previousChannel.close();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private FileChannel openTemporary() throws IOException {
+		return FileChannel.open(temporaryPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	private void install(FileChannel target, MappedByteBuffer mapped) throws IOException {
+		Files.move(temporaryPath(), this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.channel = target;
+		this.buffer = mapped;
+	}
+
+	private Path temporaryPath() {
+		return this.path.resolveSibling(this.path.getFileName() + ".tmp");
+	}
+
+	private MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Token journal " + this.path + " cannot grow beyond 2 GB");
+		}
+		return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	private static long encodedLength(List<TokenInfo> live) {
+		long length = 4;
+		for (TokenInfo tokenInfo : live) {
+			length += 2 + 1 + encodeToken(tokenInfo.token()).length + 2
+					+ tokenInfo.username().getBytes(StandardCharsets.UTF_8).length + 8;
+		}
+		return length;
+	}
+
+	private static int writeLive(MappedByteBuffer buffer, List<TokenInfo> live) {
+		buffer.putInt(0, MAGIC);
+		int offset = 4;
+		for (TokenInfo tokenInfo : live) {
+			offset = writeIssue(buffer, offset, encodeToken(tokenInfo.token()),
+					tokenInfo.username().getBytes(StandardCharsets.UTF_8), tokenInfo.expiry().toEpochMilli(),
+					tokenInfo.used());
+		}
+		return offset;
+	}
+
+	private static int writeIssue(MappedByteBuffer buffer, int start, byte[] token, byte[] username, long expiry,
+			boolean used) {
+		int offset = start + 1;
+		buffer.put(offset++, (byte) (used ? 1 : 0));
+		buffer.put(offset++, (byte) token.length);
+		buffer.put(offset, token);
+		offset += token.length;
+		buffer.putShort(offset, (short) username.length);
+		offset += 2;
+		buffer.put(offset, username);
+		offset += username.length;
+		buffer.putLong(offset, expiry);
+		offset += 8;
+		buffer.put(start, ISSUE);
+		return offset;
+	}
+
+	/**
+	 * Replays the records up to {@code limit} and returns the tokens that are neither
+	 * removed nor expired, in issue order.
+	 */
+	private List<TokenInfo> readLive(MappedByteBuffer buffer, int limit) {
+		LinkedHashMap<String, TokenInfo> tokens = new LinkedHashMap<>();
+		int offset = 4;
+		while (offset < limit) {
+			byte type = buffer.get(offset++);
+			if (type == END) {
+				break;
+			}
+			boolean used = type == ISSUE && buffer.get(offset++) != 0;
+			int tokenLength = buffer.get(offset++) & 0xFF;
+			String token = decode(buffer, offset, tokenLength);
+			offset += tokenLength;
+			switch (type) {
+				case ISSUE -> {
+					int usernameLength = buffer.getShort(offset) & 0xFFFF;
+					offset += 2;
+					String username = decode(buffer, offset, usernameLength);
+					offset += usernameLength;
+					Instant expiry = Instant.ofEpochMilli(buffer.getLong(offset));
+					offset += 8;
+					tokens.put(token, new TokenInfo(token, username, expiry, used));
+				}
+				case CONSUME -> tokens.computeIfPresent(token, (key, tokenInfo) -> tokenInfo.markAsUsed());
+				case REMOVE -> tokens.remove(token);
+				default -> throw new IllegalStateException("Corrupt token journal " + this.path + " at " + offset);
+			}
+		}
+		Instant now = this.instantSource.instant();
+		tokens.values().removeIf(tokenInfo -> tokenInfo.isExpired(now));
+		return new ArrayList<>(tokens.values());
+	}
+
+	private static String decode(MappedByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] encodeToken(String token) {
+		byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > 255) {
+			throw new IllegalArgumentException("Token too long to journal: " + bytes.length + " bytes");
+		}
+		return bytes;
+	}
+
+}
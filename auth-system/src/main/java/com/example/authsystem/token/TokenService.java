@@ -2,14 +2,18 @@ package com.example.authsystem.token;
 
 import java.time.Instant;
 import java.time.InstantSource;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.TokenStoreProperties;
 import com.example.authsystem.auth.UserInfo;
 import com.example.authsystem.auth.UserService;
-import com.example.authsystem.AuthSystemProperties;
 
 /**
  * Service for generating and validating authentication tokens.
@@ -17,7 +21,15 @@ import com.example.authsystem.AuthSystemProperties;
 @Service
 public class TokenService {
 
-	private final ConcurrentHashMap<String, TokenInfo> tokens = new ConcurrentHashMap<>();
+	private final TokenStore tokenStore;
+
+	private final TokenGenerator tokenGenerator;
+
+	private final ClusterTokenRouter clusterTokenRouter;
+
+	private final SignedTokenCodec signedTokenCodec;
+
+	private final UserTokenIndex userTokenIndex = new UserTokenIndex();
 
 	private final UserService userService;
 
@@ -25,32 +37,133 @@ public class TokenService {
 
 	private final InstantSource instantSource;
 
-	public TokenService(UserService userService, AuthSystemProperties properties, InstantSource instantSource) {
+	public TokenService(TokenStore tokenStore, TokenGenerator tokenGenerator, ClusterTokenRouter clusterTokenRouter,
+			SignedTokenCodec signedTokenCodec, UserService userService, AuthSystemProperties properties,
+			InstantSource instantSource) {
+		this.tokenStore = tokenStore;
+		this.tokenGenerator = tokenGenerator;
+		this.clusterTokenRouter = clusterTokenRouter;
+		this.signedTokenCodec = signedTokenCodec;
 		this.userService = userService;
 		this.properties = properties;
 		this.instantSource = instantSource;
+		// Index tokens the store already holds, such as those recovered from a journal
+		tokenStore.forEach(tokenInfo -> {
+			if (!tokenInfo.used()) {
+				this.userTokenIndex.add(tokenInfo.username(), tokenInfo.token());
+			}
+		});
 	}
 
 	/**
-	 * Generates a new token for the specified username.
+	 * Generates a new token for the specified username. If the user already holds the
+	 * maximum number of outstanding tokens, their oldest token is revoked. When signed
+	 * tokens are enabled, the returned token embeds the user's claims.
 	 * @param username the username to generate a token for
 	 * @return the generated token string
+	 * @throws TokenCapacityExceededException if the token store is full and the overload
+	 * policy is to reject new tokens
 	 */
 	public String generateToken(String username) {
-		String token = UUID.randomUUID().toString();
+		TokenStoreProperties limits = this.properties.tokenStore();
+		if (this.tokenStore.size() >= limits.capacity()) {
+			makeRoom(limits);
+		}
+
+		// Only issue tokens this node owns, so that no other node needs a copy
+		String token;
+		do {
+			token = this.tokenGenerator.generate();
+		}
+		while (!this.clusterTokenRouter.isLocal(token));
 		Instant expiry = this.instantSource.instant().plus(this.properties.tokenExpiry());
-		TokenInfo tokenInfo = new TokenInfo(token, username, expiry, false);
-		this.tokens.put(token, tokenInfo);
+		// Index before storing, so that a consume racing the issue always finds the token
+		// to remove from the index and never leaves a dead entry counting against the
+		// user
+		String dropped = this.userTokenIndex.add(username, token, limits.maxTokensPerUser());
+		try {
+			this.tokenStore.put(new TokenInfo(token, username, expiry, false));
+		}
+		catch (RuntimeException ex) {
+			this.userTokenIndex.remove(username, token);
+			throw ex;
+		}
+		if (dropped != null) {
+			this.tokenStore.remove(dropped);
+		}
+
+		if (this.signedTokenCodec.isEnabled()) {
+			UserInfo userInfo = this.userService.findByUsername(username)
+				.orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+			return this.signedTokenCodec.encode(token, userInfo, expiry);
+		}
 		return token;
 	}
 
+	private void makeRoom(TokenStoreProperties limits) {
+		switch (limits.overloadPolicy()) {
+			case REJECT -> throw new TokenCapacityExceededException(limits.capacity());
+			case EVICT_SOONEST_EXPIRING -> {
+				TokenInfo evicted = this.tokenStore.evictSoonestExpiring();
+				if (evicted != null) {
+					this.userTokenIndex.remove(evicted.username(), evicted.token());
+				}
+			}
+		}
+	}
+
 	/**
-	 * Validates a token and returns the result.
-	 * @param token the token to validate
+	 * Validates a token and returns the result. Tokens owned by another cluster node are
+	 * validated by that node.
+	 * @param token the token to validate, signed or not
 	 * @return the validation result
 	 */
 	public ValidateResult validate(String token) {
-		TokenInfo tokenInfo = this.tokens.get(token);
+		if (!this.clusterTokenRouter.isLocal(SignedTokenCodec.tokenId(token))) {
+			return this.clusterTokenRouter.forwardValidate(token);
+		}
+		return validateLocally(token);
+	}
+
+	/**
+	 * Validates several tokens at once. Tokens owned by other cluster nodes are validated
+	 * with one forwarded request per owning node.
+	 * @param tokens the tokens to validate, signed or not
+	 * @return the validation results, in the order of the tokens
+	 */
+	public List<ValidateResult> validateAll(List<String> tokens) {
+		ValidateResult[] results = new ValidateResult[tokens.size()];
+		Map<String, List<Integer>> remote = new HashMap<>();
+		for (int i = 0; i < tokens.size(); i++) {
+			String id = SignedTokenCodec.tokenId(tokens.get(i));
+			if (this.clusterTokenRouter.isLocal(id)) {
+				results[i] = validateLocally(tokens.get(i));
+			}
+			else {
+				remote.computeIfAbsent(this.clusterTokenRouter.ownerOf(id), owner -> new ArrayList<>()).add(i);
+			}
+		}
+		remote.forEach((owner, indexes) -> {
+			List<ValidateResult> forwarded = this.clusterTokenRouter.forwardValidateAll(owner,
+					indexes.stream().map(tokens::get).toList());
+			for (int i = 0; i < indexes.size(); i++) {
+				results[indexes.get(i)] = forwarded.get(i);
+			}
+		});
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Validates a token against this node's token store only. The claims of a signed
+	 * token are ignored; the user information is read from the user directory.
+	 * @param token the token to validate, signed or not
+	 * @return the validation result
+	 */
+	public ValidateResult validateLocally(String token) {
+		String id = SignedTokenCodec.tokenId(token);
+
+		// Consume the token atomically so that exactly one concurrent validation can win
+		TokenInfo tokenInfo = this.tokenStore.consume(id);
 
 		if (tokenInfo == null) {
 			return new ValidateResult.Failure("TOKEN_NOT_FOUND");
@@ -64,8 +177,7 @@ public class TokenService {
 			return new ValidateResult.Failure("TOKEN_ALREADY_USED");
 		}
 
-		// Mark token as used
-		this.tokens.put(token, tokenInfo.markAsUsed());
+		this.userTokenIndex.remove(tokenInfo.username(), id);
 
 		// Get user information
 		UserInfo userInfo = this.userService.findByUsername(tokenInfo.username()).orElse(null);
@@ -77,6 +189,40 @@ public class TokenService {
 		return new ValidateResult.Success(userInfo);
 	}
 
+	/**
+	 * Revokes every outstanding token of a user. Only the user's own tokens are visited,
+	 * through the per-user index.
+	 * @param username the username whose tokens to revoke
+	 * @return the number of revoked tokens
+	 */
+	public int revokeTokens(String username) {
+		int revoked = 0;
+		for (String token : this.userTokenIndex.removeAll(username)) {
+			if (this.tokenStore.remove(token) != null) {
+				revoked++;
+			}
+		}
+		return revoked;
+	}
+
+	/**
+	 * Removes every token that has expired, whether or not it has been used.
+	 * @return the number of evicted tokens
+	 */
+	public int evictExpired() {
+		return this.tokenStore.evictExpired(this.instantSource.instant(),
+				tokenInfo -> this.userTokenIndex.remove(tokenInfo.username(), tokenInfo.token()));
+	}
+
+	/**
+	 * Returns the number of tokens currently held, including used ones that have not yet
+	 * expired.
+	 * @return the number of held tokens
+	 */
+	public int size() {
+		return this.tokenStore.size();
+	}
+
 	/**
 	 * Sealed interface representing the result of token validation.
 	 */
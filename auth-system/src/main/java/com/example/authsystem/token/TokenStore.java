@@ -0,0 +1,63 @@
+package com.example.authsystem.token;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Storage for issued tokens.
+ * <p>
+ * Implementations must be thread-safe. {@link #consume(String)} in particular must be
+ * atomic so that a token can be consumed at most once, however many callers race on it.
+ */
+public interface TokenStore {
+
+	/**
+	 * Stores a newly issued token.
+	 * @param tokenInfo the token to store
+	 */
+	void put(TokenInfo tokenInfo);
+
+	/**
+	 * Atomically marks a token as used.
+	 * @param token the token string
+	 * @return the token as it was before this call, or {@code null} if it is not held;
+	 * the caller consumed the token if and only if the returned token is not yet used
+	 */
+	TokenInfo consume(String token);
+
+	/**
+	 * Removes a token.
+	 * @param token the token string
+	 * @return the removed token, or {@code null} if it was not held
+	 */
+	TokenInfo remove(String token);
+
+	/**
+	 * Removes the token that expires soonest.
+	 * @return the removed token, or {@code null} if the store is empty
+	 */
+	TokenInfo evictSoonestExpiring();
+
+	/**
+	 * Returns the number of held tokens, including used ones that have not yet expired.
+	 * @return the number of held tokens
+	 */
+	int size();
+
+	/**
+	 * Removes every token that has expired at the given time, whether or not it has been
+	 * used.
+	 * @param now the current time
+	 * @param evicted called with each removed token
+	 * @return the number of removed tokens
+	 */
+	int evictExpired(Instant now, Consumer<TokenInfo> evicted);
+
+	/**
+	 * Performs the given action for every held token. The iteration is weakly consistent
+	 * with concurrent changes.
+	 * @param action the action to perform
+	 */
+	void forEach(Consumer<TokenInfo> action);
+
+}
@@ -0,0 +1,40 @@
+package com.example.authsystem.token;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.AuthSystemProperties;
+
+/**
+ * Exposes how full the token store is relative to its configured capacity.
+ */
+@Component
+public class TokenStoreMetrics implements MeterBinder {
+
+	private final TokenStore tokenStore;
+
+	private final AuthSystemProperties properties;
+
+	public TokenStoreMetrics(TokenStore tokenStore, AuthSystemProperties properties) {
+		this.tokenStore = tokenStore;
+		this.properties = properties;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("auth.tokens.held", this.tokenStore, TokenStore::size)
+			.description("Tokens held in the token store, used or not")
+			.register(registry);
+		Gauge.builder("auth.tokens.capacity", this.properties, properties -> properties.tokenStore().capacity())
+			.description("Maximum number of tokens the token store may hold")
+			.register(registry);
+		Gauge
+			.builder("auth.tokens.utilization", this.tokenStore,
+					tokenStore -> (double) tokenStore.size() / this.properties.tokenStore().capacity())
+			.description("Fraction of the token store capacity in use")
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.example.authsystem.token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from username to that user's outstanding (unused) tokens, kept in issue
+ * order.
+ * <p>
+ * Each user's tokens are only ever replaced inside {@link ConcurrentHashMap#compute},
+ * which serializes changes per username without a global lock. Users without outstanding
+ * tokens are dropped from the index.
+ * <p>
+ * Tokens in the canonical form produced by {@link TokenGenerator} are held as the two
+ * {@code long} halves of the value they encode, as in {@link CompactTokenStore}, for 16
+ * bytes per token instead of a string of about 64. Any other token, such as one recovered
+ * from a journal written before tokens were canonical, is held as a string and counts as
+ * older than every canonical token.
+ */
+public class UserTokenIndex {
+
+	private final ConcurrentHashMap<String, UserTokens> tokensByUsername = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds a newly issued token.
+	 * @param username the username the token was issued to
+	 * @param token the token string
+	 */
+	public void add(String username, String token) {
+		add(username, token, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Adds a newly issued token, dropping the user's oldest token if the user would
+	 * otherwise exceed the given number of outstanding tokens.
+	 * @param username the username the token was issued to
+	 * @param token the token string
+	 * @param maxTokens the maximum number of outstanding tokens for the user
+	 * @return the dropped token, or {@code null} if the user was within the limit
+	 */
+	public String add(String username, String token, int maxTokens) {
+		String[] dropped = new String[1];
+		this.tokensByUsername.compute(username, (key, tokens) -> {
+			UserTokens updated = ((tokens != null) ? tokens : UserTokens.EMPTY).with(token);
+			if (updated.size() > maxTokens) {
+				dropped[0] = updated.oldest();
+				updated = updated.without(dropped[0]);
+			}
+			return updated;
+		});
+		return dropped[0];
+	}
+
+	/**
+	 * Removes a token that was used, revoked or evicted.
+	 * @param username the username the token was issued to
+	 * @param token the token string
+	 */
+	public void remove(String username, String token) {
+		this.tokensByUsername.computeIfPresent(username, (key, tokens) -> {
+			UserTokens updated = tokens.without(token);
+			return (updated.size() > 0) ? updated : null;
+		});
+	}
+
+	/**
+	 * Removes and returns every outstanding token of a user.
+	 * @param username the username
+	 * @return the user's outstanding tokens in issue order
+	 */
+	public List<String> removeAll(String username) {
+		UserTokens tokens = this.tokensByUsername.remove(username);
+		return (tokens != null) ? tokens.toList() : List.of();
+	}
+
+	/**
+	 * One user's tokens, never modified once created.
+	 *
+	 * @param others tokens that are not canonical, oldest first
+	 * @param bits the high and low halves of each canonical token, oldest first
+	 */
+	private record UserTokens(String[] others, long[] bits) {
+
+		static final UserTokens EMPTY = new UserTokens(new String[0], new long[0]);
+
+		int size() {
+			return this.others.length + this.bits.length / 2;
+		}
+
+		String oldest() {
+			return (this.others.length > 0) ? this.others[0] : CompactTokenStore.encode(this.bits[0], this.bits[1]);
+		}
+
+		UserTokens with(String token) {
+			if (!CompactTokenStore.isCanonical(token)) {
+				String[] others = Arrays.copyOf(this.others, this.others.length + 1);
+				others[this.others.length] = token;
+				return new UserTokens(others, this.bits);
+			}
+			long[] bits = Arrays.copyOf(this.bits, this.bits.length + 2);
+			bits[this.bits.length] = CompactTokenStore.highBits(token);
+			bits[this.bits.length + 1] = CompactTokenStore.lowBits(token);
+			return new UserTokens(this.others, bits);
+		}
+
+		UserTokens without(String token) {
+			if (!CompactTokenStore.isCanonical(token)) {
+				int index = Arrays.asList(this.others).indexOf(token);
+				return (index >= 0) ? new UserTokens(removed(this.others, index), this.bits) : this;
+			}
+			long hi = CompactTokenStore.highBits(token);
+			long lo = CompactTokenStore.lowBits(token);
+			for (int i = 0; i < this.bits.length; i += 2) {
+				if (this.bits[i] == hi && this.bits[i + 1] == lo) {
+					long[] bits = new long[this.bits.length - 2];
+					System.arraycopy(this.bits, 0, bits, 0, i);
+					System.arraycopy(this.bits, i + 2, bits, i, bits.length - i);
+					return new UserTokens(this.others, bits);
+				}
+			}
+			return this;
+		}
+
+		List<String> toList() {
+			List<String> tokens = new ArrayList<>(size());
+			tokens.addAll(Arrays.asList(this.others));
+			for (int i = 0; i < this.bits.length; i += 2) {
+				tokens.add(CompactTokenStore.encode(this.bits[i], this.bits[i + 1]));
+			}
+			return tokens;
+		}
+
+		private static String[] removed(String[] array, int index) {
+			String[] result = new String[array.length - 1];
+			System.arraycopy(array, 0, result, 0, index);
+			System.arraycopy(array, index + 1, result, index, result.length - index);
+			return result;
+		}
+
+	}
+
+}
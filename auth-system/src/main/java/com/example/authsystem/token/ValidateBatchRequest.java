@@ -0,0 +1,11 @@
+package com.example.authsystem.token;
+
+import java.util.List;
+
+/**
+ * Request record for batch token validation API.
+ *
+ * @param tokens the tokens to validate
+ */
+public record ValidateBatchRequest(List<String> tokens) {
+}
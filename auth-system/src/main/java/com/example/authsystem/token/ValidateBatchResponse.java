@@ -0,0 +1,11 @@
+package com.example.authsystem.token;
+
+import java.util.List;
+
+/**
+ * Response record for batch token validation API.
+ *
+ * @param results the validation responses, in the order of the requested tokens
+ */
+public record ValidateBatchResponse(List<ValidateResponse> results) {
+}
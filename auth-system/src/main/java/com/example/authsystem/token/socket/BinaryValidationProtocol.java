@@ -0,0 +1,105 @@
+package com.example.authsystem.token.socket;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+/**
+ * Compact binary protocol for token validation over a persistent stream connection.
+ * <p>
+ * Strings are written as by {@link DataOutput#writeUTF(String)}: a two-byte length
+ * followed by modified UTF-8. A connection starts with a handshake: <pre>
+ * client: u8 version, str apiKey
+ * server: u8 status ({@link #HANDSHAKE_OK} or {@link #HANDSHAKE_REJECTED}, then close)
+ * </pre> after which the client sends any number of requests, each answered in order:
+ * <pre>
+ * client: u8 {@link #OP_VALIDATE}, str token
+ * server: u8 {@link #RESULT_VALID}, str username, str displayName, u8 roleCount, str role...
+ *      or u8 {@link #RESULT_INVALID}, str reason
+ * </pre>
+ */
+public final class BinaryValidationProtocol {
+
+	/**
+	 * The protocol version sent in the handshake.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Handshake status for an accepted API key.
+	 */
+	public static final int HANDSHAKE_OK = 0;
+
+	/**
+	 * Handshake status for an unsupported version or an invalid API key.
+	 */
+	public static final int HANDSHAKE_REJECTED = 1;
+
+	/**
+	 * Operation code of a validation request.
+	 */
+	public static final int OP_VALIDATE = 1;
+
+	/**
+	 * Result code of an invalid token.
+	 */
+	public static final int RESULT_INVALID = 0;
+
+	/**
+	 * Result code of a valid token.
+	 */
+	public static final int RESULT_VALID = 1;
+
+	private BinaryValidationProtocol() {
+	}
+
+	/**
+	 * Writes a validation result.
+	 * @param out the output to write to
+	 * @param result the validation result
+	 * @throws IOException if writing fails
+	 */
+	public static void writeResult(DataOutput out, ValidateResult result) throws IOException {
+		switch (result) {
+			case ValidateResult.Success(UserInfo userInfo) -> {
+				out.writeByte(RESULT_VALID);
+				out.writeUTF(userInfo.username());
+				out.writeUTF((userInfo.displayName() != null) ? userInfo.displayName() : "");
+				out.writeByte(userInfo.roles().size());
+				for (String role : userInfo.roles()) {
+					out.writeUTF(role);
+				}
+			}
+			case ValidateResult.Failure(String reason) -> {
+				out.writeByte(RESULT_INVALID);
+				out.writeUTF(reason);
+			}
+		}
+	}
+
+	/**
+	 * Reads a validation result.
+	 * @param in the input to read from
+	 * @return the validation result
+	 * @throws IOException if reading fails
+	 */
+	public static ValidateResult readResult(DataInput in) throws IOException {
+		if (in.readUnsignedByte() != RESULT_VALID) {
+			return new ValidateResult.Failure(in.readUTF());
+		}
+		String username = in.readUTF();
+		String displayName = in.readUTF();
+		int roleCount = in.readUnsignedByte();
+		List<String> roles = new ArrayList<>(roleCount);
+		for (int i = 0; i < roleCount; i++) {
+			roles.add(in.readUTF());
+		}
+		return new ValidateResult.Success(new UserInfo(username, null, displayName, List.copyOf(roles)));
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.example.authsystem.token.socket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.AuthSystemProperties.BinaryProtocol;
+import com.example.authsystem.client.ApiClient;
+import com.example.authsystem.client.ApiClientRegistry;
+import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+/**
+ * Serves the {@link BinaryValidationProtocol} for relying applications on the same host.
+ * <p>
+ * Listens on a Unix domain socket, on a loopback TCP port, or both. Every connection is
+ * served by its own virtual thread, so a blocked client never holds up another one.
+ */
+public class BinaryValidationServer implements SmartLifecycle {
+
+	/**
+	 * Failure reason returned when the client's request quota is exhausted.
+	 */
+	public static final String QUOTA_EXCEEDED_REASON = "CLIENT_QUOTA_EXCEEDED";
+
+	private static final ValidateResult QUOTA_EXCEEDED = new ValidateResult.Failure(QUOTA_EXCEEDED_REASON);
+
+	private static final Log logger = LogFactory.getLog(BinaryValidationServer.class);
+
+	private final TokenService tokenService;
+
+	private final ApiClientRegistry apiClientRegistry;
+
+	private final AuthSystemProperties properties;
+
+	private final List<ServerSocketChannel> listeners = new CopyOnWriteArrayList<>();
+
+	private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean running;
+
+	public BinaryValidationServer(TokenService tokenService, ApiClientRegistry apiClientRegistry,
+			AuthSystemProperties properties) {
+		BinaryProtocol binaryProtocol = properties.binaryProtocol();
+		if (binaryProtocol.socketPath() == null && binaryProtocol.port() == null) {
+			throw new IllegalStateException(
+					"auth.system.binary-protocol.socket-path or auth.system.binary-protocol.port is required when the binary protocol is enabled");
+		}
+		this.tokenService = tokenService;
+		this.apiClientRegistry = apiClientRegistry;
+		this.properties = properties;
+	}
+
+	@Override
+	public void start() {
+		BinaryProtocol binaryProtocol = this.properties.binaryProtocol();
+		try {
+			if (binaryProtocol.socketPath() != null) {
+				Path socketPath = binaryProtocol.socketPath();
+				// A socket file left behind by an unclean shutdown would fail the bind
+				Files.deleteIfExists(socketPath);
+				ServerSocketChannel listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+				listener.bind(UnixDomainSocketAddress.of(socketPath));
+				listen(listener, socketPath.toString());
+			}
+			if (binaryProtocol.port() != null) {
+				ServerSocketChannel listener = ServerSocketChannel.open();
+				listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), binaryProtocol.port()));
+				listen(listener, listener.getLocalAddress().toString());
+			}
+		}
+		catch (IOException ex) {
+			stop();
+			throw new IllegalStateException("Failed to start binary validation server", ex);
+		}
+		this.running = true;
+	}
+
+	private void listen(ServerSocketChannel listener, String address) {
+		this.listeners.add(listener);
+		Thread.ofVirtual().name("binary-validation-acceptor").start(() -> accept(listener));
+		logger.info("Binary validation protocol listening on " + address);
+	}
+
+	private void accept(ServerSocketChannel listener) {
+		while (listener.isOpen()) {
+			try {
+				SocketChannel connection = listener.accept();
+				this.connections.add(connection);
+				Thread.ofVirtual().name("binary-validation").start(() -> serve(connection));
+			}
+			catch (ClosedChannelException ex) {
+				return;
+			}
+			catch (IOException ex) {
+				logger.warn("Failed to accept binary validation connection", ex);
+			}
+		}
+	}
+
+	private void serve(SocketChannel connection) {
+		try (connection) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+			ApiClient client = handshake(in, out);
+			if (client == null) {
+				return;
+			}
+			while (true) {
+				int operation;
+				try {
+					operation = in.readUnsignedByte();
+				}
+				catch (EOFException ex) {
+					return;
+				}
+				if (operation != BinaryValidationProtocol.OP_VALIDATE) {
+					logger.warn("Closing binary validation connection after unknown operation " + operation);
+					return;
+				}
+				String token = in.readUTF();
+				BinaryValidationProtocol.writeResult(out,
+						client.tryAcquire(1) ? this.tokenService.validate(token) : QUOTA_EXCEEDED);
+				// Only flush once the client has no further pipelined requests in flight
+				if (in.available() == 0) {
+					out.flush();
+				}
+			}
+		}
+		catch (IOException ex) {
+			if (this.running) {
+				logger.debug("Binary validation connection failed", ex);
+			}
+		}
+		finally {
+			this.connections.remove(connection);
+		}
+	}
+
+	private ApiClient handshake(DataInputStream in, DataOutputStream out) throws IOException {
+		int version = in.readUnsignedByte();
+		ApiClient client = this.apiClientRegistry.authenticate(in.readUTF());
+		boolean accepted = version == BinaryValidationProtocol.VERSION && client != null;
+		out.writeByte(accepted ? BinaryValidationProtocol.HANDSHAKE_OK : BinaryValidationProtocol.HANDSHAKE_REJECTED);
+		out.flush();
+		return accepted ? client : null;
+	}
+
+	@Override
+	public void stop() {
+		this.running = false;
+		for (ServerSocketChannel listener : this.listeners) {
+			try {
+				listener.close();
+			}
+			catch (IOException ex) {
+				logger.warn("Failed to close binary validation listener", ex);
+			}
+		}
+		this.listeners.clear();
+		for (SocketChannel connection : this.connections) {
+			try {
+				connection.close();
+			}
+			catch (IOException ex) {
+				// Closing anyway
+			}
+		}
+		Path socketPath = this.properties.binaryProtocol().socketPath();
+		if (socketPath != null) {
+			try {
+				Files.deleteIfExists(socketPath);
+			}
+			catch (IOException ex) {
+				logger.warn("Failed to delete binary validation socket " + socketPath, ex);
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.example.authsystem.token.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.authsystem.client.ApiClient;
+import com.example.authsystem.client.ApiClientRegistry;
+import com.example.authsystem.token.ApiHeaders;
+import com.example.authsystem.token.ClusterTokenRouter;
+import com.example.authsystem.token.RevokeResponse;
+import com.example.authsystem.token.TokenService;
+
+/**
+ * REST controller for token revocation API.
+ */
+@RestController
+@RequestMapping("/api/tokens")
+public class RevokeController {
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+
+	private final TokenService tokenService;
+
+	private final ClusterTokenRouter clusterTokenRouter;
+
+	private final ApiClientRegistry apiClientRegistry;
+
+	public RevokeController(TokenService tokenService, ClusterTokenRouter clusterTokenRouter,
+			ApiClientRegistry apiClientRegistry) {
+		this.tokenService = tokenService;
+		this.clusterTokenRouter = clusterTokenRouter;
+		this.apiClientRegistry = apiClientRegistry;
+	}
+
+	/**
+	 * Revokes every outstanding token of a user, for example when the account has been
+	 * compromised. In a cluster, the revocation is also applied on every other node.
+	 * @param apiKey the API key from the X-API-Key header
+	 * @param clusterHop set when the request was forwarded by another cluster node
+	 * @param username the username whose tokens to revoke
+	 * @return the revocation response
+	 */
+	@PostMapping("/revoke")
+	public ResponseEntity<RevokeResponse> revoke(
+			@RequestHeader(name = ApiHeaders.API_KEY, required = false) String apiKey,
+			@RequestHeader(name = ApiHeaders.CLUSTER_HOP, required = false) String clusterHop,
+			@RequestParam String username) {
+
+		// Authenticate the client and charge its quota
+		ApiClient client = this.apiClientRegistry.authenticate(apiKey);
+		if (client == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (!client.tryAcquire(1)) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.build();
+		}
+
+		int revoked = this.tokenService.revokeTokens(username);
+		if (clusterHop == null) {
+			revoked += this.clusterTokenRouter.revokeOnPeers(username);
+		}
+
+		return ResponseEntity.ok(new RevokeResponse(username, revoked));
+	}
+
+}
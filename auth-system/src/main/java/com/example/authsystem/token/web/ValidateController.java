@@ -1,18 +1,26 @@
 package com.example.authsystem.token.web;
 
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.authsystem.AuthSystemProperties;
-import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.client.ApiClient;
+import com.example.authsystem.client.ApiClientRegistry;
 import com.example.authsystem.token.ApiHeaders;
 import com.example.authsystem.token.TokenService;
 import com.example.authsystem.token.TokenService.ValidateResult;
+import com.example.authsystem.token.ValidateBatchRequest;
+import com.example.authsystem.token.ValidateBatchResponse;
 import com.example.authsystem.token.ValidateResponse;
 
 /**
@@ -22,37 +30,94 @@ import com.example.authsystem.token.ValidateResponse;
 @RequestMapping("/api")
 public class ValidateController {
 
+	/**
+	 * The maximum number of tokens accepted by one batch validation request.
+	 */
+	public static final int MAX_BATCH_SIZE = 1000;
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+
 	private final TokenService tokenService;
 
-	private final AuthSystemProperties properties;
+	private final ValidateResponseCache responseCache;
 
-	public ValidateController(TokenService tokenService, AuthSystemProperties properties) {
+	private final ApiClientRegistry apiClientRegistry;
+
+	public ValidateController(TokenService tokenService, ValidateResponseCache responseCache,
+			ApiClientRegistry apiClientRegistry) {
 		this.tokenService = tokenService;
-		this.properties = properties;
+		this.responseCache = responseCache;
+		this.apiClientRegistry = apiClientRegistry;
 	}
 
 	/**
 	 * Validates a token and returns user information if valid.
 	 * @param apiKey the API key from the X-API-Key header
+	 * @param clusterHop set when the request was forwarded by another cluster node
 	 * @param token the token to validate
-	 * @return the validation response
+	 * @return the JSON-encoded {@link ValidateResponse}
 	 */
 	@GetMapping("/validate")
-	public ResponseEntity<ValidateResponse> validate(
-			@RequestHeader(name = ApiHeaders.API_KEY, required = false) String apiKey, @RequestParam String token) {
+	public ResponseEntity<byte[]> validate(@RequestHeader(name = ApiHeaders.API_KEY, required = false) String apiKey,
+			@RequestHeader(name = ApiHeaders.CLUSTER_HOP, required = false) String clusterHop,
+			@RequestParam String token) {
+
+		// Authenticate the client and charge its quota
+		ApiClient client = this.apiClientRegistry.authenticate(apiKey);
+		if (client == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (!client.tryAcquire(1)) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.build();
+		}
 
-		// Validate API key
-		if (apiKey == null || !this.properties.apiSecret().equals(apiKey)) {
+		// Validate token, never forwarding a request that another node already forwarded
+		ValidateResult result = (clusterHop != null) ? this.tokenService.validateLocally(token)
+				: this.tokenService.validate(token);
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this.responseCache.encode(result));
+	}
+
+	/**
+	 * Validates several tokens in one request, saving the per-request overhead when a
+	 * relying application validates many tokens concurrently.
+	 * @param apiKey the API key from the X-API-Key header
+	 * @param clusterHop set when the request was forwarded by another cluster node
+	 * @param request the tokens to validate, at most {@value #MAX_BATCH_SIZE}
+	 * @return the JSON-encoded {@link ValidateBatchResponse}, holding the validation
+	 * responses in the order of the requested tokens
+	 */
+	@PostMapping("/validate/batch")
+	public ResponseEntity<byte[]> validateBatch(
+			@RequestHeader(name = ApiHeaders.API_KEY, required = false) String apiKey,
+			@RequestHeader(name = ApiHeaders.CLUSTER_HOP, required = false) String clusterHop,
+			@RequestBody ValidateBatchRequest request) {
+
+		List<String> tokens = request.tokens();
+		if (tokens == null || tokens.size() > MAX_BATCH_SIZE || tokens.contains(null)) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		// Authenticate the client and charge its quota for every token; a batch larger
+		// than the burst is admitted from a full quota and paid off by later requests
+		ApiClient client = this.apiClientRegistry.authenticate(apiKey);
+		if (client == null) {
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 		}
+		if (!client.tryAcquire(Math.max(tokens.size(), 1))) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+				.build();
+		}
 
-		// Validate token
-		ValidateResult result = this.tokenService.validate(token);
+		// Validate tokens, never forwarding a request that another node already forwarded
+		List<ValidateResult> results = (clusterHop != null)
+				? tokens.stream().map(this.tokenService::validateLocally).toList()
+				: this.tokenService.validateAll(tokens);
 
-		return switch (result) {
-			case ValidateResult.Success(UserInfo userInfo) -> ResponseEntity.ok(ValidateResponse.success(userInfo));
-			case ValidateResult.Failure(String reason) -> ResponseEntity.ok(ValidateResponse.failure(reason));
-		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this.responseCache.encodeAll(results));
 	}
 
 }
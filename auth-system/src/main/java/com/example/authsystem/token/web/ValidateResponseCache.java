@@ -0,0 +1,176 @@
+package com.example.authsystem.token.web;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+import com.example.authsystem.token.ValidateResponse;
+
+/**
+ * Cache of JSON-encoded validation responses.
+ * <p>
+ * A successful response only depends on the user's username, display name and roles, so
+ * it is encoded once per user and written to later responses as is. A user registered or
+ * updated through {@link UserService} is evicted at once; a cached response is also
+ * re-encoded as soon as the user it was encoded for no longer matches, which covers
+ * changes made elsewhere, such as a reloaded users file or an import. Failure responses
+ * are cached per reason.
+ * <p>
+ * Successes are held in two generations like
+ * {@link com.example.authsystem.auth.CachingUserDirectory}: once the current generation
+ * holds half of the maximum number of users it replaces the previous one, and a hit in
+ * the previous generation is promoted. Memory is bounded however many users validate
+ * tokens, while the users seen most often stay cached.
+ */
+@Component
+public class ValidateResponseCache {
+
+	private static final int MAX_FAILURE_REASONS = 64;
+
+	private static final int MAX_CACHED_USERS = 10_000;
+
+	private static final byte[] BATCH_PREFIX = "{\"results\":[".getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] BATCH_SUFFIX = "]}".getBytes(StandardCharsets.US_ASCII);
+
+	private final int generationSize;
+
+	private volatile ConcurrentHashMap<String, EncodedSuccess> successes = new ConcurrentHashMap<>();
+
+	private volatile ConcurrentHashMap<String, EncodedSuccess> previousSuccesses = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, byte[]> failures = new ConcurrentHashMap<>();
+
+	private final ObjectMapper objectMapper;
+
+	@Autowired
+	public ValidateResponseCache(ObjectMapper objectMapper, UserService userService) {
+		this(objectMapper, MAX_CACHED_USERS);
+		userService.addChangeListener(this::evict);
+	}
+
+	ValidateResponseCache(ObjectMapper objectMapper, int maxUsers) {
+		this.objectMapper = objectMapper;
+		this.generationSize = Math.max(maxUsers / 2, 1);
+	}
+
+	/**
+	 * Returns the JSON-encoded validation response for a result.
+	 * @param result the validation result
+	 * @return the encoded {@link ValidateResponse}
+	 */
+	public byte[] encode(ValidateResult result) {
+		return switch (result) {
+			case ValidateResult.Success(UserInfo userInfo) -> success(userInfo);
+			case ValidateResult.Failure(String reason) -> failure(reason);
+		};
+	}
+
+	/**
+	 * Returns the JSON-encoded batch validation response for several results.
+	 * @param results the validation results
+	 * @return the encoded {@link com.example.authsystem.token.ValidateBatchResponse}
+	 */
+	public byte[] encodeAll(List<ValidateResult> results) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(BATCH_PREFIX.length + results.size() * 96);
+		out.writeBytes(BATCH_PREFIX);
+		for (int i = 0; i < results.size(); i++) {
+			if (i > 0) {
+				out.write(',');
+			}
+			out.writeBytes(encode(results.get(i)));
+		}
+		out.writeBytes(BATCH_SUFFIX);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Evicts the cached response of a user.
+	 * @param username the username of the user
+	 */
+	public void evict(String username) {
+		this.successes.remove(username);
+		this.previousSuccesses.remove(username);
+	}
+
+	/**
+	 * Returns the number of users with a cached response.
+	 * @return the number of users
+	 */
+	public int size() {
+		return this.successes.size() + this.previousSuccesses.size();
+	}
+
+	private byte[] success(UserInfo userInfo) {
+		ConcurrentHashMap<String, EncodedSuccess> current = this.successes;
+		EncodedSuccess cached = current.get(userInfo.username());
+		if (cached == null) {
+			cached = this.previousSuccesses.get(userInfo.username());
+			if (cached != null && cached.matches(userInfo)) {
+				cache(current, userInfo.username(), cached);
+			}
+		}
+		if (cached != null && cached.matches(userInfo)) {
+			return cached.json();
+		}
+		EncodedSuccess encoded = new EncodedSuccess(userInfo, write(ValidateResponse.success(userInfo)));
+		cache(current, userInfo.username(), encoded);
+		return encoded.json();
+	}
+
+	private void cache(ConcurrentHashMap<String, EncodedSuccess> current, String username, EncodedSuccess encoded) {
+		current.put(username, encoded);
+		if (current.size() >= this.generationSize) {
+			rotate(current);
+		}
+	}
+
+	private synchronized void rotate(ConcurrentHashMap<String, EncodedSuccess> full) {
+		if (this.successes == full) {
+			this.previousSuccesses = full;
+			this.successes = new ConcurrentHashMap<>();
+		}
+	}
+
+	private byte[] failure(String reason) {
+		byte[] cached = this.failures.get(reason);
+		if (cached != null) {
+			return cached;
+		}
+		byte[] encoded = write(ValidateResponse.failure(reason));
+		// Reasons forwarded by other nodes are not under our control, so bound the cache
+		if (this.failures.size() < MAX_FAILURE_REASONS) {
+			this.failures.put(reason, encoded);
+		}
+		return encoded;
+	}
+
+	private byte[] write(ValidateResponse response) {
+		try {
+			return this.objectMapper.writeValueAsBytes(response);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to encode validation response", ex);
+		}
+	}
+
+	private record EncodedSuccess(UserInfo userInfo, byte[] json) {
+
+		boolean matches(UserInfo other) {
+			return this.userInfo == other || (Objects.equals(this.userInfo.displayName(), other.displayName())
+					&& Objects.equals(this.userInfo.roles(), other.roles()));
+		}
+
+	}
+
+}
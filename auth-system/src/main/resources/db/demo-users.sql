@@ -0,0 +1,5 @@
+-- Demo users for the embedded database, with the same credentials as the in-memory directory
+MERGE INTO users (username, password, display_name, roles) KEY (username) VALUES
+    ('user1', '{bcrypt}$2a$10$Vcjby1hR7hb5yOYQ64F79eDcQksyJzy7q1WJygChOqoxLzXEfBA7W', 'User One', 'USER'),
+    ('admin1', '{bcrypt}$2a$10$ZbnsX9MA/Kc07bG4fV4BbOlsZxWpE2CKJ3uAmami1a21fZu44e/9m', 'Admin One', 'USER,ADMIN'),
+    ('user2', '{bcrypt}$2a$10$Qc4146.lOqQHrJylUz0x3u8ZproT7tFUDqBqC.e25rURKGC0ZUx2u', 'User Two', 'USER');
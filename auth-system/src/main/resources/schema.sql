@@ -0,0 +1,7 @@
+-- Users for auth.system.user-directory.type=jdbc; roles are comma-separated
+CREATE TABLE IF NOT EXISTS users (
+    username VARCHAR(255) PRIMARY KEY,
+    password VARCHAR(255) NOT NULL,
+    display_name VARCHAR(255) NOT NULL,
+    roles VARCHAR(255) NOT NULL
+);
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.microsoft.playwright.Browser;
@@ -28,7 +29,10 @@ import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.web.client.RestClient;
 
 import com.example.authsystem.token.ApiHeaders;
+import com.example.authsystem.token.RevokeResponse;
 import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.ValidateBatchRequest;
+import com.example.authsystem.token.ValidateBatchResponse;
 import com.example.authsystem.token.ValidateResponse;
 
 import static com.microsoft.playwright.assertions.PlaywrightAssertions.assertThat;
@@ -242,7 +246,7 @@ class AuthSystemIntegrationTest {
 		// Verify token was received by mock server
 		assertThat(receivedTokens).hasSize(1);
 		String token = receivedTokens.getFirst();
-		assertThat(token).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+		assertThat(token).matches("[A-Za-z0-9_-]{22}");
 
 		// Verify token contains in the page
 		assertThat(page.locator("#token")).containsText("token=" + token);
@@ -423,6 +427,74 @@ class AuthSystemIntegrationTest {
 		assertThat(secondResponse.getBody().reason()).isEqualTo("TOKEN_ALREADY_USED");
 	}
 
+	@Test
+	void shouldValidateBatchOfTokens() {
+		String user = this.tokenService.generateToken("user1");
+		String admin = this.tokenService.generateToken("admin1");
+
+		ResponseEntity<ValidateBatchResponse> response = this.restClient.post()
+			.uri(baseUrl() + "/api/validate/batch")
+			.header(ApiHeaders.API_KEY, API_SECRET)
+			.body(new ValidateBatchRequest(List.of(user, "non-existent-token", admin, user)))
+			.retrieve()
+			.toEntity(ValidateBatchResponse.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isNotNull();
+		List<ValidateResponse> results = response.getBody().results();
+		assertThat(results).extracting(ValidateResponse::valid).containsExactly(true, false, true, false);
+		assertThat(results.get(0).username()).isEqualTo("user1");
+		assertThat(results.get(1).reason()).isEqualTo("TOKEN_NOT_FOUND");
+		assertThat(results.get(2).username()).isEqualTo("admin1");
+		assertThat(results.get(3).reason()).isEqualTo("TOKEN_ALREADY_USED");
+	}
+
+	@Test
+	void shouldRejectBatchWithInvalidApiKey() {
+		ResponseEntity<ValidateBatchResponse> response = this.restClient.post()
+			.uri(baseUrl() + "/api/validate/batch")
+			.header(ApiHeaders.API_KEY, "wrong-api-key")
+			.body(new ValidateBatchRequest(List.of(this.tokenService.generateToken("user1"))))
+			.retrieve()
+			.toEntity(ValidateBatchResponse.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+	}
+
+	// ========== Token Revocation API Tests (RestClient) ==========
+
+	@Test
+	void shouldRevokeOutstandingTokensOfUser() {
+		String token1 = this.tokenService.generateToken("user2");
+		String token2 = this.tokenService.generateToken("user2");
+
+		ResponseEntity<RevokeResponse> response = this.restClient.post()
+			.uri(baseUrl() + "/api/tokens/revoke?username={username}", "user2")
+			.header(ApiHeaders.API_KEY, API_SECRET)
+			.retrieve()
+			.toEntity(RevokeResponse.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isNotNull();
+		assertThat(response.getBody().username()).isEqualTo("user2");
+		assertThat(response.getBody().revoked()).isEqualTo(2);
+		assertThat(this.tokenService.validate(token1))
+			.isEqualTo(new TokenService.ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(token2))
+			.isEqualTo(new TokenService.ValidateResult.Failure("TOKEN_NOT_FOUND"));
+	}
+
+	@Test
+	void shouldRejectRevocationWithInvalidApiKey() {
+		ResponseEntity<RevokeResponse> response = this.restClient.post()
+			.uri(baseUrl() + "/api/tokens/revoke?username={username}", "user2")
+			.header(ApiHeaders.API_KEY, "wrong-api-key")
+			.retrieve()
+			.toEntity(RevokeResponse.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+	}
+
 	// ========== Token Generation Tests ==========
 
 	@Test
@@ -431,8 +503,8 @@ class AuthSystemIntegrationTest {
 		String token2 = this.tokenService.generateToken("user1");
 
 		assertThat(token1).isNotEqualTo(token2);
-		assertThat(token1).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
-		assertThat(token2).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+		assertThat(token1).matches("[A-Za-z0-9_-]{22}");
+		assertThat(token2).matches("[A-Za-z0-9_-]{22}");
 	}
 
 	// ========== Token Expiration Test ==========
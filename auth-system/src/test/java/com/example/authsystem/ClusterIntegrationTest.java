@@ -0,0 +1,128 @@
+package com.example.authsystem;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClient;
+
+import com.example.authsystem.token.ApiHeaders;
+import com.example.authsystem.token.RevokeResponse;
+import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.ValidateBatchRequest;
+import com.example.authsystem.token.ValidateBatchResponse;
+import com.example.authsystem.token.ValidateResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests running several Auth System nodes as a cluster on localhost ports.
+ */
+class ClusterIntegrationTest {
+
+	private static final String API_SECRET = "demo-shared-secret-key";
+
+	private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+	private static final List<String> urls = new ArrayList<>();
+
+	private final RestClient restClient = RestClient.create();
+
+	@BeforeAll
+	static void startCluster() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			try (ServerSocket socket = new ServerSocket(0)) {
+				urls.add("http://localhost:" + socket.getLocalPort());
+			}
+		}
+		for (String url : urls) {
+			nodes.add(new SpringApplicationBuilder(AuthSystemApplication.class).run(
+					"--server.port=" + url.substring(url.lastIndexOf(':') + 1), "--auth.system.cluster.enabled=true",
+					"--auth.system.cluster.self=" + url, "--auth.system.cluster.peers=" + String.join(",", urls),
+					"--spring.devtools.restart.enabled=false", "--logging.level.org.springframework.security=INFO"));
+		}
+	}
+
+	@AfterAll
+	static void stopCluster() {
+		nodes.forEach(ConfigurableApplicationContext::close);
+	}
+
+	private ValidateResponse validate(String url, String token) {
+		return this.restClient.get()
+			.uri(url + "/api/validate?token={token}", token)
+			.header(ApiHeaders.API_KEY, API_SECRET)
+			.retrieve()
+			.body(ValidateResponse.class);
+	}
+
+	@Test
+	void shouldValidateTokenOnAnyNode() {
+		for (int issuer = 0; issuer < nodes.size(); issuer++) {
+			TokenService tokenService = nodes.get(issuer).getBean(TokenService.class);
+			for (String url : urls) {
+				String token = tokenService.generateToken("user1");
+
+				ValidateResponse first = validate(url, token);
+				ValidateResponse second = validate(urls.get((urls.indexOf(url) + 1) % urls.size()), token);
+
+				assertThat(first.valid()).isTrue();
+				assertThat(first.username()).isEqualTo("user1");
+				assertThat(first.roles()).containsExactly("USER");
+				assertThat(second.valid()).isFalse();
+				assertThat(second.reason()).isEqualTo("TOKEN_ALREADY_USED");
+			}
+		}
+	}
+
+	@Test
+	void shouldValidateBatchSpanningEveryNode() {
+		List<String> tokens = new ArrayList<>();
+		for (ConfigurableApplicationContext node : nodes) {
+			tokens.add(node.getBean(TokenService.class).generateToken("admin1"));
+		}
+		tokens.add("non-existent-token");
+		tokens.add(tokens.get(0));
+
+		ValidateBatchResponse response = this.restClient.post()
+			.uri(urls.get(2) + "/api/validate/batch")
+			.header(ApiHeaders.API_KEY, API_SECRET)
+			.body(new ValidateBatchRequest(tokens))
+			.retrieve()
+			.body(ValidateBatchResponse.class);
+
+		assertThat(response.results()).hasSize(5);
+		assertThat(response.results().subList(0, 3)).allSatisfy(result -> {
+			assertThat(result.valid()).isTrue();
+			assertThat(result.username()).isEqualTo("admin1");
+		});
+		assertThat(response.results().get(3).reason()).isEqualTo("TOKEN_NOT_FOUND");
+		assertThat(response.results().get(4).reason()).isEqualTo("TOKEN_ALREADY_USED");
+	}
+
+	@Test
+	void shouldRevokeTokensOnEveryNode() {
+		List<String> tokens = new ArrayList<>();
+		for (ConfigurableApplicationContext node : nodes) {
+			tokens.add(node.getBean(TokenService.class).generateToken("user2"));
+		}
+
+		RevokeResponse response = this.restClient.post()
+			.uri(urls.get(0) + "/api/tokens/revoke?username={username}", "user2")
+			.header(ApiHeaders.API_KEY, API_SECRET)
+			.retrieve()
+			.body(RevokeResponse.class);
+
+		assertThat(response.revoked()).isEqualTo(3);
+		for (String token : tokens) {
+			assertThat(validate(urls.get(1), token).reason()).isEqualTo("TOKEN_NOT_FOUND");
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.example.authsystem.auth;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BCryptCalibrator}.
+ */
+class BCryptCalibratorTest {
+
+	@Test
+	void shouldPickHighestStrengthWithinTarget() {
+		// 60 ms at strength 10, so 120 ms at 11 and 240 ms at 12
+		assertThat(BCryptCalibrator.calibrate(Duration.ofMillis(250), 10, strength -> 60_000_000L)).isEqualTo(12);
+		assertThat(BCryptCalibrator.calibrate(Duration.ofMillis(240), 10, strength -> 60_000_000L)).isEqualTo(12);
+		assertThat(BCryptCalibrator.calibrate(Duration.ofMillis(100), 10, strength -> 60_000_000L)).isEqualTo(10);
+	}
+
+	@Test
+	void shouldNotGoBelowMinimumStrength() {
+		assertThat(BCryptCalibrator.calibrate(Duration.ofMillis(100), 10, strength -> 500_000_000L)).isEqualTo(10);
+	}
+
+	@Test
+	void shouldIgnoreSlowOutliers() {
+		long[] samples = { 900_000_000L, 400_000_000L, 50_000_000L, 300_000_000L };
+		int[] next = { 0 };
+
+		assertThat(BCryptCalibrator.calibrate(Duration.ofMillis(100), 10, strength -> samples[next[0]++]))
+			.isEqualTo(11);
+	}
+
+	@Test
+	void shouldMeasureRealHashes() {
+		assertThat(BCryptCalibrator.calibrate(Duration.ZERO, 4)).isEqualTo(4);
+		assertThat(BCryptCalibrator.calibrate(Duration.ofSeconds(1), 4)).isBetween(5, 31);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.example.authsystem.auth;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void close() {
+		this.release.countDown();
+		this.encoder.close();
+	}
+
+	@Test
+	void shouldVerifyOnPoolThreadAndRecordTimes() {
+		this.encoder = new BoundedPasswordEncoder(new ThreadRecordingEncoder(), 2, 4);
+
+		assertThat(this.encoder.matches("password-verifier-1", "password-verifier-1")).isTrue();
+		assertThat(this.encoder.matches("password1", "password2")).isFalse();
+
+		assertThat(this.encoder.getCompleted()).isEqualTo(2);
+		assertThat(this.encoder.getHashNanos()).isPositive();
+		assertThat(this.encoder.getQueueWaitNanos()).isPositive();
+		assertThat(this.encoder.getRejected()).isZero();
+		assertThat(this.encoder.encode("password1")).isEqualTo("password1");
+	}
+
+	@Test
+	void shouldRejectWhenQueueIsFull() throws Exception {
+		this.encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+		CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> this.encoder.matches("a", "a"));
+		assertThat(this.started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> this.encoder.matches("b", "b"));
+		awaitQueued(1);
+
+		assertThatExceptionOfType(PasswordVerificationRejectedException.class)
+			.isThrownBy(() -> this.encoder.matches("c", "c"));
+		assertThat(this.encoder.getRejected()).isOne();
+		assertThat(this.encoder.getActive()).isOne();
+
+		this.release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.encoder.getCompleted()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldPropagateDelegateFailure() {
+		this.encoder = new BoundedPasswordEncoder(NoOpPasswordEncoder.getInstance(), 1, 1);
+
+		assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> this.encoder.matches(null, "a"));
+		assertThat(this.encoder.getCompleted()).isOne();
+	}
+
+	private void awaitQueued(int queued) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (this.encoder.getQueued() != queued && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(this.encoder.getQueued()).isEqualTo(queued);
+	}
+
+	private static final class ThreadRecordingEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			return rawPassword.toString();
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			// Passes only when called on the first verifier thread
+			return encodedPassword.equals(Thread.currentThread().getName())
+					&& rawPassword.toString().equals(encodedPassword);
+		}
+
+	}
+
+	private final class BlockingEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			return rawPassword.toString();
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			BoundedPasswordEncoderTest.this.started.countDown();
+			try {
+				BoundedPasswordEncoderTest.this.release.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return rawPassword.toString().equals(encodedPassword);
+		}
+
+	}
+
+}
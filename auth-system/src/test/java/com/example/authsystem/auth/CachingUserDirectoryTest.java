@@ -0,0 +1,94 @@
+package com.example.authsystem.auth;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CachingUserDirectory}.
+ */
+class CachingUserDirectoryTest {
+
+	private static final UserInfo USER = new UserInfo("user1", "{noop}password1", "User One", List.of("USER"));
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final CountingUserDirectory delegate = new CountingUserDirectory();
+
+	private final CachingUserDirectory cache = new CachingUserDirectory(this.delegate, 100, Duration.ofMinutes(5),
+			Duration.ofSeconds(30), this.now::get);
+
+	private void advance(Duration duration) {
+		this.now.updateAndGet(instant -> instant.plus(duration));
+	}
+
+	@Test
+	void shouldReadThroughUntilExpired() {
+		this.delegate.save(USER);
+
+		assertThat(this.cache.findByUsername("user1")).contains(USER);
+		advance(Duration.ofMinutes(4));
+		assertThat(this.cache.findByUsername("user1")).contains(USER);
+		assertThat(this.delegate.lookups.get()).isEqualTo(1);
+
+		advance(Duration.ofMinutes(1));
+		assertThat(this.cache.findByUsername("user1")).contains(USER);
+		assertThat(this.delegate.lookups.get()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldCacheUnknownUsernamesForNegativeTtl() {
+		assertThat(this.cache.findByUsername("nobody")).isEmpty();
+		assertThat(this.cache.findByUsername("nobody")).isEmpty();
+		assertThat(this.delegate.lookups.get()).isEqualTo(1);
+
+		this.delegate.save(new UserInfo("nobody", "{noop}secret", "Nobody", List.of()));
+		advance(Duration.ofSeconds(30));
+		assertThat(this.cache.findByUsername("nobody")).isPresent();
+		assertThat(this.delegate.lookups.get()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldInvalidateSavedUser() {
+		this.delegate.save(USER);
+		this.cache.findByUsername("user1");
+
+		UserInfo changed = new UserInfo("user1", "{noop}changed", "User One", List.of("USER", "ADMIN"));
+		this.cache.save(changed);
+
+		assertThat(this.cache.findByUsername("user1")).contains(changed);
+		assertThat(this.delegate.lookups.get()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldStayBoundedAndKeepFrequentlyUsedUsers() {
+		this.delegate.save(USER);
+		for (int i = 0; i < 1000; i++) {
+			this.cache.findByUsername("unknown" + i);
+			this.cache.findByUsername("user1");
+		}
+
+		assertThat(this.cache.size()).isLessThanOrEqualTo(100);
+		assertThat(this.delegate.lookups.get()).isEqualTo(1001);
+	}
+
+	private static final class CountingUserDirectory extends InMemoryUserDirectory {
+
+		private final AtomicInteger lookups = new AtomicInteger();
+
+		@Override
+		public Optional<UserInfo> findByUsername(String username) {
+			this.lookups.incrementAndGet();
+			return super.findByUsername(username);
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.example.authsystem.auth;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link CompactUserDirectory}.
+ */
+class CompactUserDirectoryTest {
+
+	private static final String PASSWORD = "{bcrypt}$2a$10$Vcjby1hR7hb5yOYQ64F79eDcQksyJzy7q1WJygChOqoxLzXEfBA7W";
+
+	private final CompactUserDirectory directory = new CompactUserDirectory();
+
+	@Test
+	void shouldFindSavedUsers() {
+		UserInfo admin = new UserInfo("admin1", PASSWORD, "Admin One", List.of("USER", "ADMIN"));
+		UserInfo unicode = new UserInfo("jürgen", "{noop}pässword", "Jürgen Müller", List.of());
+		this.directory.save(admin);
+		this.directory.save(unicode);
+
+		assertThat(this.directory.findByUsername("admin1")).contains(admin);
+		assertThat(this.directory.findByUsername("jürgen")).contains(unicode);
+		assertThat(this.directory.findByUsername("admin")).isEmpty();
+		assertThat(this.directory.findByUsername("admin12")).isEmpty();
+		assertThat(this.directory.size()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldShareRoleSetsRegardlessOfOrder() {
+		this.directory.save(new UserInfo("user1", PASSWORD, "User One", List.of("USER")));
+		this.directory.save(new UserInfo("admin1", PASSWORD, "Admin One", List.of("USER", "ADMIN")));
+		this.directory.save(new UserInfo("admin2", PASSWORD, "Admin Two", List.of("ADMIN", "USER", "ADMIN")));
+
+		List<String> admin1 = this.directory.findByUsername("admin1").orElseThrow().roles();
+		List<String> admin2 = this.directory.findByUsername("admin2").orElseThrow().roles();
+		assertThat(admin1).containsExactly("USER", "ADMIN");
+		assertThat(admin2).isSameAs(admin1);
+	}
+
+	@Test
+	void shouldReplaceOnSaveButNotOnAdd() {
+		this.directory.save(new UserInfo("user1", PASSWORD, "User One", List.of("USER")));
+
+		assertThat(this.directory.add(new UserInfo("user1", "{noop}other", "Other", List.of()))).isFalse();
+		assertThat(this.directory.findByUsername("user1").orElseThrow().displayName()).isEqualTo("User One");
+
+		this.directory.save(new UserInfo("user1", "{noop}changed", "User 1", List.of("ADMIN")));
+		assertThat(this.directory.findByUsername("user1"))
+			.contains(new UserInfo("user1", "{noop}changed", "User 1", List.of("ADMIN")));
+		assertThat(this.directory.size()).isOne();
+	}
+
+	@Test
+	void shouldHoldUsersAcrossPagesAndResizes() {
+		int users = 100_000;
+		for (int i = 0; i < users; i++) {
+			assertThat(this.directory.add(user(i))).isTrue();
+		}
+
+		assertThat(this.directory.size()).isEqualTo(users);
+		for (int i = 0; i < users; i++) {
+			assertThat(this.directory.findByUsername("user" + i)).contains(user(i));
+		}
+		assertThat(this.directory.findByUsername("user" + users)).isEmpty();
+	}
+
+	@Test
+	void shouldRejectMoreThan64Roles() {
+		List<String> roles = IntStream.range(0, 64).mapToObj(i -> "ROLE" + i).toList();
+		this.directory.save(new UserInfo("user1", PASSWORD, "User One", roles));
+
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.directory.save(new UserInfo("user2", PASSWORD, "User Two", List.of("ROLE64"))));
+	}
+
+	@Test
+	void shouldFindUsersWhileAnotherThreadAdds() throws InterruptedException {
+		this.directory.save(user(0));
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger misses = new AtomicInteger();
+		Thread reader = Thread.ofPlatform().start(() -> {
+			while (!done.get()) {
+				if (this.directory.findByUsername("user0").isEmpty()) {
+					misses.incrementAndGet();
+				}
+			}
+		});
+
+		for (int i = 1; i < 100_000; i++) {
+			this.directory.add(user(i));
+		}
+		done.set(true);
+		reader.join();
+
+		assertThat(misses).hasValue(0);
+	}
+
+	private static UserInfo user(int i) {
+		return new UserInfo("user" + i, PASSWORD + i, "User " + i,
+				(i % 10 == 0) ? List.of("USER", "ADMIN") : List.of("USER"));
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.example.authsystem.auth;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CustomUserDetailsService} rehashing passwords through a
+ * {@link DaoAuthenticationProvider}.
+ */
+class CustomUserDetailsServiceTest {
+
+	private final PasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+			Map.of("bcrypt", new BCryptPasswordEncoder(5), "noop", NoOpPasswordEncoder.getInstance()));
+
+	private final InMemoryUserDirectory directory = new InMemoryUserDirectory();
+
+	private final DaoAuthenticationProvider authenticationProvider = authenticationProvider(this.directory);
+
+	@Test
+	void shouldRehashStaleEncodingOnLogin() {
+		String stale = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password1");
+		this.directory.save(new UserInfo("user1", stale, "User One", List.of("USER")));
+
+		this.authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken("user1", "password1"));
+
+		UserInfo rehashed = this.directory.findByUsername("user1").orElseThrow();
+		assertThat(rehashed.password()).startsWith("{bcrypt}$2a$05$");
+		assertThat(rehashed.displayName()).isEqualTo("User One");
+		assertThat(this.passwordEncoder.matches("password1", rehashed.password())).isTrue();
+	}
+
+	@Test
+	void shouldUpgradeOtherEncodingsToCurrentOne() {
+		this.directory.save(new UserInfo("user1", "{noop}password1", "User One", List.of("USER")));
+
+		this.authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken("user1", "password1"));
+
+		assertThat(this.directory.findByUsername("user1").orElseThrow().password()).startsWith("{bcrypt}$2a$05$");
+	}
+
+	@Test
+	void shouldKeepCurrentEncodingAndWrongAttempts() {
+		String current = this.passwordEncoder.encode("password1");
+		this.directory.save(new UserInfo("user1", current, "User One", List.of("USER")));
+
+		this.authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken("user1", "password1"));
+		assertThatExceptionOfType(BadCredentialsException.class).isThrownBy(() -> this.authenticationProvider
+			.authenticate(new UsernamePasswordAuthenticationToken("user1", "wrong")));
+
+		assertThat(this.directory.findByUsername("user1").orElseThrow().password()).isEqualTo(current);
+	}
+
+	@Test
+	void shouldLogInWhenRehashCannotBeStored() {
+		UserDirectory readOnly = new InMemoryUserDirectory() {
+
+			@Override
+			public boolean updatePassword(String username, String encodedPassword) {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+		readOnly.save(new UserInfo("user1", "{noop}password1", "User One", List.of("USER")));
+
+		assertThat(authenticationProvider(readOnly)
+			.authenticate(new UsernamePasswordAuthenticationToken("user1", "password1"))
+			.isAuthenticated()).isTrue();
+		assertThat(readOnly.findByUsername("user1").orElseThrow().password()).isEqualTo("{noop}password1");
+	}
+
+	private DaoAuthenticationProvider authenticationProvider(UserDirectory directory) {
+		CustomUserDetailsService userDetailsService = new CustomUserDetailsService(new UserService(directory));
+		DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+		authenticationProvider.setPasswordEncoder(this.passwordEncoder);
+		authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+		return authenticationProvider;
+	}
+
+}
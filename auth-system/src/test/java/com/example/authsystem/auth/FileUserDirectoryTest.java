@@ -0,0 +1,151 @@
+package com.example.authsystem.auth;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link FileUserDirectory}.
+ */
+class FileUserDirectoryTest {
+
+	private static final String USER1 = """
+			{"username":"user1","password":"{noop}password1","displayName":"User One","roles":["USER"]}""";
+
+	private static final String ADMIN1 = """
+			{"username":"admin1","password":"{noop}password1","displayName":"Admin One","roles":["USER","ADMIN"]}""";
+
+	@TempDir
+	private Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void shouldReloadJsonLinesWhenFileChanges() throws Exception {
+		Path file = this.directory.resolve("users.jsonl");
+		Files.writeString(file, USER1 + "\n");
+		try (FileUserDirectory users = new FileUserDirectory(file, this.objectMapper)) {
+			assertThat(users.findByUsername("user1"))
+				.contains(new UserInfo("user1", "{noop}password1", "User One", List.of("USER")));
+			assertThat(users.findByUsername("admin1")).isEmpty();
+
+			replace(file, USER1 + "\n\n" + ADMIN1 + "\n");
+			awaitSize(users, 2);
+			assertThat(users.findByUsername("admin1").orElseThrow().roles()).containsExactly("USER", "ADMIN");
+
+			replace(file, ADMIN1 + "\n");
+			awaitSize(users, 1);
+			assertThat(users.findByUsername("user1")).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldKeepPreviousUsersWhenFileIsInvalid() throws Exception {
+		Path file = this.directory.resolve("users.jsonl");
+		Files.writeString(file, USER1 + "\n");
+		try (FileUserDirectory users = new FileUserDirectory(file, this.objectMapper)) {
+			replace(file, USER1 + "\n{\"username\":\n");
+			Thread.sleep(500);
+			assertThat(users.findByUsername("user1")).isPresent();
+
+			replace(file, ADMIN1 + "\n");
+			long deadline = System.nanoTime() + 10_000_000_000L;
+			while (users.findByUsername("admin1").isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+			assertThat(users.findByUsername("admin1")).isPresent();
+			assertThat(users.findByUsername("user1")).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldReadYamlList() throws Exception {
+		Path file = this.directory.resolve("users.yml");
+		Files.writeString(file, """
+				- username: user1
+				  password: "{noop}password1"
+				  displayName: User One
+				  roles: [USER]
+				- username: service
+				  password: "{noop}secret"
+				""");
+		try (FileUserDirectory users = new FileUserDirectory(file, this.objectMapper)) {
+			assertThat(users.findByUsername("user1"))
+				.contains(new UserInfo("user1", "{noop}password1", "User One", List.of("USER")));
+			assertThat(users.findByUsername("service"))
+				.contains(new UserInfo("service", "{noop}secret", "service", List.of()));
+		}
+	}
+
+	@Test
+	void shouldFailOnInvalidInitialFile() throws IOException {
+		Path file = this.directory.resolve("users.jsonl");
+		Files.writeString(file, USER1 + "\n" + USER1 + "\n");
+		assertThatIllegalArgumentException().isThrownBy(() -> new FileUserDirectory(file, this.objectMapper))
+			.withMessageContaining("Duplicate user user1");
+
+		Files.writeString(file, USER1 + "\n{\"username\": }\n");
+		assertThatIllegalArgumentException().isThrownBy(() -> new FileUserDirectory(file, this.objectMapper))
+			.withMessageContaining("line 2");
+	}
+
+	@Test
+	void shouldServeLookupsWhileReloadingManyUsers() throws Exception {
+		Path file = this.directory.resolve("users.jsonl");
+		Files.writeString(file, USER1 + "\n");
+		try (FileUserDirectory users = new FileUserDirectory(file, this.objectMapper)) {
+			AtomicBoolean done = new AtomicBoolean();
+			AtomicInteger misses = new AtomicInteger();
+			Thread reader = Thread.ofPlatform().start(() -> {
+				while (!done.get()) {
+					if (users.findByUsername("user1").isEmpty()) {
+						misses.incrementAndGet();
+					}
+				}
+			});
+
+			Path staged = this.directory.resolve("staged");
+			try (BufferedWriter writer = Files.newBufferedWriter(staged)) {
+				writer.write(USER1);
+				writer.newLine();
+				for (int i = 0; i < 200_000; i++) {
+					writer.write("{\"username\":\"user" + i + "x\",\"password\":\"{noop}p\",\"roles\":[\"USER\"]}");
+					writer.newLine();
+				}
+			}
+			Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			awaitSize(users, 200_001);
+			done.set(true);
+			reader.join();
+
+			assertThat(misses).hasValue(0);
+			assertThat(users.findByUsername("user199999x")).isPresent();
+		}
+	}
+
+	private void replace(Path file, String content) throws IOException {
+		Path staged = Files.writeString(this.directory.resolve("staged"), content);
+		Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void awaitSize(FileUserDirectory users, int size) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (users.size() != size && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(users.size()).isEqualTo(size);
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.example.authsystem.auth;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JdbcUserDirectory} against an embedded H2 database initialized with
+ * the application's schema and the test users of the {@code jdbc-demo} profile.
+ */
+class JdbcUserDirectoryTest {
+
+	private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+		.generateUniqueName(true)
+		.addScripts("schema.sql", "db/demo-users.sql")
+		.build();
+
+	private final JdbcUserDirectory directory = new JdbcUserDirectory(JdbcClient.create(this.database));
+
+	@AfterEach
+	void shutdown() {
+		this.database.shutdown();
+	}
+
+	@Test
+	void shouldFindDemoUsers() {
+		PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+
+		UserInfo admin = this.directory.findByUsername("admin1").orElseThrow();
+		assertThat(admin.displayName()).isEqualTo("Admin One");
+		assertThat(admin.roles()).containsExactly("USER", "ADMIN");
+		assertThat(passwordEncoder.matches("password1", admin.password())).isTrue();
+		assertThat(
+				passwordEncoder.matches("password2", this.directory.findByUsername("user2").orElseThrow().password()))
+			.isTrue();
+		assertThat(this.directory.findByUsername("nobody")).isEmpty();
+	}
+
+	@Test
+	void shouldInsertAndReplaceUsers() {
+		this.directory.save(new UserInfo("user3", "{noop}password3", "User Three", List.of()));
+		assertThat(this.directory.findByUsername("user3"))
+			.contains(new UserInfo("user3", "{noop}password3", "User Three", List.of()));
+
+		this.directory.save(new UserInfo("user3", "{noop}changed", "User 3", List.of("USER", "ADMIN")));
+		assertThat(this.directory.findByUsername("user3"))
+			.contains(new UserInfo("user3", "{noop}changed", "User 3", List.of("USER", "ADMIN")));
+	}
+
+	@Test
+	void shouldUpdateOnlyPassword() {
+		assertThat(this.directory.updatePassword("admin1", "{noop}rehashed")).isTrue();
+		assertThat(this.directory.findByUsername("admin1"))
+			.contains(new UserInfo("admin1", "{noop}rehashed", "Admin One", List.of("USER", "ADMIN")));
+
+		assertThat(this.directory.updatePassword("nobody", "{noop}rehashed")).isFalse();
+		assertThat(this.directory.findByUsername("nobody")).isEmpty();
+	}
+
+	@Test
+	void shouldReplaceUserInsertedConcurrentlyBetweenUpdateAndInsert() {
+		JdbcClient concurrent = JdbcClient.create(this.database);
+		// Another save inserts the user just before this one tries to
+		JdbcUserDirectory directory = new JdbcUserDirectory(JdbcClient.create(new DelegatingDataSource(this.database) {
+
+			@Override
+			public Connection getConnection() throws SQLException {
+				Connection connection = super.getConnection();
+				return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+							if (method.getName().equals("prepareStatement")
+									&& ((String) args[0]).startsWith("INSERT")) {
+								new JdbcUserDirectory(concurrent)
+									.save(new UserInfo("user3", "{noop}first", "First", List.of()));
+							}
+							try {
+								return method.invoke(connection, args);
+							}
+							catch (InvocationTargetException ex) {
+								throw ex.getCause();
+							}
+						});
+			}
+
+		}));
+
+		directory.save(new UserInfo("user3", "{noop}second", "Second", List.of("USER")));
+
+		assertThat(this.directory.findByUsername("user3"))
+			.contains(new UserInfo("user3", "{noop}second", "Second", List.of("USER")));
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.example.authsystem.auth;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.authsystem.auth.UserImporter.Format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link UserImporter}.
+ */
+class UserImporterTest {
+
+	private static final String HASH = "{bcrypt}$2a$10$Vcjby1hR7hb5yOYQ64F79eDcQksyJzy7q1WJygChOqoxLzXEfBA7W";
+
+	private final Set<String> hashingThreads = ConcurrentHashMap.newKeySet();
+
+	private final PasswordEncoder passwordEncoder = new PasswordEncoder() {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			UserImporterTest.this.hashingThreads.add(Thread.currentThread().getName());
+			return "{test}" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encodedPassword.equals("{test}" + rawPassword);
+		}
+
+	};
+
+	private final InMemoryUserDirectory directory = new InMemoryUserDirectory();
+
+	private final UserImporter importer = new UserImporter(this.directory, this.passwordEncoder, new ObjectMapper(), 4,
+			2);
+
+	@TempDir
+	private Path temp;
+
+	@Test
+	void shouldImportCsvHashingPlainPasswordsAndKeepingBcryptHashes() throws IOException {
+		UserImportResult result = this.importer.importUsers(stream("""
+				username,displayName,password,roles
+				user1,User One,password1,USER
+				admin1,"Admin, First",%s,"USER,ADMIN"
+				"o""brien",,secret,
+				""".formatted(HASH)), Format.CSV, "test");
+
+		assertThat(result.read()).isEqualTo(3);
+		assertThat(result.imported()).isEqualTo(3);
+		assertThat(result.rejected()).isZero();
+		assertThat(this.directory.findByUsername("user1"))
+			.contains(new UserInfo("user1", "{test}password1", "User One", List.of("USER")));
+		assertThat(this.directory.findByUsername("admin1"))
+			.contains(new UserInfo("admin1", HASH, "Admin, First", List.of("USER", "ADMIN")));
+		assertThat(this.directory.findByUsername("o\"brien"))
+			.contains(new UserInfo("o\"brien", "{test}secret", "o\"brien", List.of()));
+	}
+
+	@Test
+	void shouldImportJsonLinesFileAndReportInvalidRecords() throws IOException {
+		Path file = this.temp.resolve("users.jsonl");
+		Files.writeString(file, """
+				{"username":"user1","password":"password1","displayName":"User One","roles":["USER"]}
+
+				{"username":"user2","password":"{bcrypt}$2a$10$tooShort"}
+				{"username":
+				{"password":"password3"}
+				{"username":"user4","password":"%s"}
+				""".formatted(HASH));
+
+		UserImportResult result = this.importer.importFile(file);
+
+		assertThat(result.read()).isEqualTo(5);
+		assertThat(result.imported()).isEqualTo(2);
+		assertThat(result.rejected()).isEqualTo(3);
+		assertThat(result.errors()).hasSize(3);
+		assertThat(result.errors().get(0)).isEqualTo("line 3: malformed BCrypt hash for user2");
+		assertThat(result.errors().get(1)).startsWith("line 4: ");
+		assertThat(result.errors().get(2)).isEqualTo("line 5: missing username");
+		assertThat(this.directory.findByUsername("user4").orElseThrow().password()).isEqualTo(HASH);
+	}
+
+	@Test
+	void shouldHashBatchesInParallelAndReplaceExistingUsers() throws IOException {
+		this.directory.save(new UserInfo("user0", HASH, "Old", List.of("ADMIN")));
+		StringBuilder csv = new StringBuilder("username,password\n");
+		for (int i = 0; i < 101; i++) {
+			csv.append("user").append(i).append(",password").append(i).append('\n');
+		}
+
+		UserImportResult result = this.importer.importUsers(stream(csv.toString()), Format.CSV, "test");
+
+		assertThat(result.imported()).isEqualTo(101);
+		assertThat(this.directory.findByUsername("user0"))
+			.contains(new UserInfo("user0", "{test}password0", "user0", List.of()));
+		assertThat(this.directory.findByUsername("user100")).isPresent();
+		assertThat(this.hashingThreads).allMatch(name -> name.startsWith("ForkJoinPool-"));
+		assertThat(result.usersPerSecond()).isPositive();
+	}
+
+	@Test
+	void shouldRejectCsvWithoutRequiredColumns() {
+		assertThatIllegalArgumentException().isThrownBy(
+				() -> this.importer.importUsers(stream("username,displayName\nuser1,User One\n"), Format.CSV, "test"))
+			.withMessageContaining("password");
+	}
+
+	@Test
+	void shouldRefuseReadOnlyDirectory() {
+		UserDirectory readOnly = new InMemoryUserDirectory() {
+
+			@Override
+			public boolean isReadOnly() {
+				return true;
+			}
+
+		};
+		UserImporter importer = new UserImporter(readOnly, this.passwordEncoder, new ObjectMapper(), 1, 10);
+
+		assertThatIllegalStateException()
+			.isThrownBy(() -> importer.importUsers(stream("username,password\n"), Format.CSV, "test"));
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
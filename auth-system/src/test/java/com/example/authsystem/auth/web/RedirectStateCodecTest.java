@@ -0,0 +1,72 @@
+package com.example.authsystem.auth.web;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import com.example.authsystem.AuthSystemProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link RedirectStateCodec}.
+ */
+class RedirectStateCodecTest {
+
+	private static final String REDIRECT_URL = "http://localhost:8080/callback?next=/orders%2F1";
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private RedirectStateCodec createCodec(Map<String, String> properties) {
+		AuthSystemProperties authSystemProperties = new Binder(new MapConfigurationPropertySource(properties))
+			.bindOrCreate("auth.system", AuthSystemProperties.class);
+		return new RedirectStateCodec(authSystemProperties, this.now::get);
+	}
+
+	@Test
+	void shouldRoundTripRedirectUrlUntilExpired() {
+		RedirectStateCodec codec = createCodec(Map.of("auth.system.redirect-state.max-age", "10m"));
+		String state = codec.encode(REDIRECT_URL);
+
+		assertThat(state).matches("[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+");
+		this.now.updateAndGet(instant -> instant.plus(Duration.ofMinutes(9)));
+		assertThat(codec.decode(state)).isEqualTo(REDIRECT_URL);
+		this.now.updateAndGet(instant -> instant.plus(Duration.ofMinutes(1)));
+		assertThat(codec.decode(state)).isNull();
+	}
+
+	@Test
+	void shouldRejectTamperedOrForeignStates() {
+		RedirectStateCodec codec = createCodec(Map.of());
+		String state = codec.encode(REDIRECT_URL);
+		String payload = state.substring(0, state.indexOf('.'));
+		String forged = createCodec(Map.of()).encode("https://evil.example.com");
+
+		assertThat(codec.decode(null)).isNull();
+		assertThat(codec.decode("")).isNull();
+		assertThat(codec.decode(payload)).isNull();
+		assertThat(codec.decode(payload + ".")).isNull();
+		assertThat(codec.decode(payload + ".%%%")).isNull();
+		assertThat(codec.decode(forged)).isNull();
+		assertThat(codec.decode(forged.substring(0, forged.indexOf('.')) + state.substring(state.indexOf('.'))))
+			.isNull();
+	}
+
+	@Test
+	void shouldShareStatesBetweenNodesWithTheSameSigningKey() {
+		Map<String, String> properties = Map.of("auth.system.redirect-state.signing-key",
+				"0123456789abcdef0123456789abcdef");
+		String state = createCodec(properties).encode(REDIRECT_URL);
+
+		assertThat(createCodec(properties).decode(state)).isEqualTo(REDIRECT_URL);
+		assertThatIllegalStateException()
+			.isThrownBy(() -> createCodec(Map.of("auth.system.redirect-state.signing-key", "too-short")));
+	}
+
+}
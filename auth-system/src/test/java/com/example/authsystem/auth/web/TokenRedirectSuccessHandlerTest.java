@@ -0,0 +1,113 @@
+package com.example.authsystem.auth.web;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.auth.InMemoryUserDirectory;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.token.ClusterTokenRouter;
+import com.example.authsystem.token.SignedTokenCodec;
+import com.example.authsystem.token.StripedTokenStore;
+import com.example.authsystem.token.TokenGenerator;
+import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenRedirectSuccessHandler}.
+ */
+class TokenRedirectSuccessHandlerTest {
+
+	private static final String REDIRECT_URL = "http://localhost:8080/dashboard?tab=1";
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private TokenService tokenService;
+
+	private RedirectStateCodec redirectStateCodec;
+
+	private TokenRedirectSuccessHandler createHandler(Map<String, String> properties) {
+		AuthSystemProperties authSystemProperties = new Binder(new MapConfigurationPropertySource(properties))
+			.bindOrCreate("auth.system", AuthSystemProperties.class);
+		InstantSource instantSource = this.now::get;
+		this.tokenService = new TokenService(new StripedTokenStore(4), new TokenGenerator(),
+				new ClusterTokenRouter(authSystemProperties, RestClient.builder()),
+				new SignedTokenCodec(authSystemProperties, new ObjectMapper()),
+				new UserService(InMemoryUserDirectory.withDemoUsers(NoOpPasswordEncoder.getInstance())),
+				authSystemProperties, instantSource);
+		this.redirectStateCodec = new RedirectStateCodec(authSystemProperties, instantSource);
+		return new TokenRedirectSuccessHandler(this.tokenService,
+				new RedirectOriginMatcher(Set.of("http://localhost:8080")), this.redirectStateCodec);
+	}
+
+	private String login(TokenRedirectSuccessHandler handler, String state) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+		if (state != null) {
+			request.setParameter("state", state);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.onAuthenticationSuccess(request, response, new TestingAuthenticationToken("user1", null));
+		return response.getRedirectedUrl();
+	}
+
+	@Test
+	void shouldRedirectStraightToApplicationWithToken() throws Exception {
+		TokenRedirectSuccessHandler handler = createHandler(Map.of());
+
+		String location = login(handler, this.redirectStateCodec.encode(REDIRECT_URL));
+
+		assertThat(location).startsWith(REDIRECT_URL + "&token=");
+		String token = UriComponentsBuilder.fromUriString(location).build().getQueryParams().getFirst("token");
+		assertThat(this.tokenService.validate(token)).isInstanceOfSatisfying(ValidateResult.Success.class,
+				success -> assertThat(success.userInfo().username()).isEqualTo("user1"));
+	}
+
+	@Test
+	void shouldFallBackToLoginSuccessWhenNoTokenCanBeIssued() throws Exception {
+		TokenRedirectSuccessHandler handler = createHandler(Map.of("auth.system.token-store.capacity", "0"));
+		String state = this.redirectStateCodec.encode(REDIRECT_URL);
+
+		String location = login(handler, state);
+
+		assertThat(location).startsWith("/login-success?state=");
+		assertThat(UriComponentsBuilder.fromUriString(location).build().getQueryParams().getFirst("state"))
+			.isEqualTo(state);
+		assertThat(this.tokenService.size()).isZero();
+	}
+
+	@Test
+	void shouldRedirectToTopPageWithoutTokenForBadStates() throws Exception {
+		TokenRedirectSuccessHandler handler = createHandler(Map.of());
+		String disallowed = this.redirectStateCodec.encode("https://evil.example.com/");
+		String valid = this.redirectStateCodec.encode(REDIRECT_URL);
+		String tampered = valid.substring(0, valid.indexOf('.') + 1) + "AAAA";
+		String blank = this.redirectStateCodec.encode(" ");
+
+		assertThat(login(handler, null)).isEqualTo("/");
+		assertThat(login(handler, "not-a-state")).isEqualTo("/");
+		assertThat(login(handler, tampered)).isEqualTo("/");
+		assertThat(login(handler, disallowed)).isEqualTo("/");
+		assertThat(login(handler, blank)).isEqualTo("/");
+		this.now.updateAndGet(instant -> instant.plus(Duration.ofDays(1)));
+		assertThat(login(handler, valid)).isEqualTo("/");
+		assertThat(this.tokenService.size()).isZero();
+	}
+
+}
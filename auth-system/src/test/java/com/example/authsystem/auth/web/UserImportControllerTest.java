@@ -0,0 +1,101 @@
+package com.example.authsystem.auth.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.authsystem.auth.UserImporter;
+import com.example.authsystem.auth.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link UserImportController} and the HTTP Basic security chain in front of
+ * it.
+ */
+@SpringBootTest(properties = { "auth.system.bcrypt.strength=4", "spring.devtools.restart.enabled=false" })
+@AutoConfigureMockMvc
+class UserImportControllerTest {
+
+	private static final String CSV = """
+			username,password,displayName,roles
+			imported1,secret1,Imported One,USER
+			""";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@MockitoSpyBean
+	private UserImporter userImporter;
+
+	private static MockHttpServletRequestBuilder importCsv(String body) {
+		return post("/api/users/import").contentType(MediaType.parseMediaType("text/csv")).content(body);
+	}
+
+	@Test
+	void shouldImportUsersForAdministratorWithoutCsrfTokenOrSession() throws Exception {
+		MvcResult result = this.mockMvc.perform(importCsv(CSV).with(httpBasic("admin1", "password1")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.read").value(1))
+			.andExpect(jsonPath("$.imported").value(1))
+			.andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE))
+			.andReturn();
+
+		assertThat(result.getRequest().getSession(false)).isNull();
+		assertThat(this.userService.findByUsername("imported1"))
+			.hasValueSatisfying(user -> assertThat(user.displayName()).isEqualTo("Imported One"));
+	}
+
+	@Test
+	void shouldChallengeMissingCredentialsWithoutRedirect() throws Exception {
+		this.mockMvc.perform(importCsv(CSV))
+			.andExpect(status().isUnauthorized())
+			.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"auth-system\""))
+			.andExpect(header().doesNotExist(HttpHeaders.LOCATION));
+	}
+
+	@Test
+	void shouldChallengeWrongPassword() throws Exception {
+		this.mockMvc.perform(importCsv(CSV).with(httpBasic("admin1", "wrong")))
+			.andExpect(status().isUnauthorized())
+			.andExpect(header().exists(HttpHeaders.WWW_AUTHENTICATE));
+	}
+
+	@Test
+	void shouldForbidNonAdministrators() throws Exception {
+		this.mockMvc.perform(importCsv(CSV).with(httpBasic("user1", "password1"))).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void shouldConflictWhileAnotherImportRuns() throws Exception {
+		doThrow(new IllegalStateException("Another user import is running")).when(this.userImporter)
+			.importUsers(any(), any(), any());
+
+		this.mockMvc.perform(importCsv(CSV).with(httpBasic("admin1", "password1"))).andExpect(status().isConflict());
+	}
+
+	@Test
+	void shouldRejectCsvWithoutRequiredColumns() throws Exception {
+		this.mockMvc
+			.perform(importCsv("username,displayName\nimported2,Imported Two\n").with(httpBasic("admin1", "password1")))
+			.andExpect(status().isBadRequest());
+	}
+
+}
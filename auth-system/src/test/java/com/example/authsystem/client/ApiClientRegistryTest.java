@@ -0,0 +1,100 @@
+package com.example.authsystem.client;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import com.example.authsystem.AuthSystemProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link ApiClientRegistry}.
+ */
+class ApiClientRegistryTest {
+
+	private static ApiClientRegistry createRegistry(Map<String, String> properties) {
+		return new ApiClientRegistry(new Binder(new MapConfigurationPropertySource(properties))
+			.bindOrCreate("auth.system", AuthSystemProperties.class));
+	}
+
+	@Test
+	void shouldAuthenticateClientsByApiKey() {
+		ApiClientRegistry registry = createRegistry(
+				Map.of("auth.system.clients.shop.api-key", "shop-key", "auth.system.clients.blog.api-key", "blog-key"));
+
+		assertThat(registry.authenticate("shop-key").getName()).isEqualTo("shop");
+		assertThat(registry.authenticate("blog-key").getName()).isEqualTo("blog");
+		assertThat(registry.authenticate("demo-shared-secret-key").getName())
+			.isEqualTo(ApiClientRegistry.DEFAULT_CLIENT);
+		assertThat(registry.authenticate("unknown-key")).isNull();
+		assertThat(registry.authenticate(null)).isNull();
+	}
+
+	@Test
+	void shouldThrottleOnlyTheClientOverItsQuota() {
+		ApiClientRegistry registry = createRegistry(Map.of("auth.system.clients.noisy.api-key", "noisy-key",
+				"auth.system.clients.noisy.requests-per-second", "1", "auth.system.clients.noisy.burst", "3",
+				"auth.system.clients.quiet.api-key", "quiet-key"));
+		ApiClient noisy = registry.authenticate("noisy-key");
+		ApiClient quiet = registry.authenticate("quiet-key");
+
+		assertThat(noisy.tryAcquire(3)).isTrue();
+		assertThat(noisy.tryAcquire(1)).isFalse();
+		assertThat(quiet.tryAcquire(1000)).isTrue();
+		assertThat(noisy.getAdmitted()).isEqualTo(3);
+		assertThat(noisy.getThrottled()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldAdmitBatchLargerThanBurstOnlyFromFullQuota() {
+		ApiClientRegistry registry = createRegistry(Map.of("auth.system.clients.batcher.api-key", "batcher-key",
+				"auth.system.clients.batcher.requests-per-second", "1"));
+		ApiClient batcher = registry.authenticate("batcher-key");
+
+		assertThat(batcher.tryAcquire(64)).isTrue();
+		assertThat(batcher.tryAcquire(1)).isFalse();
+		assertThat(batcher.tryAcquire(64)).isFalse();
+	}
+
+	@Test
+	void shouldApplyDefaultClientQuotaToApiSecret() {
+		ApiClientRegistry registry = createRegistry(Map.of("auth.system.clients.default.requests-per-second", "1",
+				"auth.system.clients.default.burst", "2"));
+		ApiClient client = registry.authenticate("demo-shared-secret-key");
+
+		assertThat(client.getName()).isEqualTo(ApiClientRegistry.DEFAULT_CLIENT);
+		assertThat(client.tryAcquire(2)).isTrue();
+		assertThat(client.tryAcquire(1)).isFalse();
+	}
+
+	@Test
+	void shouldDisableDefaultClientWithEmptyApiSecret() {
+		ApiClientRegistry registry = createRegistry(Map.of("auth.system.api-secret", ""));
+
+		assertThat(registry.authenticate("demo-shared-secret-key")).isNull();
+		assertThat(registry.getClients()).isEmpty();
+		assertThatIllegalStateException()
+			.isThrownBy(
+					() -> createRegistry(Map.of("auth.system.api-secret", "", "auth.system.cluster.enabled", "true")))
+			.withMessageContaining("required by cluster nodes");
+	}
+
+	@Test
+	void shouldRejectApiKeyForDefaultClient() {
+		assertThatIllegalStateException()
+			.isThrownBy(() -> createRegistry(Map.of("auth.system.clients.default.api-key", "other-key")))
+			.withMessageContaining("auth.system.api-secret");
+	}
+
+	@Test
+	void shouldRejectClientsSharingAnApiKey() {
+		assertThatIllegalStateException()
+			.isThrownBy(() -> createRegistry(Map.of("auth.system.clients.shop.api-key", "demo-shared-secret-key")))
+			.withMessageContaining("share the same API key");
+	}
+
+}
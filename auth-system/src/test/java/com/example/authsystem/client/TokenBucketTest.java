@@ -0,0 +1,86 @@
+package com.example.authsystem.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenBucket}.
+ */
+class TokenBucketTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void shouldAdmitBurstThenSustainedRate() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(bucket.tryAcquire(1, 0)).isTrue();
+		}
+		assertThat(bucket.tryAcquire(1, 0)).isFalse();
+
+		// One permit is emitted every 100ms
+		assertThat(bucket.tryAcquire(1, SECOND / 10)).isTrue();
+		assertThat(bucket.tryAcquire(1, SECOND / 10)).isFalse();
+
+		// An idle bucket refills up to the burst, not beyond it
+		assertThat(bucket.tryAcquire(5, 10 * SECOND)).isTrue();
+		assertThat(bucket.tryAcquire(1, 10 * SECOND)).isFalse();
+	}
+
+	@Test
+	void shouldAdmitPermitsWithinBurstWhileCovered() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		assertThat(bucket.tryAcquire(3, 0)).isTrue();
+		assertThat(bucket.tryAcquire(3, 0)).isFalse();
+		assertThat(bucket.tryAcquire(2, 0)).isTrue();
+	}
+
+	@Test
+	void shouldAdmitMorePermitsThanBurstFromFullBucketAsDebt() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		assertThat(bucket.tryAcquire(20, 0)).isTrue();
+
+		// The 15 permits beyond the burst take 1.5s to pay off, after which the bucket
+		// is empty and refills at the sustained rate
+		assertThat(bucket.tryAcquire(1, SECOND + SECOND / 2)).isFalse();
+		assertThat(bucket.tryAcquire(1, SECOND + 6 * SECOND / 10)).isTrue();
+	}
+
+	@Test
+	void shouldRejectMorePermitsThanBurstUntilBucketIsFull() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		assertThat(bucket.tryAcquire(1, 0)).isTrue();
+		assertThat(bucket.tryAcquire(6, 0)).isFalse();
+		assertThat(bucket.tryAcquire(6, SECOND / 10)).isTrue();
+	}
+
+	@Test
+	void shouldNotOverAdmitUnderContention() throws Exception {
+		TokenBucket bucket = new TokenBucket(1, 1000, 0);
+		AtomicInteger admitted = new AtomicInteger();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+			for (int i = 0; i < 8; i++) {
+				executor.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						if (bucket.tryAcquire(1, 0)) {
+							admitted.incrementAndGet();
+						}
+					}
+				});
+			}
+		}
+
+		assertThat(admitted).hasValue(1000);
+	}
+
+}
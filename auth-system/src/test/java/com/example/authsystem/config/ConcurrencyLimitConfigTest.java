@@ -0,0 +1,42 @@
+package com.example.authsystem.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.authsystem.limit.AdaptiveConcurrencyLimiter;
+import com.example.authsystem.limit.ConcurrencyLimitFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link ConcurrencyLimitConfig} with the concurrency limits disabled.
+ */
+@SpringBootTest(properties = { "auth.system.concurrency-limit.enabled=false", "auth.system.bcrypt.strength=4",
+		"spring.devtools.restart.enabled=false" })
+@AutoConfigureMockMvc
+class ConcurrencyLimitConfigTest {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void shouldStartAndReportReadyWithoutLimiters() throws Exception {
+		assertThat(this.context.getBeansOfType(AdaptiveConcurrencyLimiter.class)).isEmpty();
+		assertThat(this.context.getBeanNamesForType(ConcurrencyLimitFilter.class)).isEmpty();
+
+		this.mockMvc.perform(get("/actuator/health/readiness"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.status").value("UP"));
+	}
+
+}
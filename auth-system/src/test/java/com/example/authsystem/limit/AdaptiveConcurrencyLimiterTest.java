@@ -0,0 +1,82 @@
+package com.example.authsystem.limit;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimiter}.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long FAST = Duration.ofMillis(1).toNanos();
+
+	private static final long SLOW = Duration.ofMillis(10).toNanos();
+
+	/**
+	 * Runs rounds in which the limiter is filled to its limit and every request completes
+	 * with the given latency.
+	 */
+	private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long latencyNanos) {
+		for (int round = 0; round < rounds; round++) {
+			int admitted = 0;
+			while (limiter.tryAcquire()) {
+				admitted++;
+			}
+			for (int i = 0; i < admitted; i++) {
+				limiter.release(latencyNanos);
+			}
+		}
+	}
+
+	@Test
+	void shouldRejectRequestsBeyondLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+		assertThat(limiter.getRejected()).isEqualTo(1);
+		assertThat(limiter.isSaturated(Duration.ofSeconds(1).toNanos())).isTrue();
+
+		limiter.release(FAST);
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void shouldGrowLimitWhileSaturatedAndLatencyIsStable() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+		saturate(limiter, 20, FAST);
+
+		assertThat(limiter.getLimit()).isGreaterThan(10).isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	void shouldNotGrowLimitWhileMostlyIdle() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.tryAcquire();
+			limiter.release(FAST);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(10);
+		assertThat(limiter.isSaturated(Duration.ofSeconds(1).toNanos())).isFalse();
+	}
+
+	@Test
+	void shouldShrinkLimitWhenLatencyRises() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 2, 100);
+		saturate(limiter, 10, FAST);
+		int limitBeforeSlowdown = limiter.getLimit();
+
+		saturate(limiter, 10, SLOW);
+
+		assertThat(limiter.getLimit()).isLessThan(limitBeforeSlowdown / 2).isGreaterThanOrEqualTo(2);
+	}
+
+}
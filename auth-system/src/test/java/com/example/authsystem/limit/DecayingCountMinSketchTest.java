@@ -0,0 +1,94 @@
+package com.example.authsystem.limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DecayingCountMinSketch}.
+ */
+class DecayingCountMinSketchTest {
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final DecayingCountMinSketch sketch = new DecayingCountMinSketch(1024, Duration.ofMinutes(1),
+			this.now::get);
+
+	private void advance(Duration duration) {
+		this.now.updateAndGet(instant -> instant.plus(duration));
+	}
+
+	@Test
+	void shouldCountOccurrencesOfEachKey() {
+		for (int i = 0; i < 5; i++) {
+			this.sketch.add("alice");
+		}
+		this.sketch.add("bob");
+
+		assertThat(this.sketch.estimate("alice")).isEqualTo(5);
+		assertThat(this.sketch.estimate("bob")).isEqualTo(1);
+		assertThat(this.sketch.estimate("carol")).isZero();
+	}
+
+	@Test
+	void shouldFadeOutPreviousWindow() {
+		for (int i = 0; i < 10; i++) {
+			this.sketch.add("alice");
+		}
+		advance(Duration.ofSeconds(60));
+		assertThat(this.sketch.estimate("alice")).isEqualTo(10);
+
+		advance(Duration.ofSeconds(45));
+		assertThat(this.sketch.estimate("alice")).isEqualTo(2.5);
+
+		advance(Duration.ofSeconds(15));
+		assertThat(this.sketch.estimate("alice")).isZero();
+	}
+
+	@Test
+	void shouldForgetEverythingAfterIdleWindows() {
+		this.sketch.add("alice");
+		advance(Duration.ofMinutes(5).plusSeconds(1));
+
+		assertThat(this.sketch.estimate("alice")).isZero();
+	}
+
+	@Test
+	void shouldNeverUndercountWhenKeysOutnumberCounters() {
+		for (int i = 0; i < 100_000; i++) {
+			this.sketch.add("user" + i);
+		}
+		for (int i = 0; i < 20; i++) {
+			this.sketch.add("victim");
+		}
+
+		assertThat(this.sketch.size()).isEqualTo(2 * 4 * 1024);
+		assertThat(this.sketch.estimate("victim")).isGreaterThanOrEqualTo(20);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(this.sketch.estimate("user" + i)).isGreaterThanOrEqualTo(1);
+		}
+	}
+
+	@Test
+	void shouldIndexEachRowWithinItsOwnCounters() {
+		DecayingCountMinSketch sketch = new DecayingCountMinSketch(8, Duration.ofMinutes(1), this.now::get);
+		for (int i = 0; i < 1000; i++) {
+			int[] indexes = sketch.indexes("user" + i);
+			assertThat(indexes).hasSize(4);
+			for (int row = 0; row < indexes.length; row++) {
+				assertThat(indexes[row]).isBetween(row * 8, row * 8 + 7);
+			}
+		}
+	}
+
+	@Test
+	void shouldRoundWidthUpToPowerOfTwo() {
+		assertThat(new DecayingCountMinSketch(1000, Duration.ofMinutes(1), this.now::get).size())
+			.isEqualTo(2 * 4 * 1024);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.example.authsystem.limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LoginThrottle}.
+ */
+class LoginThrottleTest {
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final LoginThrottle throttle = new LoginThrottle(Duration.ofMinutes(5), 3, 10, 4096, this.now::get);
+
+	@Test
+	void shouldThrottleUsernameAfterMaxFailures() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(this.throttle.isThrottled("alice", "10.0.0." + i)).isFalse();
+			this.throttle.recordFailure("alice", "10.0.0." + i);
+		}
+
+		assertThat(this.throttle.isThrottled("Alice", "10.0.0.99")).isTrue();
+		assertThat(this.throttle.isThrottled("bob", "10.0.0.1")).isFalse();
+		assertThat(this.throttle.getThrottledUsernames()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldThrottleAddressAfterMaxFailures() {
+		for (int i = 0; i < 10; i++) {
+			this.throttle.recordFailure("user" + i, "10.0.0.1");
+		}
+
+		assertThat(this.throttle.isThrottled("someone", "10.0.0.1")).isTrue();
+		assertThat(this.throttle.isThrottled("someone", "10.0.0.2")).isFalse();
+		assertThat(this.throttle.getThrottledAddresses()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldCountIpv6AddressesByNetwork() {
+		for (int i = 0; i < 10; i++) {
+			this.throttle.recordFailure("user" + i, "2001:db8:1:2::" + Integer.toHexString(i + 1));
+		}
+
+		assertThat(this.throttle.isThrottled("someone", "2001:db8:1:2:ffff::1")).isTrue();
+		assertThat(this.throttle.isThrottled("someone", "2001:db8:1:3::1")).isFalse();
+	}
+
+	@Test
+	void shouldReleaseThrottleAfterWindow() {
+		for (int i = 0; i < 3; i++) {
+			this.throttle.recordFailure("alice", "10.0.0.1");
+		}
+		assertThat(this.throttle.isThrottled("alice", "10.0.0.1")).isTrue();
+
+		this.now.updateAndGet(instant -> instant.plus(Duration.ofMinutes(10)));
+
+		assertThat(this.throttle.isThrottled("alice", "10.0.0.1")).isFalse();
+	}
+
+	@Test
+	void shouldKeyAddresses() {
+		assertThat(LoginThrottle.addressKey("192.0.2.1")).isEqualTo("192.0.2.1");
+		assertThat(LoginThrottle.addressKey("2001:DB8:0:0:1:2:3:4")).isEqualTo("2001:db8:0:0:0:0:0:0/64");
+		assertThat(LoginThrottle.addressKey("0:0:0:0:0:0:0:1")).isEqualTo("0:0:0:0:0:0:0:0/64");
+	}
+
+}
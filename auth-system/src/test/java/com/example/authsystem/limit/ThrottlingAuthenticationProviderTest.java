@@ -0,0 +1,73 @@
+package com.example.authsystem.limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link ThrottlingAuthenticationProvider}.
+ */
+class ThrottlingAuthenticationProviderTest {
+
+	private final LoginThrottle throttle = new LoginThrottle(Duration.ofMinutes(5), 2, 10, 1024,
+			() -> Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final AtomicInteger verified = new AtomicInteger();
+
+	private final ThrottlingAuthenticationProvider provider = new ThrottlingAuthenticationProvider(
+			new AuthenticationProvider() {
+
+				@Override
+				public Authentication authenticate(Authentication authentication) {
+					ThrottlingAuthenticationProviderTest.this.verified.incrementAndGet();
+					if (!"secret".equals(authentication.getCredentials())) {
+						throw new BadCredentialsException("Bad credentials");
+					}
+					return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null, List.of());
+				}
+
+				@Override
+				public boolean supports(Class<?> authentication) {
+					return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+				}
+
+			}, this.throttle);
+
+	@Test
+	void shouldVerifyPasswordWhileUnderLimit() {
+		Authentication result = this.provider
+			.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret"));
+
+		assertThat(result.isAuthenticated()).isTrue();
+		assertThat(this.verified).hasValue(1);
+	}
+
+	@Test
+	void shouldRejectWithoutVerifyingPasswordOnceThrottled() {
+		this.throttle.recordFailure("alice", null);
+		this.throttle.recordFailure("alice", null);
+
+		assertThatExceptionOfType(LoginThrottledException.class)
+			.isThrownBy(() -> this.provider
+				.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret")))
+			.satisfies(ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(300));
+		assertThat(this.verified).hasValue(0);
+	}
+
+	@Test
+	void shouldSupportWhatDelegateSupports() {
+		assertThat(this.provider.supports(UsernamePasswordAuthenticationToken.class)).isTrue();
+		assertThat(this.provider.supports(Authentication.class)).isFalse();
+	}
+
+}
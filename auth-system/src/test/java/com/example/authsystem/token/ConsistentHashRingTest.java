@@ -0,0 +1,47 @@
+package com.example.authsystem.token;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConsistentHashRing}.
+ */
+class ConsistentHashRingTest {
+
+	private static final List<String> NODES = List.of("http://node-a:9999", "http://node-b:9999", "http://node-c:9999");
+
+	@Test
+	void shouldSpreadKeysEvenly() {
+		ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+		TokenGenerator tokenGenerator = new TokenGenerator();
+		Map<String, Integer> counts = new HashMap<>();
+
+		for (int i = 0; i < 30_000; i++) {
+			counts.merge(ring.ownerOf(tokenGenerator.generate()), 1, Integer::sum);
+		}
+
+		assertThat(counts).hasSize(3);
+		assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(7_000, 13_000));
+	}
+
+	@Test
+	void shouldOnlyMoveKeysOfRemovedNode() {
+		ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+		ConsistentHashRing after = new ConsistentHashRing(NODES.subList(0, 2), 128);
+		TokenGenerator tokenGenerator = new TokenGenerator();
+
+		for (int i = 0; i < 10_000; i++) {
+			String token = tokenGenerator.generate();
+			String owner = before.ownerOf(token);
+			if (!owner.equals(NODES.get(2))) {
+				assertThat(after.ownerOf(token)).isEqualTo(owner);
+			}
+		}
+	}
+
+}
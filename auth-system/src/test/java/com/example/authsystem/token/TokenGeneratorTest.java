@@ -0,0 +1,51 @@
+package com.example.authsystem.token;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TokenGenerator}.
+ */
+class TokenGeneratorTest {
+
+	private final TokenGenerator tokenGenerator = new TokenGenerator();
+
+	@Test
+	void shouldGenerateCanonicalUrlSafeTokens() {
+		for (int i = 0; i < 1000; i++) {
+			String token = this.tokenGenerator.generate();
+			assertThat(token).hasSize(TokenGenerator.TOKEN_LENGTH).matches("[A-Za-z0-9_-]+");
+			assertThat(CompactTokenStore.isCanonical(token)).isTrue();
+		}
+	}
+
+	@Test
+	void shouldGenerateDistinctTokensAcrossThreads() throws Exception {
+		int threads = 8;
+		int tokensPerThread = 1000;
+		Set<String> tokens = ConcurrentHashMap.newKeySet();
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			Callable<Void> task = () -> {
+				for (int i = 0; i < tokensPerThread; i++) {
+					tokens.add(this.tokenGenerator.generate());
+				}
+				return null;
+			};
+			for (Future<Void> future : executor.invokeAll(Collections.nCopies(threads, task))) {
+				future.get();
+			}
+		}
+
+		assertThat(tokens).hasSize(threads * tokensPerThread);
+	}
+
+}
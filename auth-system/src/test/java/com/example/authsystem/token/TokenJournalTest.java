@@ -0,0 +1,149 @@
+package com.example.authsystem.token;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link TokenJournal} and {@link JournalingTokenStore}.
+ */
+class TokenJournalTest {
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final InstantSource instantSource = this.now::get;
+
+	@TempDir
+	Path directory;
+
+	private Path journalPath() {
+		return this.directory.resolve("tokens.journal");
+	}
+
+	private TokenInfo token(String token, long expirySeconds) {
+		return new TokenInfo(token, "user1", this.now.get().plusSeconds(expirySeconds), false);
+	}
+
+	@Test
+	void shouldRestoreTokensAfterRestart() throws Exception {
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			store.put(token("unused", 60));
+			store.put(token("consumed", 60));
+			store.put(token("removed", 60));
+			store.put(token("expiring", 1));
+			store.consume("consumed");
+			store.remove("removed");
+		}
+
+		this.now.updateAndGet(instant -> instant.plusSeconds(2));
+
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			assertThat(store.size()).isEqualTo(2);
+			assertThat(store.consume("unused").used()).isFalse();
+			assertThat(store.consume("consumed").used()).isTrue();
+			assertThat(store.consume("removed")).isNull();
+			assertThat(store.consume("expiring")).isNull();
+		}
+	}
+
+	@Test
+	void shouldSkipLegacyTokensWhenRestoringIntoCompactStore() throws Exception {
+		String canonical = new TokenGenerator().generate();
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			store.put(token("123e4567-e89b-12d3-a456-426614174000", 60));
+			store.put(token(canonical, 60));
+		}
+
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new CompactTokenStore(4), journal);
+			assertThat(store.size()).isEqualTo(1);
+			assertThat(store.consume(canonical).used()).isFalse();
+		}
+	}
+
+	@Test
+	void shouldGrowAndCompactBeyondInitialSize() throws Exception {
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			TokenGenerator tokenGenerator = new TokenGenerator();
+			for (int i = 0; i < 5_000; i++) {
+				String token = tokenGenerator.generate();
+				store.put(token(token, 60));
+				if (i % 2 == 0) {
+					store.remove(token);
+				}
+			}
+			journal.compact();
+		}
+
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			assertThat(journal.recover()).hasSize(2_500);
+		}
+	}
+
+	@Test
+	void shouldJournalOnlyConsumesAndRemovesThatTakeEffect() throws Exception {
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			store.put(token("consumed", 60));
+			store.put(token("removed", 60));
+			assertThat(store.consume("consumed").used()).isFalse();
+			assertThat(store.remove("removed")).isNotNull();
+			for (int i = 0; i < 1_000; i++) {
+				assertThat(store.consume("consumed").used()).isTrue();
+				assertThat(store.consume("unknown")).isNull();
+				assertThat(store.remove("removed")).isNull();
+			}
+		}
+
+		assertThat(Files.size(journalPath())).isEqualTo(4096);
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			assertThat(journal.recover()).singleElement().satisfies(tokenInfo -> {
+				assertThat(tokenInfo.token()).isEqualTo("consumed");
+				assertThat(tokenInfo.used()).isTrue();
+			});
+		}
+	}
+
+	@Test
+	void shouldKeepEventsRecordedWhileCompacting() throws Exception {
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			TokenStore store = new JournalingTokenStore(new StripedTokenStore(4), journal);
+			TokenGenerator tokenGenerator = new TokenGenerator();
+			CompletableFuture<Void> issuing = CompletableFuture.runAsync(() -> {
+				for (int i = 0; i < 20_000; i++) {
+					store.put(token(tokenGenerator.generate(), 60));
+				}
+			});
+			while (!issuing.isDone()) {
+				journal.compact();
+			}
+			issuing.join();
+		}
+
+		try (TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource)) {
+			assertThat(journal.recover()).hasSize(20_000);
+		}
+	}
+
+	@Test
+	void shouldRejectEventsAfterClose() throws Exception {
+		TokenJournal journal = new TokenJournal(journalPath(), 4096, this.instantSource);
+		journal.close();
+
+		assertThatIllegalStateException().isThrownBy(() -> journal.removed("token"));
+	}
+
+}
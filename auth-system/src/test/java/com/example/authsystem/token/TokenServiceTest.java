@@ -0,0 +1,210 @@
+package com.example.authsystem.token;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.web.client.RestClient;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.auth.InMemoryUserDirectory;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link TokenService} driven by a controllable clock.
+ */
+class TokenServiceTest {
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private TokenService tokenService;
+
+	@BeforeEach
+	void setUp() {
+		this.tokenService = createTokenService(Map.of());
+	}
+
+	private TokenService createTokenService(Map<String, String> properties) {
+		AuthSystemProperties authSystemProperties = new Binder(new MapConfigurationPropertySource(properties))
+			.bindOrCreate("auth.system", AuthSystemProperties.class);
+		InstantSource instantSource = this.now::get;
+		return new TokenService(new StripedTokenStore(4), new TokenGenerator(),
+				new ClusterTokenRouter(authSystemProperties, RestClient.builder()),
+				new SignedTokenCodec(authSystemProperties, new ObjectMapper()),
+				new UserService(InMemoryUserDirectory.withDemoUsers(NoOpPasswordEncoder.getInstance())),
+				authSystemProperties, instantSource);
+	}
+
+	private void advance(Duration duration) {
+		this.now.updateAndGet(instant -> instant.plus(duration));
+	}
+
+	@Test
+	void shouldRejectExpiredToken() {
+		String token = this.tokenService.generateToken("user1");
+
+		advance(Duration.ofMinutes(6));
+
+		assertThat(this.tokenService.validate(token)).isEqualTo(new ValidateResult.Failure("TOKEN_EXPIRED"));
+	}
+
+	@Test
+	void shouldKeepTokensThatHaveNotExpired() {
+		this.tokenService.generateToken("user1");
+		this.tokenService.generateToken("user2");
+
+		advance(Duration.ofMinutes(4));
+
+		assertThat(this.tokenService.evictExpired()).isZero();
+		assertThat(this.tokenService.size()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldEvictOnlyExpiredTokens() {
+		String first = this.tokenService.generateToken("user1");
+		advance(Duration.ofMinutes(2));
+		String second = this.tokenService.generateToken("user2");
+
+		advance(Duration.ofMinutes(4));
+
+		assertThat(this.tokenService.evictExpired()).isEqualTo(1);
+		assertThat(this.tokenService.size()).isEqualTo(1);
+		assertThat(this.tokenService.validate(first)).isEqualTo(new ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(second)).isInstanceOf(ValidateResult.Success.class);
+	}
+
+	@Test
+	void shouldEvictUsedTokensOnceExpired() {
+		String token = this.tokenService.generateToken("user1");
+		assertThat(this.tokenService.validate(token)).isInstanceOf(ValidateResult.Success.class);
+
+		advance(Duration.ofMinutes(6));
+
+		assertThat(this.tokenService.evictExpired()).isEqualTo(1);
+		assertThat(this.tokenService.size()).isZero();
+	}
+
+	@Test
+	void shouldRevokeOnlyOutstandingTokensOfUser() {
+		String used = this.tokenService.generateToken("user1");
+		String first = this.tokenService.generateToken("user1");
+		String second = this.tokenService.generateToken("user1");
+		String other = this.tokenService.generateToken("user2");
+		this.tokenService.validate(used);
+
+		assertThat(this.tokenService.revokeTokens("user1")).isEqualTo(2);
+		assertThat(this.tokenService.revokeTokens("user1")).isZero();
+		assertThat(this.tokenService.validate(first)).isEqualTo(new ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(second)).isEqualTo(new ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(other)).isInstanceOf(ValidateResult.Success.class);
+	}
+
+	@Test
+	void shouldDropOldestTokenWhenUserExceedsQuota() {
+		this.tokenService = createTokenService(Map.of("auth.system.token-store.max-tokens-per-user", "2"));
+		String oldest = this.tokenService.generateToken("user1");
+		String middle = this.tokenService.generateToken("user1");
+		String newest = this.tokenService.generateToken("user1");
+
+		assertThat(this.tokenService.size()).isEqualTo(2);
+		assertThat(this.tokenService.validate(oldest)).isEqualTo(new ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(middle)).isInstanceOf(ValidateResult.Success.class);
+		assertThat(this.tokenService.validate(newest)).isInstanceOf(ValidateResult.Success.class);
+	}
+
+	@Test
+	void shouldRejectTokensAtCapacity() {
+		this.tokenService = createTokenService(Map.of("auth.system.token-store.capacity", "2"));
+		this.tokenService.generateToken("user1");
+		this.tokenService.generateToken("user2");
+
+		assertThatExceptionOfType(TokenCapacityExceededException.class)
+			.isThrownBy(() -> this.tokenService.generateToken("admin1"));
+	}
+
+	@Test
+	void shouldEvictSoonestExpiringTokenAtCapacity() {
+		this.tokenService = createTokenService(Map.of("auth.system.token-store.capacity", "2",
+				"auth.system.token-store.overload-policy", "evict-soonest-expiring"));
+		String first = this.tokenService.generateToken("user1");
+		advance(Duration.ofSeconds(1));
+		String second = this.tokenService.generateToken("user2");
+		advance(Duration.ofSeconds(1));
+		String third = this.tokenService.generateToken("admin1");
+
+		assertThat(this.tokenService.size()).isEqualTo(2);
+		assertThat(this.tokenService.validate(first)).isEqualTo(new ValidateResult.Failure("TOKEN_NOT_FOUND"));
+		assertThat(this.tokenService.validate(second)).isInstanceOf(ValidateResult.Success.class);
+		assertThat(this.tokenService.validate(third)).isInstanceOf(ValidateResult.Success.class);
+	}
+
+	@Test
+	void shouldIssueSignedTokensThatValidateByTheirId() throws Exception {
+		this.tokenService = createTokenService(Map.of("auth.system.signed-tokens.enabled", "true",
+				"auth.system.signed-tokens.signing-key", "0123456789abcdef0123456789abcdef"));
+		String token = this.tokenService.generateToken("admin1");
+
+		String[] parts = token.split("\\.");
+		assertThat(parts).hasSize(3);
+		assertThat(parts[0]).hasSize(TokenGenerator.TOKEN_LENGTH);
+		SignedTokenCodec.Claims claims = new ObjectMapper().readValue(Base64.getUrlDecoder().decode(parts[1]),
+				SignedTokenCodec.Claims.class);
+		assertThat(claims.sub()).isEqualTo("admin1");
+		assertThat(claims.roles()).contains("ADMIN");
+		assertThat(claims.exp()).isEqualTo(this.now.get().plus(Duration.ofMinutes(5)).getEpochSecond());
+
+		assertThat(this.tokenService.validate(token)).isInstanceOf(ValidateResult.Success.class);
+		assertThat(this.tokenService.validate(parts[0])).isEqualTo(new ValidateResult.Failure("TOKEN_ALREADY_USED"));
+	}
+
+	@Test
+	void shouldAllowExactlyOneConcurrentValidation() throws Exception {
+		int threads = 32;
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			for (int round = 0; round < 200; round++) {
+				String token = this.tokenService.generateToken("user1");
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<ValidateResult>> results = new ArrayList<>();
+				for (int i = 0; i < threads; i++) {
+					results.add(executor.submit(() -> {
+						start.await();
+						return this.tokenService.validate(token);
+					}));
+				}
+				start.countDown();
+
+				int successes = 0;
+				for (Future<ValidateResult> result : results) {
+					ValidateResult validateResult = result.get();
+					if (validateResult instanceof ValidateResult.Success) {
+						successes++;
+					}
+					else {
+						assertThat(validateResult).isEqualTo(new ValidateResult.Failure("TOKEN_ALREADY_USED"));
+					}
+				}
+				assertThat(successes).isEqualTo(1);
+			}
+		}
+	}
+
+}
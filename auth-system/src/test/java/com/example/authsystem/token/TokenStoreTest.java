@@ -0,0 +1,189 @@
+package com.example.authsystem.token;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.argumentSet;
+
+/**
+ * Contract tests run against every {@link TokenStore} implementation.
+ */
+class TokenStoreTest {
+
+	private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+	static Stream<Arguments> tokenStores() {
+		return Stream.of(argumentSet("concurrent-map", (Supplier<TokenStore>) ConcurrentMapTokenStore::new),
+				argumentSet("striped", (Supplier<TokenStore>) () -> new StripedTokenStore(8)),
+				argumentSet("compact", (Supplier<TokenStore>) () -> new CompactTokenStore(8)));
+	}
+
+	private static String id(int index) {
+		byte[] bytes = ByteBuffer.allocate(16).putLong(0x5eedL << 48 | index).putLong(~index).array();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private static TokenInfo token(String token, Instant expiry) {
+		return new TokenInfo(token, "user1", expiry, false);
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldConsumeTokenOnce(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		store.put(token(id(0), NOW.plusSeconds(60)));
+
+		TokenInfo first = store.consume(id(0));
+		TokenInfo second = store.consume(id(0));
+
+		assertThat(first.used()).isFalse();
+		assertThat(second.used()).isTrue();
+		assertThat(store.consume(id(1))).isNull();
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldRemoveToken(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		store.put(token(id(0), NOW.plusSeconds(60)));
+
+		assertThat(store.remove(id(0))).isNotNull();
+		assertThat(store.remove(id(0))).isNull();
+		assertThat(store.size()).isZero();
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldKeepTokensFindableAcrossGrowthAndRemoval(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		for (int i = 0; i < 10_000; i++) {
+			store.put(token(id(i), NOW.plusSeconds(60)));
+		}
+		for (int i = 0; i < 10_000; i += 3) {
+			assertThat(store.remove(id(i))).isNotNull();
+		}
+
+		assertThat(store.size()).isEqualTo(6_666);
+		for (int i = 0; i < 10_000; i++) {
+			TokenInfo tokenInfo = store.consume(id(i));
+			if (i % 3 == 0) {
+				assertThat(tokenInfo).isNull();
+			}
+			else {
+				assertThat(tokenInfo).isEqualTo(token(id(i), NOW.plusSeconds(60)));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldEvictExpiredTokensOnly(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		for (int i = 0; i < 100; i++) {
+			store.put(token(id(i), NOW.plusSeconds(i)));
+		}
+		store.consume(id(10));
+		store.remove(id(20));
+		List<TokenInfo> evicted = new ArrayList<>();
+
+		assertThat(store.evictExpired(NOW.plusSeconds(49).plusMillis(500), evicted::add)).isEqualTo(49);
+		assertThat(evicted).hasSize(49).contains(token(id(10), NOW.plusSeconds(10)).markAsUsed());
+		assertThat(store.size()).isEqualTo(50);
+		assertThat(store.consume(id(49))).isNull();
+		assertThat(store.consume(id(50))).isNotNull();
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldEvictSoonestExpiringToken(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		for (int i = 0; i < 20; i++) {
+			store.put(token(id(i), NOW.plusSeconds(i)));
+		}
+		store.remove(id(0));
+
+		assertThat(store.evictSoonestExpiring()).isEqualTo(token(id(1), NOW.plusSeconds(1)));
+		assertThat(store.evictSoonestExpiring()).isEqualTo(token(id(2), NOW.plusSeconds(2)));
+		assertThat(store.size()).isEqualTo(17);
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldVisitEveryToken(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		for (int i = 0; i < 100; i++) {
+			store.put(token(id(i), NOW.plusSeconds(60)));
+		}
+		List<TokenInfo> visited = new ArrayList<>();
+
+		store.forEach(visited::add);
+
+		assertThat(visited).hasSize(100).contains(token(id(42), NOW.plusSeconds(60)));
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldRoundTripGeneratedTokens(Supplier<TokenStore> storeFactory) {
+		TokenStore store = storeFactory.get();
+		TokenGenerator tokenGenerator = new TokenGenerator();
+		List<TokenInfo> tokens = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			TokenInfo tokenInfo = token(tokenGenerator.generate(), NOW.plusSeconds(60));
+			tokens.add(tokenInfo);
+			store.put(tokenInfo);
+		}
+		List<TokenInfo> visited = new ArrayList<>();
+
+		store.forEach(visited::add);
+
+		assertThat(visited).containsExactlyInAnyOrderElementsOf(tokens);
+		for (TokenInfo tokenInfo : tokens) {
+			assertThat(store.consume(tokenInfo.token())).isEqualTo(tokenInfo);
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("tokenStores")
+	void shouldAllowExactlyOneConcurrentConsume(Supplier<TokenStore> storeFactory) throws Exception {
+		TokenStore store = storeFactory.get();
+		int threads = 16;
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			for (int round = 0; round < 100; round++) {
+				String token = id(round);
+				store.put(token(token, NOW.plusSeconds(60)));
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<TokenInfo>> results = new ArrayList<>();
+				for (int i = 0; i < threads; i++) {
+					results.add(executor.submit(() -> {
+						start.await();
+						return store.consume(token);
+					}));
+				}
+				start.countDown();
+
+				int winners = 0;
+				for (Future<TokenInfo> result : results) {
+					if (!result.get().used()) {
+						winners++;
+					}
+				}
+				assertThat(winners).isEqualTo(1);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.example.authsystem.token;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link UserTokenIndex}.
+ */
+class UserTokenIndexTest {
+
+	private final TokenGenerator tokenGenerator = new TokenGenerator();
+
+	private final UserTokenIndex index = new UserTokenIndex();
+
+	@Test
+	void shouldDropOldestTokenBeyondLimit() {
+		String first = this.tokenGenerator.generate();
+		String second = this.tokenGenerator.generate();
+		String third = this.tokenGenerator.generate();
+
+		assertThat(this.index.add("user1", first, 2)).isNull();
+		assertThat(this.index.add("user1", second, 2)).isNull();
+		assertThat(this.index.add("user1", third, 2)).isEqualTo(first);
+
+		assertThat(this.index.removeAll("user1")).containsExactly(second, third);
+		assertThat(this.index.removeAll("user1")).isEmpty();
+	}
+
+	@Test
+	void shouldRemoveTokensAndDropUsersWithoutTokens() {
+		String first = this.tokenGenerator.generate();
+		String second = this.tokenGenerator.generate();
+		this.index.add("user1", first);
+		this.index.add("user1", second);
+		this.index.add("user2", this.tokenGenerator.generate());
+
+		this.index.remove("user1", first);
+		this.index.remove("user1", this.tokenGenerator.generate());
+		assertThat(this.index.removeAll("user1")).containsExactly(second);
+
+		this.index.add("user1", first);
+		this.index.remove("user1", first);
+		assertThat(this.index.add("user1", second, 1)).isNull();
+	}
+
+	@Test
+	void shouldKeepNonCanonicalTokensAsOldest() {
+		String legacy = "123e4567-e89b-12d3-a456-426614174000";
+		String canonical = this.tokenGenerator.generate();
+		this.index.add("user1", canonical);
+		this.index.add("user1", legacy);
+
+		assertThat(this.index.add("user1", this.tokenGenerator.generate(), 2)).isEqualTo(legacy);
+		this.index.add("user1", legacy);
+		this.index.remove("user1", legacy);
+		assertThat(this.index.removeAll("user1")).hasSize(2).startsWith(canonical);
+	}
+
+}
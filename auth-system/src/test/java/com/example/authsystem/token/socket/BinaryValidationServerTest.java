@@ -0,0 +1,120 @@
+package com.example.authsystem.token.socket;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.InstantSource;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.web.client.RestClient;
+
+import com.example.authsystem.AuthSystemProperties;
+import com.example.authsystem.auth.InMemoryUserDirectory;
+import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.client.ApiClientRegistry;
+import com.example.authsystem.token.ClusterTokenRouter;
+import com.example.authsystem.token.SignedTokenCodec;
+import com.example.authsystem.token.StripedTokenStore;
+import com.example.authsystem.token.TokenGenerator;
+import com.example.authsystem.token.TokenService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BinaryValidationServer} over a Unix domain socket.
+ */
+class BinaryValidationServerTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path socketPath;
+
+	private TokenService tokenService;
+
+	private BinaryValidationServer server;
+
+	@BeforeEach
+	void setUp() {
+		this.socketPath = this.tempDir.resolve("auth.sock");
+		AuthSystemProperties properties = new Binder(
+				new MapConfigurationPropertySource(Map.of("auth.system.binary-protocol.enabled", "true",
+						"auth.system.binary-protocol.socket-path", this.socketPath.toString())))
+			.bindOrCreate("auth.system", AuthSystemProperties.class);
+		this.tokenService = new TokenService(new StripedTokenStore(4), new TokenGenerator(),
+				new ClusterTokenRouter(properties, RestClient.builder()),
+				new SignedTokenCodec(properties, new ObjectMapper()),
+				new UserService(InMemoryUserDirectory.withDemoUsers(NoOpPasswordEncoder.getInstance())), properties,
+				InstantSource.system());
+		this.server = new BinaryValidationServer(this.tokenService, new ApiClientRegistry(properties), properties);
+		this.server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.server.stop();
+	}
+
+	private SocketChannel connect(String apiKey) throws IOException {
+		SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+		channel.connect(UnixDomainSocketAddress.of(this.socketPath));
+		DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+		out.writeByte(BinaryValidationProtocol.VERSION);
+		out.writeUTF(apiKey);
+		return channel;
+	}
+
+	@Test
+	void shouldValidateTokensOverPersistentConnection() throws IOException {
+		String admin = this.tokenService.generateToken("admin1");
+		String user = this.tokenService.generateToken("user2");
+
+		try (SocketChannel channel = connect("demo-shared-secret-key")) {
+			DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+			DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+			assertThat(in.readUnsignedByte()).isEqualTo(BinaryValidationProtocol.HANDSHAKE_OK);
+
+			// Pipeline three requests before reading any response
+			for (String token : new String[] { admin, user, admin }) {
+				out.writeByte(BinaryValidationProtocol.OP_VALIDATE);
+				out.writeUTF(token);
+			}
+
+			ValidateResult first = BinaryValidationProtocol.readResult(in);
+			assertThat(first).isInstanceOfSatisfying(ValidateResult.Success.class, success -> {
+				UserInfo userInfo = success.userInfo();
+				assertThat(userInfo.username()).isEqualTo("admin1");
+				assertThat(userInfo.displayName()).isEqualTo("Admin One");
+				assertThat(userInfo.roles()).containsExactly("USER", "ADMIN");
+			});
+			assertThat(BinaryValidationProtocol.readResult(in)).isInstanceOf(ValidateResult.Success.class);
+			assertThat(BinaryValidationProtocol.readResult(in))
+				.isEqualTo(new ValidateResult.Failure("TOKEN_ALREADY_USED"));
+		}
+	}
+
+	@Test
+	void shouldRejectInvalidApiKey() throws IOException {
+		try (SocketChannel channel = connect("wrong-api-key")) {
+			DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+			assertThat(in.readUnsignedByte()).isEqualTo(BinaryValidationProtocol.HANDSHAKE_REJECTED);
+			assertThat(in.read()).isEqualTo(-1);
+		}
+	}
+
+}
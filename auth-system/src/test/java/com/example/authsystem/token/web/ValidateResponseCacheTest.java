@@ -0,0 +1,92 @@
+package com.example.authsystem.token.web;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import com.example.authsystem.auth.InMemoryUserDirectory;
+import com.example.authsystem.auth.UserInfo;
+import com.example.authsystem.auth.UserService;
+import com.example.authsystem.token.TokenService.ValidateResult;
+import com.example.authsystem.token.ValidateBatchResponse;
+import com.example.authsystem.token.ValidateResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ValidateResponseCache}.
+ */
+class ValidateResponseCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ValidateResponseCache cache = new ValidateResponseCache(this.objectMapper, 100);
+
+	@Test
+	void shouldEncodeLikeJackson() throws Exception {
+		UserInfo userInfo = new UserInfo("admin1", "{noop}password1", "Admin One", List.of("USER", "ADMIN"));
+
+		assertThat(this.cache.encode(new ValidateResult.Success(userInfo)))
+			.isEqualTo(this.objectMapper.writeValueAsBytes(ValidateResponse.success(userInfo)));
+		assertThat(this.cache.encode(new ValidateResult.Failure("TOKEN_EXPIRED")))
+			.isEqualTo(this.objectMapper.writeValueAsBytes(ValidateResponse.failure("TOKEN_EXPIRED")));
+	}
+
+	@Test
+	void shouldReuseEncodingUntilUserChanges() throws Exception {
+		UserInfo userInfo = new UserInfo("user1", "{noop}password1", "User One", List.of("USER"));
+		byte[] first = this.cache.encode(new ValidateResult.Success(userInfo));
+
+		UserInfo sameClaims = new UserInfo("user1", null, "User One", List.of("USER"));
+		assertThat(this.cache.encode(new ValidateResult.Success(sameClaims))).isSameAs(first);
+
+		UserInfo promoted = new UserInfo("user1", "{noop}password1", "User One", List.of("USER", "ADMIN"));
+		ValidateResponse response = this.objectMapper.readValue(this.cache.encode(new ValidateResult.Success(promoted)),
+				ValidateResponse.class);
+		assertThat(response.roles()).containsExactly("USER", "ADMIN");
+	}
+
+	@Test
+	void shouldEvictUsersRegisteredThroughUserService() {
+		UserService userService = new UserService(new InMemoryUserDirectory());
+		ValidateResponseCache cache = new ValidateResponseCache(this.objectMapper, userService);
+		UserInfo userInfo = new UserInfo("user1", "{noop}password1", "User One", List.of("USER"));
+		byte[] first = cache.encode(new ValidateResult.Success(userInfo));
+		assertThat(cache.encode(new ValidateResult.Success(userInfo))).isSameAs(first);
+
+		userService.registerUser(userInfo);
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.encode(new ValidateResult.Success(userInfo))).isNotSameAs(first).isEqualTo(first);
+	}
+
+	@Test
+	void shouldBoundCachedUsersAndKeepRecentlyUsedOnes() {
+		UserInfo hot = new UserInfo("hot", null, "Hot", List.of("USER"));
+		byte[] first = this.cache.encode(new ValidateResult.Success(hot));
+
+		for (int i = 0; i < 1000; i++) {
+			this.cache.encode(new ValidateResult.Success(new UserInfo("user" + i, null, "User " + i, List.of())));
+			this.cache.encode(new ValidateResult.Success(hot));
+		}
+
+		assertThat(this.cache.size()).isLessThanOrEqualTo(100);
+		assertThat(this.cache.encode(new ValidateResult.Success(hot))).isSameAs(first);
+	}
+
+	@Test
+	void shouldEncodeBatchInOrder() throws Exception {
+		UserInfo userInfo = new UserInfo("user2", "{noop}password2", "User Two", List.of("USER"));
+
+		ValidateBatchResponse response = this.objectMapper.readValue(
+				this.cache.encodeAll(
+						List.of(new ValidateResult.Failure("TOKEN_NOT_FOUND"), new ValidateResult.Success(userInfo))),
+				ValidateBatchResponse.class);
+
+		assertThat(response.results()).containsExactly(ValidateResponse.failure("TOKEN_NOT_FOUND"),
+				ValidateResponse.success(userInfo));
+		assertThat(this.cache.encodeAll(List.of())).asString().isEqualTo("{\"results\":[]}");
+	}
+
+}
@@ -1,12 +1,32 @@
 package com.example.demo;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
 /**
  * Configuration properties for Demo App.
+ *
+ * @param authSystemUrl the base URL of the auth system
+ * @param authSystemApiKey the API key sent to the auth system's validation API
+ * @param tokenSigningKey the key shared with the auth system for verifying signed tokens
+ * locally; {@code null} validates every token with the auth system
+ * @param tokenMaxLifetime the longest remaining lifetime a signed token may claim, which
+ * also bounds how long used tokens are remembered to prevent replay
+ * @param validationBatchWindow how long to gather concurrent token validations into one
+ * batch request; {@code 0} validates each token with its own request
+ * @param validationBatchSize the maximum number of tokens in one batch request
+ * @param authSystemBinaryEndpoint the auth system's binary validation endpoint, either
+ * {@code unix:/path/to/socket} or {@code tcp://host:port}; {@code null} validates tokens
+ * over HTTP
+ * @param authSystemBinaryTimeout how long a binary validation waits for auth-system on
+ * each read or write before failing
  */
 @ConfigurationProperties(prefix = "demo.app")
-public record DemoAppProperties(String authSystemUrl, String authSystemApiKey) {
+public record DemoAppProperties(String authSystemUrl, String authSystemApiKey, String tokenSigningKey,
+		@DefaultValue("5m") Duration tokenMaxLifetime, @DefaultValue("0ms") Duration validationBatchWindow,
+		@DefaultValue("64") int validationBatchSize, String authSystemBinaryEndpoint,
+		@DefaultValue("5s") Duration authSystemBinaryTimeout) {
 
 }
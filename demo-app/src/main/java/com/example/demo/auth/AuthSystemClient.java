@@ -1,6 +1,9 @@
 package com.example.demo.auth;
 
+import java.util.List;
+
 import com.example.demo.DemoAppProperties;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
@@ -8,13 +11,18 @@ import org.springframework.web.client.RestClient;
 /**
  * Client for communicating with the Auth System.
  * <p>
+ * When {@code demo.app.auth-system-binary-endpoint} is set, tokens are validated over the
+ * {@link BinaryValidationTransport}. Otherwise, when
+ * {@code demo.app.validation-batch-window} is set, concurrent token validations are
+ * coalesced into batch requests by a {@link ValidationBatcher}.
+ * <p>
  * Uses {@link ObjectProvider} for deferred resolution of {@link DemoAppProperties} to
  * ensure dynamic property values from
  * {@link org.springframework.test.context.DynamicPropertyRegistrar} are properly bound
  * during tests.
  */
 @Service
-public class AuthSystemClient {
+public class AuthSystemClient implements DisposableBean {
 
 	private static final String API_KEY_HEADER = "X-API-Key";
 
@@ -24,6 +32,10 @@ public class AuthSystemClient {
 
 	private volatile RestClient restClient;
 
+	private volatile ValidationBatcher validationBatcher;
+
+	private volatile BinaryValidationTransport binaryTransport;
+
 	public AuthSystemClient(RestClient.Builder builder, ObjectProvider<DemoAppProperties> propertiesProvider) {
 		this.restClientBuilder = builder;
 		this.propertiesProvider = propertiesProvider;
@@ -35,6 +47,14 @@ public class AuthSystemClient {
 	 * @return the validation response
 	 */
 	public ValidateResponse validateToken(String token) {
+		BinaryValidationTransport transport = getBinaryTransport();
+		if (transport != null) {
+			return transport.validate(token);
+		}
+		ValidationBatcher batcher = getValidationBatcher();
+		if (batcher != null) {
+			return batcher.validate(token);
+		}
 		return getRestClient().get()
 			.uri("/api/validate?token={token}", token)
 			.header(API_KEY_HEADER, this.propertiesProvider.getObject().authSystemApiKey())
@@ -42,6 +62,79 @@ public class AuthSystemClient {
 			.body(ValidateResponse.class);
 	}
 
+	/**
+	 * Validates several tokens with one request to the auth system.
+	 * @param tokens the tokens to validate
+	 * @return the validation responses, in the order of the tokens
+	 */
+	public List<ValidateResponse> validateTokens(List<String> tokens) {
+		ValidateBatchResponse response = getRestClient().post()
+			.uri("/api/validate/batch")
+			.header(API_KEY_HEADER, this.propertiesProvider.getObject().authSystemApiKey())
+			.body(new ValidateBatchRequest(tokens))
+			.retrieve()
+			.body(ValidateBatchResponse.class);
+		return (response != null) ? response.results() : null;
+	}
+
+	@Override
+	public void destroy() {
+		ValidationBatcher batcher = this.validationBatcher;
+		if (batcher != null) {
+			batcher.close();
+		}
+		BinaryValidationTransport transport = this.binaryTransport;
+		if (transport != null) {
+			transport.close();
+		}
+	}
+
+	/**
+	 * Returns the binary validation transport, creating it lazily on first access.
+	 * @return the transport, or {@code null} if tokens are validated over HTTP
+	 */
+	private BinaryValidationTransport getBinaryTransport() {
+		BinaryValidationTransport transport = this.binaryTransport;
+		if (transport == null) {
+			DemoAppProperties properties = this.propertiesProvider.getObject();
+			if (properties.authSystemBinaryEndpoint() == null) {
+				return null;
+			}
+			synchronized (this) {
+				transport = this.binaryTransport;
+				if (transport == null) {
+					transport = new BinaryValidationTransport(properties.authSystemBinaryEndpoint(),
+							properties.authSystemApiKey(), properties.authSystemBinaryTimeout());
+					this.binaryTransport = transport;
+				}
+			}
+		}
+		return transport;
+	}
+
+	/**
+	 * Returns the batcher for token validations, creating it lazily on first access.
+	 * @return the batcher, or {@code null} if batching is disabled
+	 */
+	private ValidationBatcher getValidationBatcher() {
+		ValidationBatcher batcher = this.validationBatcher;
+		if (batcher == null) {
+			DemoAppProperties properties = this.propertiesProvider.getObject();
+			if (properties.validationBatchWindow().isZero()) {
+				return null;
+			}
+			synchronized (this) {
+				batcher = this.validationBatcher;
+				if (batcher == null) {
+					batcher = new ValidationBatcher(properties.validationBatchWindow(),
+							properties.validationBatchSize(), this::validateTokens);
+					this.validationBatcher = batcher;
+				}
+			}
+		}
+		return batcher;
+	}
+
 	/**
 	 * Returns the RestClient instance, creating it lazily on first access.
 	 * <p>
@@ -0,0 +1,317 @@
+package com.example.demo.auth;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates tokens with auth-system's binary validation protocol over a Unix domain
+ * socket or a TCP connection on the same host.
+ * <p>
+ * Connections are persistent and carry one validation at a time. Idle connections are
+ * pooled, and a connection that fails is discarded rather than returned to the pool. When
+ * auth-system has closed a pooled connection in the meantime, for example by restarting,
+ * the request fails to send or reads end of stream before any reply byte; the validation
+ * is then retried once on a fresh connection. Every read and write gives up after the
+ * configured timeout rather than holding up the login, and a validation that timed out is
+ * not retried.
+ * <p>
+ * The wire format mirrors auth-system's {@code BinaryValidationProtocol}: strings are
+ * written as by {@link DataOutputStream#writeUTF(String)}, a connection starts with
+ * {@code u8 version, str apiKey} answered by a status byte, and each request
+ * {@code u8 1, str token} is answered by {@code u8 1, str username, str displayName,
+ * u8 roleCount, str role...} or {@code u8 0, str reason}.
+ */
+class BinaryValidationTransport implements Closeable {
+
+	private static final int VERSION = 1;
+
+	private static final int HANDSHAKE_OK = 0;
+
+	private static final int OP_VALIDATE = 1;
+
+	private static final int RESULT_VALID = 1;
+
+	private static final int MAX_IDLE_CONNECTIONS = 32;
+
+	private final SocketAddress address;
+
+	private final String apiKey;
+
+	private final Duration timeout;
+
+	private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates a transport for an endpoint of the form {@code unix:/path/to/socket} or
+	 * {@code tcp://host:port}.
+	 * @param endpoint the endpoint
+	 * @param apiKey the API key to present to auth-system
+	 * @param timeout how long to wait for auth-system on each read or write
+	 */
+	BinaryValidationTransport(String endpoint, String apiKey, Duration timeout) {
+		this.address = parseAddress(endpoint);
+		this.apiKey = apiKey;
+		this.timeout = timeout;
+	}
+
+	private static SocketAddress parseAddress(String endpoint) {
+		URI uri = URI.create(endpoint);
+		return switch (String.valueOf(uri.getScheme())) {
+			case "unix" -> UnixDomainSocketAddress.of(Path.of(uri.getSchemeSpecificPart()));
+			case "tcp" -> new InetSocketAddress(uri.getHost(), uri.getPort());
+			default -> throw new IllegalArgumentException(
+					"Unsupported binary endpoint '" + endpoint + "', expected unix:/path or tcp://host:port");
+		};
+	}
+
+	/**
+	 * Validates a token.
+	 * @param token the token to validate
+	 * @return the validation response
+	 * @throws UncheckedIOException if auth-system cannot be reached
+	 */
+	ValidateResponse validate(String token) {
+		try {
+			Connection pooled = this.idle.pollFirst();
+			if (pooled != null) {
+				this.idleCount.decrementAndGet();
+				try {
+					return exchange(pooled, token);
+				}
+				catch (ConnectionClosedException ex) {
+					// Closed while idle, so the request was never read
+				}
+			}
+			return exchange(connect(), token);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Binary token validation failed", ex);
+		}
+	}
+
+	private ValidateResponse exchange(Connection connection, String token) throws IOException {
+		try {
+			ValidateResponse response = connection.validate(token);
+			release(connection);
+			return response;
+		}
+		catch (IOException ex) {
+			connection.close();
+			throw ex;
+		}
+	}
+
+	private Connection connect() {
+		try {
+			return new Connection(this.address, this.apiKey, this.timeout);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to connect to auth-system at " + this.address, ex);
+		}
+	}
+
+	private void release(Connection connection) {
+		if (this.closed || this.idleCount.incrementAndGet() > MAX_IDLE_CONNECTIONS) {
+			this.idleCount.decrementAndGet();
+			connection.close();
+			return;
+		}
+		this.idle.offerFirst(connection);
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		Connection connection;
+		while ((connection = this.idle.pollFirst()) != null) {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Connection over a non-blocking channel with blocking streams on top, so that every
+	 * read and write can time out: a blocking channel ignores {@code SO_TIMEOUT}, and
+	 * Unix domain channels have no socket adaptor that would honor it.
+	 */
+	private static final class Connection {
+
+		private final SocketChannel channel;
+
+		private final Selector selector;
+
+		private final SelectionKey key;
+
+		private final long timeoutMillis;
+
+		private final DataInputStream in;
+
+		private final DataOutputStream out;
+
+		Connection(SocketAddress address, String apiKey, Duration timeout) throws IOException {
+			this.channel = SocketChannel.open(address);
+			this.timeoutMillis = Math.max(timeout.toMillis(), 1);
+			Selector selector = null;
+			try {
+				this.channel.configureBlocking(false);
+				selector = Selector.open();
+				this.selector = selector;
+				this.key = this.channel.register(selector, 0);
+				this.in = new DataInputStream(new BufferedInputStream(new ChannelInputStream()));
+				this.out = new DataOutputStream(new BufferedOutputStream(new ChannelOutputStream()));
+				this.out.writeByte(VERSION);
+				this.out.writeUTF(apiKey);
+				this.out.flush();
+				if (this.in.readUnsignedByte() != HANDSHAKE_OK) {
+					throw new IOException("auth-system rejected the binary validation handshake");
+				}
+			}
+			catch (IOException ex) {
+				if (selector != null) {
+					selector.close();
+				}
+				this.channel.close();
+				throw ex;
+			}
+		}
+
+		ValidateResponse validate(String token) throws IOException {
+			int result;
+			try {
+				this.out.writeByte(OP_VALIDATE);
+				this.out.writeUTF(token);
+				this.out.flush();
+				result = this.in.read();
+			}
+			catch (SocketTimeoutException ex) {
+				throw ex;
+			}
+			catch (IOException ex) {
+				throw new ConnectionClosedException(ex);
+			}
+			if (result < 0) {
+				throw new ConnectionClosedException(null);
+			}
+			if (result != RESULT_VALID) {
+				return new ValidateResponse(false, null, null, null, this.in.readUTF());
+			}
+			String username = this.in.readUTF();
+			String displayName = this.in.readUTF();
+			int roleCount = this.in.readUnsignedByte();
+			List<String> roles = new ArrayList<>(roleCount);
+			for (int i = 0; i < roleCount; i++) {
+				roles.add(this.in.readUTF());
+			}
+			return new ValidateResponse(true, username, displayName, roles, null);
+		}
+
+		void close() {
+			try {
+				this.selector.close();
+				this.channel.close();
+			}
+			catch (IOException ex) {
+				// Discarding the connection anyway
+			}
+		}
+
+		/**
+		 * Waits until the channel is ready for the given operation.
+		 */
+		private void await(int operation) throws IOException {
+			this.key.interestOps(operation);
+			try {
+				if (this.selector.select(this.timeoutMillis) == 0) {
+					throw new SocketTimeoutException(
+							"auth-system did not respond within " + this.timeoutMillis + " ms");
+				}
+			}
+			finally {
+				this.selector.selectedKeys().clear();
+				this.key.interestOps(0);
+			}
+		}
+
+		private final class ChannelInputStream extends InputStream {
+
+			@Override
+			public int read() throws IOException {
+				byte[] bytes = new byte[1];
+				return (read(bytes, 0, 1) < 0) ? -1 : bytes[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length) throws IOException {
+				if (length == 0) {
+					return 0;
+				}
+				ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+				int read;
+				while ((read = Connection.this.channel.read(buffer)) == 0) {
+					await(SelectionKey.OP_READ);
+				}
+				return read;
+			}
+
+		}
+
+		private final class ChannelOutputStream extends OutputStream {
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] bytes, int offset, int length) throws IOException {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+				while (buffer.hasRemaining()) {
+					if (Connection.this.channel.write(buffer) == 0) {
+						await(SelectionKey.OP_WRITE);
+					}
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * Thrown when auth-system closed a connection before replying to a request.
+	 */
+	private static final class ConnectionClosedException extends EOFException {
+
+		ConnectionClosedException(IOException cause) {
+			super("auth-system closed the connection before replying");
+			initCause(cause);
+		}
+
+	}
+
+}
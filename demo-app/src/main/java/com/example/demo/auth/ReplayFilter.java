@@ -0,0 +1,47 @@
+package com.example.demo.auth;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers used token ids for at least one token lifetime.
+ * <p>
+ * Ids are recorded in the current generation. Once a lifetime has passed, the current
+ * generation becomes the previous one and the old previous generation is dropped, so an
+ * id is remembered for between one and two lifetimes and memory stays proportional to the
+ * login rate rather than growing without bound.
+ */
+class ReplayFilter {
+
+	private final Duration lifetime;
+
+	private Set<String> current = new HashSet<>();
+
+	private Set<String> previous = new HashSet<>();
+
+	private Instant rotatedAt;
+
+	ReplayFilter(Duration lifetime, Instant now) {
+		this.lifetime = lifetime;
+		this.rotatedAt = now;
+	}
+
+	/**
+	 * Records a token id as used.
+	 * @param id the token id
+	 * @param now the current time
+	 * @return true if the id had not been used before
+	 */
+	synchronized boolean markUsed(String id, Instant now) {
+		if (!now.isBefore(this.rotatedAt.plus(this.lifetime))) {
+			boolean expiredBoth = !now.isBefore(this.rotatedAt.plus(this.lifetime.multipliedBy(2)));
+			this.previous = expiredBoth ? new HashSet<>() : this.current;
+			this.current = new HashSet<>();
+			this.rotatedAt = now;
+		}
+		return !this.previous.contains(id) && this.current.add(id);
+	}
+
+}
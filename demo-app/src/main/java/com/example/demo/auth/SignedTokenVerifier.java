@@ -0,0 +1,141 @@
+package com.example.demo.auth;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.example.demo.DemoAppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Verifies signed tokens issued by the auth system without calling its validation API.
+ * <p>
+ * A signed token has the form {@code id.claims.signature}, where {@code signature} is the
+ * HMAC-SHA256 of {@code id.claims} under the key shared with the auth system. Each token
+ * is accepted at most once by this application: accepted token ids are kept in a
+ * {@link ReplayFilter} until they have certainly expired.
+ */
+@Service
+public class SignedTokenVerifier {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private final ObjectProvider<DemoAppProperties> propertiesProvider;
+
+	private final ObjectMapper objectMapper;
+
+	private final Clock clock;
+
+	private volatile ReplayFilter replayFilter;
+
+	@Autowired
+	public SignedTokenVerifier(ObjectProvider<DemoAppProperties> propertiesProvider, ObjectMapper objectMapper) {
+		this(propertiesProvider, objectMapper, Clock.systemUTC());
+	}
+
+	SignedTokenVerifier(ObjectProvider<DemoAppProperties> propertiesProvider, ObjectMapper objectMapper, Clock clock) {
+		this.propertiesProvider = propertiesProvider;
+		this.objectMapper = objectMapper;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns whether the token can be verified locally, which requires a configured
+	 * signing key and a token in the signed form.
+	 * @param token the token
+	 * @return true if {@link #verify(String)} applies to the token
+	 */
+	public boolean supports(String token) {
+		return this.propertiesProvider.getObject().tokenSigningKey() != null && token.indexOf('.') > 0;
+	}
+
+	/**
+	 * Verifies a signed token and marks it as used.
+	 * @param token the signed token
+	 * @return the validation response
+	 */
+	public ValidateResponse verify(String token) {
+		DemoAppProperties properties = this.propertiesProvider.getObject();
+		String[] parts = token.split("\\.");
+		if (parts.length != 3) {
+			return failure("TOKEN_MALFORMED");
+		}
+
+		Claims claims;
+		try {
+			byte[] signature = Base64.getUrlDecoder().decode(parts[2]);
+			if (!MessageDigest.isEqual(signature, sign(properties.tokenSigningKey(), parts[0] + "." + parts[1]))) {
+				return failure("TOKEN_SIGNATURE_INVALID");
+			}
+			claims = this.objectMapper.readValue(Base64.getUrlDecoder().decode(parts[1]), Claims.class);
+		}
+		catch (IllegalArgumentException | IOException ex) {
+			return failure("TOKEN_MALFORMED");
+		}
+
+		Instant now = this.clock.instant();
+		Instant expiry = Instant.ofEpochSecond(claims.exp());
+		if (!now.isBefore(expiry)) {
+			return failure("TOKEN_EXPIRED");
+		}
+		if (expiry.isAfter(now.plus(properties.tokenMaxLifetime()))) {
+			return failure("TOKEN_LIFETIME_TOO_LONG");
+		}
+		if (!getReplayFilter(properties).markUsed(parts[0], now)) {
+			return failure("TOKEN_ALREADY_USED");
+		}
+		return new ValidateResponse(true, claims.sub(), claims.name(), claims.roles(), null);
+	}
+
+	private static byte[] sign(String key, String content) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+			return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("Failed to verify token signature", ex);
+		}
+	}
+
+	private static ValidateResponse failure(String reason) {
+		return new ValidateResponse(false, null, null, null, reason);
+	}
+
+	private ReplayFilter getReplayFilter(DemoAppProperties properties) {
+		ReplayFilter filter = this.replayFilter;
+		if (filter == null) {
+			synchronized (this) {
+				filter = this.replayFilter;
+				if (filter == null) {
+					filter = new ReplayFilter(properties.tokenMaxLifetime(), this.clock.instant());
+					this.replayFilter = filter;
+				}
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Claims embedded in a signed token.
+	 *
+	 * @param sub the username
+	 * @param name the display name
+	 * @param roles the roles of the user
+	 * @param exp the expiration time in epoch seconds
+	 */
+	record Claims(String sub, String name, List<String> roles, long exp) {
+	}
+
+}
@@ -9,22 +9,28 @@ import org.springframework.security.web.authentication.preauth.PreAuthenticatedA
 import org.springframework.stereotype.Service;
 
 /**
- * Loads user details by validating a pre-authenticated token with the auth system.
+ * Loads user details by validating a pre-authenticated token. Signed tokens are verified
+ * locally when a signing key is configured; all other tokens are validated with the auth
+ * system.
  */
 @Service
 public class TokenUserDetailsService implements AuthenticationUserDetailsService<PreAuthenticatedAuthenticationToken> {
 
 	private final AuthSystemClient authSystemClient;
 
-	public TokenUserDetailsService(AuthSystemClient authSystemClient) {
+	private final SignedTokenVerifier signedTokenVerifier;
+
+	public TokenUserDetailsService(AuthSystemClient authSystemClient, SignedTokenVerifier signedTokenVerifier) {
 		this.authSystemClient = authSystemClient;
+		this.signedTokenVerifier = signedTokenVerifier;
 	}
 
 	@Override
 	public UserDetails loadUserDetails(PreAuthenticatedAuthenticationToken token) throws UsernameNotFoundException {
 		String tokenValue = (String) token.getPrincipal();
 
-		ValidateResponse response = this.authSystemClient.validateToken(tokenValue);
+		ValidateResponse response = this.signedTokenVerifier.supports(tokenValue)
+				? this.signedTokenVerifier.verify(tokenValue) : this.authSystemClient.validateToken(tokenValue);
 
 		if (!response.valid()) {
 			throw new UsernameNotFoundException("Token validation failed: " + response.reason());
@@ -0,0 +1,9 @@
+package com.example.demo.auth;
+
+import java.util.List;
+
+/**
+ * Request to auth-system's batch token validation API.
+ */
+public record ValidateBatchRequest(List<String> tokens) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.auth;
+
+import java.util.List;
+
+/**
+ * Response from auth-system's batch token validation API.
+ */
+public record ValidateBatchResponse(List<ValidateResponse> results) {
+}
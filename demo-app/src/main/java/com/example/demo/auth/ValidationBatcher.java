@@ -0,0 +1,132 @@
+package com.example.demo.auth;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent token validations into batch requests.
+ * <p>
+ * Callers enqueue their token and wait. A collector thread takes the first waiting token,
+ * gathers more until the batch window has passed or the batch is full, and sends the
+ * batch on a virtual thread so that collecting the next batch is not held up by the
+ * request. Each caller then receives the result for its own token. Callers still waiting
+ * when the batcher is closed fail instead of waiting forever.
+ */
+class ValidationBatcher implements AutoCloseable {
+
+	private final Duration window;
+
+	private final int maxBatchSize;
+
+	private final Function<List<String>, List<ValidateResponse>> sender;
+
+	private final BlockingQueue<PendingValidation> queue = new LinkedBlockingQueue<>();
+
+	private final Thread collector;
+
+	private volatile boolean closed;
+
+	ValidationBatcher(Duration window, int maxBatchSize, Function<List<String>, List<ValidateResponse>> sender) {
+		this.window = window;
+		this.maxBatchSize = maxBatchSize;
+		this.sender = sender;
+		this.collector = Thread.ofPlatform().daemon().name("validation-batcher").start(this::collect);
+	}
+
+	/**
+	 * Validates a token as part of the next batch, waiting for the result.
+	 * @param token the token to validate
+	 * @return the validation response
+	 */
+	ValidateResponse validate(String token) {
+		if (this.closed) {
+			throw closedException();
+		}
+		PendingValidation pending = new PendingValidation(token, new CompletableFuture<>());
+		this.queue.add(pending);
+		// Closed since the check above; if close() did not drain this validation already,
+		// nothing else will
+		if (this.closed && this.queue.remove(pending)) {
+			throw closedException();
+		}
+		try {
+			return pending.result().get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for token validation", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Token validation failed", ex.getCause());
+		}
+	}
+
+	private void collect() {
+		List<PendingValidation> batch = new ArrayList<>(this.maxBatchSize);
+		try {
+			while (true) {
+				batch.add(this.queue.take());
+				long deadline = System.nanoTime() + this.window.toNanos();
+				while (batch.size() < this.maxBatchSize) {
+					PendingValidation next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				List<PendingValidation> full = batch;
+				Thread.ofVirtual().start(() -> send(full));
+				batch = new ArrayList<>(this.maxBatchSize);
+			}
+		}
+		catch (InterruptedException ex) {
+			// Closed while gathering a batch that will never be sent
+			IllegalStateException closed = closedException();
+			batch.forEach(pending -> pending.result().completeExceptionally(closed));
+		}
+	}
+
+	private void send(List<PendingValidation> batch) {
+		try {
+			List<ValidateResponse> results = this.sender.apply(batch.stream().map(PendingValidation::token).toList());
+			if (results == null || results.size() != batch.size()) {
+				throw new IllegalStateException("Batch validation returned " + ((results != null) ? results.size() : 0)
+						+ " results for " + batch.size() + " tokens");
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				batch.get(i).result().complete(results.get(i));
+			}
+		}
+		catch (RuntimeException ex) {
+			batch.forEach(pending -> pending.result().completeExceptionally(ex));
+		}
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		this.collector.interrupt();
+		IllegalStateException closed = closedException();
+		List<PendingValidation> remaining = new ArrayList<>();
+		this.queue.drainTo(remaining);
+		remaining.forEach(pending -> pending.result().completeExceptionally(closed));
+	}
+
+	private static IllegalStateException closedException() {
+		return new IllegalStateException("Validation batcher is closed");
+	}
+
+	private record PendingValidation(String token, CompletableFuture<ValidateResponse> result) {
+	}
+
+}
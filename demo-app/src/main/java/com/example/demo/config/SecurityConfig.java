@@ -14,6 +14,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationProvider;
+import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
 
 /**
  * Spring Security configuration for the Demo App.
@@ -38,9 +39,8 @@ public class SecurityConfig {
 	TokenAuthenticationFilter tokenAuthenticationFilter(AuthenticationManager authenticationManager) {
 		TokenAuthenticationFilter filter = new TokenAuthenticationFilter();
 		filter.setAuthenticationManager(authenticationManager);
-		// Redirect to clean URL (without token parameter) after successful authentication
-		filter.setAuthenticationSuccessHandler(
-				(request, response, authentication) -> response.sendRedirect(request.getRequestURI()));
+		// Serve the requested page on the token-bearing request itself; the page removes
+		// the token from the address bar with history.replaceState
 		return filter;
 	}
 
@@ -55,6 +55,7 @@ public class SecurityConfig {
 				.anyRequest().authenticated())
 			// @formatter:on
 			.addFilterBefore(tokenPreAuthenticatedFilter, UsernamePasswordAuthenticationFilter.class)
+			.headers(headers -> headers.referrerPolicy(referrer -> referrer.policy(ReferrerPolicy.SAME_ORIGIN)))
 			.exceptionHandling(ex -> ex.authenticationEntryPoint(new AuthSystemRedirectEntryPoint(propertiesProvider)))
 			.logout(logout -> logout.logoutSuccessHandler(new AuthSystemLogoutSuccessHandler(propertiesProvider)));
 		return http.build();
@@ -94,6 +94,9 @@ class DemoAppIntegrationTest {
 		this.page.waitForURL(url -> url.startsWith(baseUrl() + "/"));
 		assertThat(this.page).hasTitle("Demo App - Home");
 		assertThat(this.page.locator("h1")).hasText("Home");
+
+		// The token is removed from the address bar
+		assertThat(this.page).hasURL(baseUrl() + "/");
 	}
 
 	@Test
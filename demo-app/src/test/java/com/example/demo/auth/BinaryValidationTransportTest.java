@@ -0,0 +1,179 @@
+package com.example.demo.auth;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link BinaryValidationTransport} against an in-process server speaking
+ * auth-system's binary validation protocol over a Unix domain socket.
+ */
+class BinaryValidationTransportTest {
+
+	private static final String API_KEY = "test-api-key";
+
+	@TempDir
+	Path tempDir;
+
+	private final AtomicReference<Behavior> behavior = new AtomicReference<>(Behavior.REPLY);
+
+	private final List<SocketChannel> connections = new CopyOnWriteArrayList<>();
+
+	private final CountDownLatch stop = new CountDownLatch(1);
+
+	private ServerSocketChannel server;
+
+	private BinaryValidationTransport transport;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Path socketPath = this.tempDir.resolve("auth.sock");
+		this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		this.server.bind(UnixDomainSocketAddress.of(socketPath));
+		Thread.ofPlatform().daemon().start(this::accept);
+		this.transport = new BinaryValidationTransport("unix:" + socketPath, API_KEY, Duration.ofMillis(500));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		this.transport.close();
+		this.stop.countDown();
+		this.server.close();
+		closeConnections();
+	}
+
+	private void accept() {
+		try {
+			while (true) {
+				SocketChannel connection = this.server.accept();
+				this.connections.add(connection);
+				Thread.ofVirtual().start(() -> serve(connection));
+			}
+		}
+		catch (IOException ex) {
+			// Server closed
+		}
+	}
+
+	private void serve(SocketChannel connection) {
+		try (connection) {
+			DataInputStream in = new DataInputStream(Channels.newInputStream(connection));
+			DataOutputStream out = new DataOutputStream(Channels.newOutputStream(connection));
+			in.readUnsignedByte();
+			out.writeByte(API_KEY.equals(in.readUTF()) ? 0 : 1);
+			while (true) {
+				in.readUnsignedByte();
+				String token = in.readUTF();
+				switch (this.behavior.get()) {
+					case REPLY -> reply(out, token);
+					case CLOSE_ONCE -> {
+						this.behavior.set(Behavior.REPLY);
+						return;
+					}
+					case STALL -> this.stop.await();
+				}
+			}
+		}
+		catch (IOException | InterruptedException ex) {
+			// Connection closed
+		}
+	}
+
+	private static void reply(DataOutputStream out, String token) throws IOException {
+		if (token.startsWith("valid")) {
+			out.writeByte(1);
+			out.writeUTF("user1");
+			out.writeUTF("User One");
+			out.writeByte(1);
+			out.writeUTF("USER");
+		}
+		else {
+			out.writeByte(0);
+			out.writeUTF("TOKEN_NOT_FOUND");
+		}
+	}
+
+	private void closeConnections() throws IOException {
+		for (SocketChannel connection : this.connections) {
+			connection.close();
+		}
+	}
+
+	@Test
+	void shouldValidateTokensOverOnePooledConnection() {
+		ValidateResponse valid = this.transport.validate("valid1");
+		ValidateResponse invalid = this.transport.validate("unknown");
+
+		assertThat(valid).isEqualTo(new ValidateResponse(true, "user1", "User One", List.of("USER"), null));
+		assertThat(invalid).isEqualTo(new ValidateResponse(false, null, null, null, "TOKEN_NOT_FOUND"));
+		assertThat(this.connections).hasSize(1);
+	}
+
+	@Test
+	void shouldRetryOnFreshConnectionWhenPooledConnectionWasClosedWhileIdle() throws IOException {
+		this.transport.validate("valid1");
+		closeConnections();
+
+		assertThat(this.transport.validate("valid2").valid()).isTrue();
+		assertThat(this.connections).hasSize(2);
+	}
+
+	@Test
+	void shouldRetryOnFreshConnectionWhenPooledConnectionClosesBeforeReplying() {
+		this.transport.validate("valid1");
+		this.behavior.set(Behavior.CLOSE_ONCE);
+
+		assertThat(this.transport.validate("valid2").valid()).isTrue();
+		assertThat(this.connections).hasSize(2);
+	}
+
+	@Test
+	void shouldNotRetryWhenFreshConnectionClosesBeforeReplying() {
+		this.behavior.set(Behavior.CLOSE_ONCE);
+
+		assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> this.transport.validate("valid1"));
+		assertThat(this.connections).hasSize(1);
+	}
+
+	@Test
+	void shouldTimeOutWithoutRetryingWhenAuthSystemDoesNotReply() {
+		this.transport.validate("valid1");
+		this.behavior.set(Behavior.STALL);
+
+		long start = System.nanoTime();
+		assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> this.transport.validate("valid2"))
+			.withCauseInstanceOf(SocketTimeoutException.class);
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isBetween(Duration.ofMillis(500),
+				Duration.ofSeconds(5));
+		assertThat(this.connections).hasSize(1);
+	}
+
+	private enum Behavior {
+
+		REPLY, CLOSE_ONCE, STALL
+
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.example.demo.auth;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ReplayFilter}.
+ */
+class ReplayFilterTest {
+
+	private static final Duration LIFETIME = Duration.ofMinutes(5);
+
+	private final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final ReplayFilter filter = new ReplayFilter(LIFETIME, this.start);
+
+	@Test
+	void shouldRejectReplayWithinLifetime() {
+		assertThat(this.filter.markUsed("id1", this.start)).isTrue();
+		assertThat(this.filter.markUsed("id1", this.start.plusSeconds(60))).isFalse();
+		assertThat(this.filter.markUsed("id2", this.start.plusSeconds(60))).isTrue();
+	}
+
+	@Test
+	void shouldRememberIdsAcrossOneRotation() {
+		this.filter.markUsed("id1", this.start.plusSeconds(290));
+
+		assertThat(this.filter.markUsed("id1", this.start.plus(LIFETIME).plusSeconds(10))).isFalse();
+		assertThat(this.filter.markUsed("id1", this.start.plus(LIFETIME).plusSeconds(290))).isFalse();
+	}
+
+	@Test
+	void shouldEvictIdsAfterTwoRotations() {
+		this.filter.markUsed("id1", this.start);
+		this.filter.markUsed("id2", this.start.plus(LIFETIME));
+
+		Instant later = this.start.plus(LIFETIME.multipliedBy(2));
+		assertThat(this.filter.markUsed("id1", later)).isTrue();
+		assertThat(this.filter.markUsed("id2", later)).isFalse();
+	}
+
+	@Test
+	void shouldEvictEverythingAfterLongIdlePeriod() {
+		this.filter.markUsed("id1", this.start.plusSeconds(290));
+
+		assertThat(this.filter.markUsed("id1", this.start.plus(LIFETIME.multipliedBy(2)))).isTrue();
+	}
+
+}
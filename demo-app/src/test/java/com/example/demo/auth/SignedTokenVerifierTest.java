@@ -0,0 +1,97 @@
+package com.example.demo.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.example.demo.DemoAppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SignedTokenVerifier} driven by a controllable clock.
+ */
+class SignedTokenVerifierTest {
+
+	private static final String KEY = "test-signing-key";
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private final SignedTokenVerifier verifier = new SignedTokenVerifier(
+			new StaticListableBeanFactory(Map.of("properties",
+					new DemoAppProperties(null, null, KEY, Duration.ofMinutes(5), Duration.ZERO, 64, null, null)))
+				.getBeanProvider(DemoAppProperties.class),
+			new ObjectMapper(), ((InstantSource) this.now::get).withZone(ZoneOffset.UTC));
+
+	private String claims(long expiresInSeconds) {
+		long exp = this.now.get().plusSeconds(expiresInSeconds).getEpochSecond();
+		String json = "{\"sub\":\"user1\",\"name\":\"User One\",\"roles\":[\"USER\"],\"exp\":" + exp + "}";
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String signed(String key, String id, String claims) throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+		byte[] signature = mac.doFinal((id + "." + claims).getBytes(StandardCharsets.US_ASCII));
+		return id + "." + claims + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+	}
+
+	@Test
+	void shouldAcceptValidTokenOnlyOnce() throws Exception {
+		String token = signed(KEY, "id1", claims(60));
+
+		ValidateResponse response = this.verifier.verify(token);
+		assertThat(response.valid()).isTrue();
+		assertThat(response.username()).isEqualTo("user1");
+		assertThat(response.roles()).containsExactly("USER");
+
+		assertThat(this.verifier.verify(token).reason()).isEqualTo("TOKEN_ALREADY_USED");
+	}
+
+	@Test
+	void shouldRejectTokenSignedWithAnotherKey() throws Exception {
+		assertThat(this.verifier.verify(signed("other-key", "id1", claims(60))).reason())
+			.isEqualTo("TOKEN_SIGNATURE_INVALID");
+	}
+
+	@Test
+	void shouldRejectTamperedClaims() throws Exception {
+		String[] parts = signed(KEY, "id1", claims(60)).split("\\.");
+		String tampered = parts[0] + "." + claims(3600) + "." + parts[2];
+
+		assertThat(this.verifier.verify(tampered).reason()).isEqualTo("TOKEN_SIGNATURE_INVALID");
+	}
+
+	@Test
+	void shouldRejectExpiredToken() throws Exception {
+		String token = signed(KEY, "id1", claims(60));
+
+		this.now.updateAndGet(instant -> instant.plusSeconds(60));
+
+		assertThat(this.verifier.verify(token).reason()).isEqualTo("TOKEN_EXPIRED");
+	}
+
+	@Test
+	void shouldRejectTokenOutlivingMaxLifetime() throws Exception {
+		assertThat(this.verifier.verify(signed(KEY, "id1", claims(3600))).reason())
+			.isEqualTo("TOKEN_LIFETIME_TOO_LONG");
+	}
+
+	@Test
+	void shouldRejectMalformedToken() {
+		assertThat(this.verifier.verify("id1.claims").reason()).isEqualTo("TOKEN_MALFORMED");
+		assertThat(this.verifier.verify("id1.claims.not*base64").reason()).isEqualTo("TOKEN_MALFORMED");
+	}
+
+}
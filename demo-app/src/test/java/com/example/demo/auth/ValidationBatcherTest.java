@@ -0,0 +1,132 @@
+package com.example.demo.auth;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link ValidationBatcher}.
+ */
+class ValidationBatcherTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+	private ValidationBatcher batcher;
+
+	@AfterEach
+	void tearDown() {
+		if (this.batcher != null) {
+			this.batcher.close();
+		}
+		this.executor.shutdownNow();
+	}
+
+	private ValidationBatcher batcher(Duration window, int maxBatchSize) {
+		return batcher(window, maxBatchSize,
+				tokens -> tokens.stream()
+					.map(token -> new ValidateResponse(true, token, null, List.of(), null))
+					.toList());
+	}
+
+	private ValidationBatcher batcher(Duration window, int maxBatchSize,
+			Function<List<String>, List<ValidateResponse>> sender) {
+		this.batcher = new ValidationBatcher(window, maxBatchSize, tokens -> {
+			this.batches.add(tokens);
+			return sender.apply(tokens);
+		});
+		return this.batcher;
+	}
+
+	private CompletableFuture<ValidateResponse> validate(String token) {
+		return CompletableFuture.supplyAsync(() -> this.batcher.validate(token), this.executor);
+	}
+
+	@Test
+	void shouldSendFullBatchWithoutWaitingForWindow() {
+		batcher(Duration.ofMinutes(1), 3);
+
+		List<CompletableFuture<ValidateResponse>> results = List.of(validate("a"), validate("b"), validate("c"));
+
+		for (CompletableFuture<ValidateResponse> result : results) {
+			assertThat(result).succeedsWithin(TIMEOUT);
+		}
+		assertThat(results).extracting(result -> result.join().username()).containsExactly("a", "b", "c");
+		assertThat(this.batches).singleElement().satisfies(batch -> assertThat(batch).hasSize(3));
+	}
+
+	@Test
+	void shouldSendPartialBatchOnceWindowHasPassed() {
+		batcher(Duration.ofMillis(50), 100);
+
+		long start = System.nanoTime();
+		assertThat(validate("a")).succeedsWithin(TIMEOUT)
+			.satisfies(response -> assertThat(response.username()).isEqualTo("a"));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+		assertThat(this.batches).containsExactly(List.of("a"));
+	}
+
+	@Test
+	void shouldFailEveryWaiterWhenBatchFails() {
+		batcher(Duration.ofMinutes(1), 2, tokens -> {
+			throw new IllegalStateException("Auth system unavailable");
+		});
+
+		List<CompletableFuture<ValidateResponse>> results = List.of(validate("a"), validate("b"));
+
+		for (CompletableFuture<ValidateResponse> result : results) {
+			assertThat(result).failsWithin(TIMEOUT)
+				.withThrowableOfType(Exception.class)
+				.havingRootCause()
+				.withMessage("Auth system unavailable");
+		}
+	}
+
+	@Test
+	void shouldFailEveryWaiterWhenBatchReturnsWrongNumberOfResults() {
+		batcher(Duration.ofMinutes(1), 2, tokens -> List.of());
+
+		List<CompletableFuture<ValidateResponse>> results = List.of(validate("a"), validate("b"));
+
+		for (CompletableFuture<ValidateResponse> result : results) {
+			assertThat(result).failsWithin(TIMEOUT)
+				.withThrowableOfType(Exception.class)
+				.havingRootCause()
+				.withMessage("Batch validation returned 0 results for 2 tokens");
+		}
+	}
+
+	@Test
+	void shouldFailWaitersAndLaterValidationsWhenClosed() throws Exception {
+		batcher(Duration.ofMinutes(1), 10);
+		CompletableFuture<ValidateResponse> waiting = validate("a");
+		// Let the collector take the validation and start gathering a batch around it
+		TimeUnit.MILLISECONDS.sleep(100);
+
+		this.batcher.close();
+
+		assertThat(waiting).failsWithin(TIMEOUT)
+			.withThrowableOfType(Exception.class)
+			.havingRootCause()
+			.withMessage("Validation batcher is closed");
+		assertThatIllegalStateException().isThrownBy(() -> this.batcher.validate("b"))
+			.withMessage("Validation batcher is closed");
+		assertThat(this.batches).isEmpty();
+	}
+
+}